@@ -13,4 +13,6 @@ public class CursoCreateDTO {
     private String descripcion;
     private CursoEntity.NivelCurso nivel;
     private Double precio;
+    // Plazas del curso; si no se indica, cursos.capacidad-por-defecto
+    private Integer capacidad;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.academia.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentoAlmacenado {
+
+    // Hash SHA-256 del contenido, en hexadecimal
+    private String clave;
+    private long tamanho;
+
+    // Tipo MIME a guardar en la entidad: el declarado por el cliente o, si no es fiable, el detectado
+    private String tipoMime;
+
+    public DocumentoAlmacenado(String clave, long tamanho) {
+        this.clave = clave;
+        this.tamanho = tamanho;
+    }
+}
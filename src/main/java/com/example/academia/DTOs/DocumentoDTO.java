@@ -14,4 +14,14 @@ public class DocumentoDTO {
     private String tipoArchivo;
     private byte[] contenido;
 
+    // Documentos en el DocumentStore: se sirven en streaming a partir de la clave
+    private String clave;
+    private Long tamanho;
+
+    public DocumentoDTO(String nombreArchivo, String tipoArchivo, byte[] contenido) {
+        this.nombreArchivo = nombreArchivo;
+        this.tipoArchivo = tipoArchivo;
+        this.contenido = contenido;
+    }
+
 }
@@ -0,0 +1,15 @@
+package com.example.academia.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de una ejecución de la generación de entregas vencidas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneracionVencidasDTO {
+    private int tareasProcesadas;
+    private int entregasCreadas;
+    private long duracionMs;
+}
@@ -0,0 +1,18 @@
+package com.example.academia.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+// Bloqueo adquirido por este nodo: el token identifica la adquisición (fencing)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLock {
+    private String nombre;
+    private String propietario;
+    private long token;
+    private Duration arrendamiento;
+}
@@ -0,0 +1,33 @@
+package com.example.academia.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resultado de una matrícula masiva: totales y las filas que no se pudieron matricular (hasta un máximo)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatriculaMasivaResultadoDTO {
+    private long filasLeidas;
+    private long matriculasCreadas;
+    // Pares que ya estaban matriculados (o repetidos en el fichero): no son error, la importación se puede repetir
+    private long yaMatriculadas;
+    private long filasConError;
+    private List<ErrorFila> errores = new ArrayList<>();
+    private long duracionMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        // Número de línea (CSV) o posición en el array (JSON), empezando en 1
+        private long fila;
+        private Long cursoId;
+        private Long alumnoId;
+        private String error;
+    }
+}
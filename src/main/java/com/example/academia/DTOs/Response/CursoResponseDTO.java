@@ -17,6 +17,9 @@ public class CursoResponseDTO {
     private String descripcion;
     private CursoEntity.NivelCurso nivel;
     private Double precio;
+    private Integer capacidad;
+    private Integer inscritos;
+    private Integer plazasLibres;
 
     // Solo IDs y nombres para evitar recursión
     private List<ProfesorSimpleDTO> profesores;
@@ -0,0 +1,14 @@
+package com.example.academia.DTOs.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Listado completo (desplegables) con el ETag de su contenido; la lista es inmutable y compartida entre peticiones
+@Getter
+@AllArgsConstructor
+public class ListadoVersionadoDTO<T> {
+    private final List<T> contenido;
+    private final String etag;
+}
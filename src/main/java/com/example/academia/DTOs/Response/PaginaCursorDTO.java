@@ -0,0 +1,17 @@
+package com.example.academia.DTOs.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de un listado por cursor: sin total ni número de página, solo el token para pedir la siguiente
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> contenido;
+    private String siguienteCursor;
+    private boolean hayMas;
+}
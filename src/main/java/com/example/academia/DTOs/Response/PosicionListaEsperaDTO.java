@@ -0,0 +1,16 @@
+package com.example.academia.DTOs.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Posición de un alumno en la lista de espera de un curso (1 = el siguiente en obtener plaza)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PosicionListaEsperaDTO {
+    private Long cursoId;
+    private Long alumnoId;
+    private long posicion;
+    private long enEspera;
+}
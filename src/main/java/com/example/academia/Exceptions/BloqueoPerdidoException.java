@@ -0,0 +1,9 @@
+package com.example.academia.Exceptions;
+
+// El arrendamiento de un trabajo programado caducó y otro nodo se ha quedado con el bloqueo
+public class BloqueoPerdidoException extends RuntimeException {
+
+    public BloqueoPerdidoException(String trabajo) {
+        super("Se ha perdido el bloqueo del trabajo '" + trabajo + "': otro nodo lo ha adquirido");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.academia.Exceptions;
+
+/**
+ * Se lanza al matricular en un curso sin plazas: el alumno queda (o ya estaba) en la lista de espera.
+ * No deshace la transacción; los controladores la traducen a 202 Accepted con la posición en la lista.
+ */
+public class CursoCompletoException extends RuntimeException {
+
+    private final long posicion;
+
+    public CursoCompletoException(String message, long posicion) {
+        super(message);
+        this.posicion = posicion;
+    }
+
+    public long getPosicion() {
+        return posicion;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.academia.Exceptions;
+
+/**
+ * Se lanza cuando un recurso limitado (p. ej. el presupuesto de subidas en curso) está agotado.
+ * Los controladores la traducen a 503 Service Unavailable con cabecera Retry-After.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    public ServicioSaturadoException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.academia.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache sobre Caffeine) para las entidades de referencia,
+ * que se leen mucho más de lo que se escriben: cursos, profesores y alumnos.
+ * Los usuarios no se cachean: la caché es local a cada nodo y las credenciales y el rol deben verse
+ * al momento en todas las réplicas. Por lo mismo no hay caché de consultas.
+ * Las regiones se crean aquí con el tamaño y TTL de cache.segundo-nivel y con estadísticas,
+ * que se publican como métricas (cache.* por región y hibernate.* de la sesión).
+ *
+ * Solo se cachean las colecciones del lado propietario (CursoEntity.profesores y CursoEntity.alumnos):
+ * Hibernate invalida una colección cacheada cuando se modifica esa colección, no cuando se modifica
+ * el lado inverso, así que Profesor/Alumno.cursos no se cachean. Las escrituras directas a las tablas
+ * de matrícula (SQL nativo o JDBC) deben invalidar estas regiones a mano.
+ * Las consultas nativas de escritura declaran su tabla (HINT_NATIVE_SPACES); sin ello Hibernate
+ * vaciaría todas las regiones en cada ejecución.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheSegundoNivelProperties.class)
+public class CacheSegundoNivelConfig {
+
+    // Regiones de entidades y colecciones (los nombres se usan en @Cache de cada entidad)
+    public static final List<String> REGIONES = List.of(
+            "cursos", "cursos.profesores", "cursos.alumnos", "profesores", "alumnos");
+
+    // Hibernate cierra el CacheManager al cerrar la SessionFactory
+    @Bean(destroyMethod = "")
+    public CacheManager cacheSegundoNivelManager(CacheSegundoNivelProperties properties, MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        for (String nombre : REGIONES) {
+            CacheSegundoNivelProperties.Region region = properties.region(nombre);
+            CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+            configuracion.setMaximumSize(OptionalLong.of(region.getMaximo()));
+            configuracion.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+            configuracion.setStatisticsEnabled(true);
+            registrar(cacheManager, nombre, configuracion, meterRegistry);
+        }
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheSegundoNivelManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheSegundoNivelManager);
+    }
+
+    private static void registrar(CacheManager cacheManager, String nombre,
+                                  CaffeineConfiguration<Object, Object> configuracion, MeterRegistry meterRegistry) {
+        Cache<Object, Object> cache = cacheManager.getCache(nombre);
+        if (cache == null) {
+            cache = cacheManager.createCache(nombre, configuracion);
+        }
+        JCacheMetrics.monitor(meterRegistry, cache);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.academia.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Tamaño y TTL de cada región de la caché de segundo nivel (cache.segundo-nivel en application.yml)
+@Data
+@ConfigurationProperties(prefix = "cache.segundo-nivel")
+public class CacheSegundoNivelProperties {
+
+    // Valores para las regiones que no aparecen en "regiones"
+    private Region defecto = new Region();
+
+    private Map<String, Region> regiones = new HashMap<>();
+
+    @Data
+    public static class Region {
+        private Duration ttl = Duration.ofMinutes(10);
+        private long maximo = 1000;
+    }
+
+    public Region region(String nombre) {
+        return regiones.getOrDefault(nombre, defecto);
+    }
+}
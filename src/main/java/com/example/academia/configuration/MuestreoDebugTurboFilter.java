@@ -0,0 +1,46 @@
+package com.example.academia.configuration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Muestreo de trazas DEBUG/TRACE: con DEBUG activo bajo carga solo se deja pasar 1 de cada "tasa" eventos
+ * de los loggers bajo "prefijo". INFO y superiores nunca se muestrean.
+ * Se configura en logback-spring.xml; con tasa 1 no filtra nada.
+ */
+public class MuestreoDebugTurboFilter extends TurboFilter {
+
+    private final AtomicLong contador = new AtomicLong();
+
+    private int tasa = 1;
+    private String prefijo = "com.example.academia";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || tasa <= 1 || level == null || level.toInt() > Level.DEBUG_INT) {
+            return FilterReply.NEUTRAL;
+        }
+        // Las comprobaciones isDebugEnabled() no llevan mensaje: no cuentan para el muestreo
+        if (format == null || !logger.getName().startsWith(prefijo)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Nivel desactivado para este logger: lo descarta la comprobación normal
+        if (logger.getEffectiveLevel().toInt() > level.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        return contador.incrementAndGet() % tasa == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setTasa(int tasa) {
+        this.tasa = tasa;
+    }
+
+    public void setPrefijo(String prefijo) {
+        this.prefijo = prefijo;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.academia.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.hql.HqlTranslator;
+import org.hibernate.query.sqm.tree.SqmStatement;
+import org.hibernate.query.sqm.tree.from.SqmAttributeJoin;
+import org.hibernate.query.sqm.tree.from.SqmFrom;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Impide arrancar la aplicación si algún método de repositorio combina JOIN FETCH de una colección
+ * con un Pageable. Hibernate resolvería esa consulta cargando todas las filas y paginando en memoria
+ * (HHH000104); en su lugar hay que paginar primero los IDs y cargar las relaciones después.
+ * Cada JPQL se analiza con el mismo traductor HQL de Hibernate que la ejecutará, así que los joins
+ * (con o sin alias, anidados o sobre rutas) se resuelven contra el modelo real y no con expresiones regulares.
+ * Complementa a hibernate.query.fail_on_pagination_over_collection_fetch, que solo falla al ejecutar la consulta.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaginacionFetchJoinGuard {
+
+    private final ApplicationContext applicationContext;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void verificar() {
+        HqlTranslator traductor = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getQueryEngine().getHqlTranslator();
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> infracciones = new ArrayList<>();
+
+        for (Class<?> dominio : repositories) {
+            repositories.getRepositoryInformationFor(dominio).ifPresent(info -> {
+                for (Method metodo : info.getRepositoryInterface().getMethods()) {
+                    Query query = metodo.getAnnotation(Query.class);
+                    if (query == null || query.nativeQuery() || !esPaginado(metodo)) {
+                        continue;
+                    }
+                    String coleccion = coleccionConFetch(traductor.translate(query.value(), null));
+                    if (coleccion != null) {
+                        infracciones.add(metodo.getDeclaringClass().getSimpleName() + "." + metodo.getName()
+                                + " (JOIN FETCH " + coleccion + ")");
+                    }
+                }
+            });
+        }
+
+        if (!infracciones.isEmpty()) {
+            throw new IllegalStateException(
+                    "Consultas paginadas con JOIN FETCH de colecciones (paginación en memoria): " + infracciones);
+        }
+    }
+
+    private static boolean esPaginado(Method metodo) {
+        return Arrays.stream(metodo.getParameterTypes()).anyMatch(Pageable.class::isAssignableFrom);
+    }
+
+    // Devuelve el primer atributo de colección con JOIN FETCH en la consulta principal, o null si no hay ninguno
+    static String coleccionConFetch(SqmStatement<?> sentencia) {
+        if (!(sentencia instanceof SqmSelectStatement<?> select)) {
+            return null;
+        }
+        for (SqmFrom<?, ?> raiz : select.getQuerySpec().getFromClause().getRoots()) {
+            String coleccion = coleccionConFetch(raiz);
+            if (coleccion != null) {
+                return coleccion;
+            }
+        }
+        return null;
+    }
+
+    private static String coleccionConFetch(SqmFrom<?, ?> origen) {
+        for (var join : origen.getSqmJoins()) {
+            if (join instanceof SqmAttributeJoin<?, ?> atributo && atributo.isFetched()
+                    && atributo.getAttribute().isCollection()) {
+                return atributo.getAttribute().getDeclaringType().getJavaType().getSimpleName()
+                        + "." + atributo.getAttribute().getName();
+            }
+            String anidada = coleccionConFetch(join);
+            if (anidada != null) {
+                return anidada;
+            }
+        }
+        return null;
+    }
+}
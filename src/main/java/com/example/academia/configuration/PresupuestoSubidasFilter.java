@@ -0,0 +1,97 @@
+package com.example.academia.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Presupuesto global de subidas (multipart) en curso, aplicado antes de leer el cuerpo.
+ * El resolver multipart vuelca las partes a disco al despachar la petición, así que la reserva tiene que
+ * hacerse aquí, con el Content-Length, y no en la ingesta: cuando el presupuesto está agotado se responde
+ * 503 sin haber recibido el fichero. Sin Content-Length (chunked) no se puede acotar y se rechaza con 411;
+ * por encima de spring.servlet.multipart.max-request-size, 413. La reserva dura toda la petición.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PresupuestoSubidasFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(PresupuestoSubidasFilter.class);
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore presupuestoKb;
+    private final int presupuestoTotalKb;
+    private final long maximoPeticionBytes;
+    private final long retryAfterSegundos;
+
+    public PresupuestoSubidasFilter(ObjectMapper objectMapper,
+                                    @Value("${documentos.ingesta.presupuesto-mb:256}") int presupuestoMb,
+                                    @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize maximoPeticion,
+                                    @Value("${documentos.ingesta.retry-after-segundos:5}") long retryAfterSegundos) {
+        this.objectMapper = objectMapper;
+        this.presupuestoTotalKb = presupuestoMb * 1024;
+        this.presupuestoKb = new Semaphore(presupuestoTotalKb);
+        this.maximoPeticionBytes = maximoPeticion.toBytes();
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String tipo = request.getContentType();
+        return tipo == null || !tipo.regionMatches(true, 0, "multipart/", 0, "multipart/".length());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long longitud = request.getContentLengthLong();
+        if (longitud < 0) {
+            rechazar(response, HttpStatus.LENGTH_REQUIRED, "Las subidas de ficheros deben indicar Content-Length");
+            return;
+        }
+        if (longitud > maximoPeticionBytes) {
+            rechazar(response, HttpStatus.PAYLOAD_TOO_LARGE, "El fichero supera el tamaño máximo permitido");
+            return;
+        }
+
+        // Una petición mayor que el presupuesto completo (si se configura por debajo del máximo) lo reserva entero
+        int reservaKb = (int) Math.min(presupuestoTotalKb, Math.max(1, (longitud + 1023) / 1024));
+        if (!presupuestoKb.tryAcquire(reservaKb)) {
+            log.debug("Subida rechazada sin leer el cuerpo: {} KB pedidos, {} KB libres", reservaKb, presupuestoKb.availablePermits());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas subidas en curso, inténtelo de nuevo en unos segundos");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            presupuestoKb.release(reservaKb);
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, HttpStatus estado, String mensaje) throws IOException {
+        // El cliente sigue enviando: sin cerrar la conexión el contenedor intentaría leer el cuerpo entero
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", mensaje));
+    }
+}
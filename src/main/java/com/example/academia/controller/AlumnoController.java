@@ -6,6 +6,8 @@ import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.servicios.AlumnoService;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +21,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AlumnoController {
 
+    private static final Logger log = LoggerFactory.getLogger(AlumnoController.class);
+
     private final AlumnoService alumnoService;
 
     @PostMapping
@@ -27,11 +31,10 @@ public class AlumnoController {
             AlumnoResponseDTO createdAlumno = alumnoService.saveAlumno(alumno);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdAlumno);
         } catch (ValidationException e) {
-            System.err.println("❌ Error de validación: " + e.getMessage());
+            log.warn("❌ Error de validación: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ Error interno: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error interno: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor", "details", e.getMessage()));
         }
@@ -2,20 +2,29 @@ package com.example.academia.controller;
 
 import com.example.academia.DTOs.Created.CursoCreateDTO;
 import com.example.academia.DTOs.CursoConDetallesDTO;
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO;
 import com.example.academia.DTOs.Response.AlumnoResponseDTO;
 import com.example.academia.DTOs.Response.CursoResponseDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PosicionListaEsperaDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
+import com.example.academia.Exceptions.CursoCompletoException;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.servicios.CursoService;
+import com.example.academia.servicios.MatriculaMasivaService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +38,7 @@ public class CursoController {
     private static final Logger log = LoggerFactory.getLogger(CursoController.class);
 
     private final CursoService cursoService;
+    private final MatriculaMasivaService matriculaMasivaService;
 
     @GetMapping
     public ResponseEntity<Page<CursoResponseDTO>> getAllCursos(
@@ -56,7 +66,12 @@ public class CursoController {
 
     @GetMapping("/listar")
     public ResponseEntity<List<CursoSimpleDTO>> getAllCursos() {
-        return ResponseEntity.ok(cursoService.findAllLista());
+        // Si el If-None-Match coincide con el ETag, Spring responde 304 sin cuerpo
+        ListadoVersionadoDTO<CursoSimpleDTO> listado = cursoService.findAllLista();
+        return ResponseEntity.ok()
+                .eTag(listado.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(listado.getContenido());
     }
 
     @GetMapping("/buscar")
@@ -159,11 +174,29 @@ public class CursoController {
         try {
             CursoResponseDTO curso = cursoService.enrollAlumnoInCurso(cursoId, alumnoId);
             return ResponseEntity.ok(curso);
+        } catch (CursoCompletoException e) {
+            // En lista de espera: el cliente consulta su posición en /lista-espera/{alumnoId} en lugar de reintentar
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "error", e.getMessage(),
+                    "listaEspera", true,
+                    "posicion", e.getPosicion()));
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    // Matrícula masiva en streaming: CSV "cursoId,alumnoId" (cabecera opcional)...
+    @PostMapping(value = "/matriculas", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<MatriculaMasivaResultadoDTO> matricularCsv(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(matriculaMasivaService.matricularCsv(cuerpo));
+    }
+
+    // ...o array JSON [{"cursoId": 1, "alumnoId": 2}, ...]. Los errores por fila van en el resultado
+    @PostMapping(value = "/matriculas", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MatriculaMasivaResultadoDTO> matricularJson(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(matriculaMasivaService.matricularJson(cuerpo));
+    }
+
     @DeleteMapping("/{cursoId}/alumnos/{alumnoId}")
     public ResponseEntity<?> unenrollAlumnoFromCurso(@PathVariable Long cursoId, @PathVariable Long alumnoId) {
         try {
@@ -174,6 +207,26 @@ public class CursoController {
         }
     }
 
+    @GetMapping("/{cursoId}/lista-espera/{alumnoId}")
+    public ResponseEntity<?> getPosicionListaEspera(@PathVariable Long cursoId, @PathVariable Long alumnoId) {
+        try {
+            PosicionListaEsperaDTO posicion = cursoService.getPosicionListaEspera(cursoId, alumnoId);
+            return ResponseEntity.ok(posicion);
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{cursoId}/lista-espera/{alumnoId}")
+    public ResponseEntity<?> abandonarListaEspera(@PathVariable Long cursoId, @PathVariable Long alumnoId) {
+        try {
+            cursoService.abandonarListaEspera(cursoId, alumnoId);
+            return ResponseEntity.noContent().build();
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{cursoId}/alumnos")
     public ResponseEntity<Set<AlumnoResponseDTO>> getAlumnosByCurso(@PathVariable Long cursoId) {
         try {
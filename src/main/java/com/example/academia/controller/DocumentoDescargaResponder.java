@@ -0,0 +1,165 @@
+package com.example.academia.controller;
+
+import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.servicios.DocumentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Construye las respuestas de descarga de documentos.
+ * Los documentos del DocumentStore se envían en streaming con FileChannel.transferTo, de modo que
+ * la memoria usada por descarga es un buffer fijo independiente del tamaño del fichero.
+ * Soporta peticiones parciales (Range / If-Range) con la clave SHA-256 como ETag fuerte.
+ * El fichero se abre antes de construir la respuesta: si falta, se lanza ValidationException (404 en los
+ * controladores) en lugar de fallar con las cabeceras ya enviadas. El canal abierto pasa al cuerpo, que lo cierra.
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentoDescargaResponder {
+
+    private final DocumentStore documentStore;
+
+    public ResponseEntity<StreamingResponseBody> responder(DocumentoDTO documento, HttpHeaders peticion) throws IOException {
+        String etag = documento.getClave() != null ? "\"" + documento.getClave() + "\"" : null;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(tipoDe(documento));
+        headers.setContentDispositionFormData("attachment", documento.getNombreArchivo());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+
+        // El contenido es inmutable para una clave: si el cliente ya lo tiene, no se envía
+        if (etag != null && peticion.getIfNoneMatch().contains(etag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        FileChannel canal = abrir(documento);
+        try {
+            return responderConContenido(documento, canal, headers, peticion, etag);
+        } catch (IOException | RuntimeException e) {
+            cerrar(canal);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> responderConContenido(DocumentoDTO documento, FileChannel canal,
+                                                                       HttpHeaders headers, HttpHeaders peticion,
+                                                                       String etag) throws IOException {
+        long longitud = canal != null ? canal.size() : documento.getContenido().length;
+        List<HttpRange> rangos = rangosSolicitados(peticion, etag);
+        if (rangos.size() == 1) {
+            HttpRange rango = rangos.get(0);
+            long inicio;
+            long fin;
+            try {
+                inicio = rango.getRangeStart(longitud);
+                fin = rango.getRangeEnd(longitud);
+            } catch (IllegalArgumentException e) {
+                inicio = longitud;
+                fin = -1;
+            }
+            // HttpRange no rechaza un primer byte igual o posterior al final del documento
+            if (inicio >= longitud || fin < inicio) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + longitud);
+                cerrar(canal);
+                return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+            long cantidad = fin - inicio + 1;
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + longitud);
+            headers.setContentLength(cantidad);
+            return new ResponseEntity<>(cuerpo(documento, canal, inicio, cantidad), headers, HttpStatus.PARTIAL_CONTENT);
+        }
+
+        // Sin Range (o con varios rangos, que se ignoran): documento completo
+        headers.setContentLength(longitud);
+        return new ResponseEntity<>(cuerpo(documento, canal, 0, longitud), headers, HttpStatus.OK);
+    }
+
+    // If-Range: solo se atiende el Range si el validador coincide con la versión actual
+    private List<HttpRange> rangosSolicitados(HttpHeaders peticion, String etag) {
+        String range = peticion.getFirst(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+        String ifRange = peticion.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && (etag == null || !ifRange.trim().equals(etag))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // Cabecera Range mal formada: se ignora
+            return List.of();
+        }
+    }
+
+    // null para un documento heredado en memoria
+    private FileChannel abrir(DocumentoDTO documento) throws IOException {
+        if (documento.getClave() != null) {
+            return documentStore.abrirCanal(documento.getClave());
+        }
+        if (documento.getContenido() == null) {
+            // Fila heredada sin contenido y sin clave en el almacén
+            throw new ValidationException("El documento no tiene contenido: " + documento.getNombreArchivo());
+        }
+        return null;
+    }
+
+    private StreamingResponseBody cuerpo(DocumentoDTO documento, FileChannel canal, long inicio, long cantidad) {
+        if (canal == null) {
+            // Documento heredado aún sin migrar: ya está en memoria
+            byte[] contenido = documento.getContenido();
+            return out -> out.write(contenido, (int) inicio, (int) cantidad);
+        }
+        return out -> {
+            try (canal) {
+                transferir(canal, inicio, cantidad, out);
+            }
+        };
+    }
+
+    private static void cerrar(FileChannel canal) throws IOException {
+        if (canal != null) {
+            canal.close();
+        }
+    }
+
+    private static void transferir(FileChannel canal, long posicion, long cantidad, OutputStream out) throws IOException {
+        WritableByteChannel destino = Channels.newChannel(out);
+        while (cantidad > 0) {
+            long enviados = canal.transferTo(posicion, cantidad, destino);
+            if (enviados <= 0) {
+                break; // el fichero es más corto de lo esperado
+            }
+            posicion += enviados;
+            cantidad -= enviados;
+        }
+        out.flush();
+    }
+
+    private static MediaType tipoDe(DocumentoDTO documento) {
+        try {
+            return documento.getTipoArchivo() != null
+                    ? MediaType.parseMediaType(documento.getTipoArchivo())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
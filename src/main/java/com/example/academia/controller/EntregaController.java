@@ -2,16 +2,22 @@ package com.example.academia.controller;
 
 import com.example.academia.DTOs.CalificacionDTO;
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.GeneracionVencidasDTO;
 import com.example.academia.DTOs.Created.EntregaCreateDTO;
 import com.example.academia.DTOs.Response.EntregaResponseDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.Response.UsuarioResponseDTO;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.entidades.EntregaEntity;
 import com.example.academia.entidades.UsuarioEntity;
+import com.example.academia.security.CurrentUser;
+import com.example.academia.security.JwtUserPrincipal;
 import com.example.academia.servicios.EntregaService;
 import com.example.academia.servicios.UsuarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -32,18 +38,25 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class EntregaController {
 
+    private static final Logger log = LoggerFactory.getLogger(EntregaController.class);
+
     private final EntregaService entregaService;
     private final UsuarioService usuarioService;
     private final ObjectMapper  objectMapper;
+    private final DocumentoDescargaResponder documentoDescargaResponder;
 
     @GetMapping
-    public ResponseEntity<Page<EntregaResponseDTO>> getAllEntregas(
+    public ResponseEntity<?> getAllEntregas(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sort,
             @RequestParam(defaultValue = "asc") String direction) {
 
-        return ResponseEntity.ok(entregaService.findAll(page, size, sort, direction));
+        try {
+            return ResponseEntity.ok(entregaService.findAll(page, size, sort, direction));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
@@ -95,7 +108,7 @@ public class EntregaController {
                         .body(Map.of("error", "No se puede identificar al alumno de la entrega"));
             }
 
-            System.out.println("🔧 [DEBUG] Subiendo documento para entrega ID: " + id + ", alumnoId: " + alumnoId);
+            log.debug("🔧 [DEBUG] Subiendo documento para entrega ID: {}, alumnoId: {}", id, alumnoId);
 
             EntregaResponseDTO entrega = entregaService.uploadDocumento(id, file, alumnoId);
             return ResponseEntity.ok(entrega);
@@ -110,7 +123,8 @@ public class EntregaController {
     @PostMapping("/{id}/calificar")
     public ResponseEntity<?> calificarEntrega(
             @PathVariable Long id,
-            @RequestBody CalificacionDTO calificacionDTO) {
+            @RequestBody CalificacionDTO calificacionDTO,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
             // ✅ SOLUCIÓN: Obtener el profesorId de la tarea asociada a la entrega
@@ -122,7 +136,7 @@ public class EntregaController {
             }
 
             EntregaResponseDTO entregaDTO = entregaOpt.get();
-            Long profesorId = entregaService.getProfesorIdFromEntrega(id);
+            Long profesorId = profesorQueCalifica(usuario, id);
 
             // ✅ CAMBIO CRÍTICO: Validar que la entrega NO esté ya calificada (para calificar por primera vez)
             if (entregaDTO.getEstado() == EntregaEntity.EstadoEntrega.CALIFICADA) {
@@ -136,7 +150,7 @@ public class EntregaController {
                         .body(Map.of("error", "La entrega no tiene una tarea o profesor válido asociado"));
             }
 
-            System.out.println("🎯 [CALIFICAR] Calificando entrega ID: " + id + " por profesor ID: " + profesorId);
+            log.debug("🎯 [CALIFICAR] Calificando entrega ID: {} por profesor ID: {}", id, profesorId);
 
             EntregaResponseDTO entrega = entregaService.calificarEntrega(id, calificacionDTO, profesorId);
             return ResponseEntity.ok(entrega);
@@ -144,8 +158,7 @@ public class EntregaController {
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [CALIFICAR] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [CALIFICAR] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -154,7 +167,8 @@ public class EntregaController {
     public ResponseEntity<?> calificarEntregaConDocumento(
             @PathVariable Long id,
             @RequestParam("calificacion") String calificacionJson,
-            @RequestParam(value = "documentoProfesor", required = false) MultipartFile documentoProfesor) {
+            @RequestParam(value = "documentoProfesor", required = false) MultipartFile documentoProfesor,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
             // ✅ SOLUCIÓN: Obtener el profesorId de la tarea asociada a la entrega
@@ -165,7 +179,7 @@ public class EntregaController {
             }
 
             EntregaResponseDTO entregaDTO = entregaOpt.get();
-            Long profesorId = entregaService.getProfesorIdFromEntrega(id);
+            Long profesorId = profesorQueCalifica(usuario, id);
 
             // ✅ CAMBIO CRÍTICO: Validar que la entrega NO esté ya calificada (para calificar por primera vez)
             if (entregaDTO.getEstado() == EntregaEntity.EstadoEntrega.CALIFICADA) {
@@ -173,7 +187,7 @@ public class EntregaController {
                         .body(Map.of("error", "Esta entrega ya está calificada. Use el endpoint de edición para modificar la calificación."));
             }
 
-            System.out.println("🎯 [CALIFICAR-CON-DOC] Calificando entrega ID: " + id + " por profesor ID: " + profesorId);
+            log.debug("🎯 [CALIFICAR-CON-DOC] Calificando entrega ID: {} por profesor ID: {}", id, profesorId);
 
             CalificacionDTO calificacionDTO = objectMapper.readValue(calificacionJson, CalificacionDTO.class);
             EntregaResponseDTO entrega = entregaService.calificarEntregaConDocumento(id, calificacionDTO, profesorId, documentoProfesor);
@@ -186,8 +200,7 @@ public class EntregaController {
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [CALIFICAR-CON-DOC] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [CALIFICAR-CON-DOC] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -195,7 +208,8 @@ public class EntregaController {
     @PutMapping("/{id}/calificacion")
     public ResponseEntity<?> editarCalificacion(
             @PathVariable Long id,
-            @RequestBody CalificacionDTO calificacionDTO) {
+            @RequestBody CalificacionDTO calificacionDTO,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
             Optional<EntregaResponseDTO> entregaOpt = entregaService.findById(id);
@@ -204,9 +218,9 @@ public class EntregaController {
                         .body(Map.of("error", "Entrega no encontrada con ID: " + id));
             }
 
-            Long profesorId = entregaService.getProfesorIdFromEntrega(id);
+            Long profesorId = profesorQueCalifica(usuario, id);
 
-            System.out.println("🎯 [EDITAR-CALIFICACION] Editando calificación entrega ID: " + id + " por profesor ID: " + profesorId);
+            log.debug("🎯 [EDITAR-CALIFICACION] Editando calificación entrega ID: {} por profesor ID: {}", id, profesorId);
 
             EntregaResponseDTO entrega = entregaService.editarCalificacion(id, calificacionDTO, profesorId);
             return ResponseEntity.ok(entrega);
@@ -214,8 +228,7 @@ public class EntregaController {
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [EDITAR-CALIFICACION] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [EDITAR-CALIFICACION] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -225,7 +238,8 @@ public class EntregaController {
     public ResponseEntity<?> editarCalificacionConDocumento(
             @PathVariable Long id,
             @RequestParam("calificacion") String calificacionJson,
-            @RequestParam(value = "documentoProfesor", required = false) MultipartFile documentoProfesor) {
+            @RequestParam(value = "documentoProfesor", required = false) MultipartFile documentoProfesor,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
             Optional<EntregaResponseDTO> entregaOpt = entregaService.findById(id);
@@ -234,9 +248,9 @@ public class EntregaController {
                         .body(Map.of("error", "Entrega no encontrada con ID: " + id));
             }
 
-            Long profesorId = entregaService.getProfesorIdFromEntrega(id);
+            Long profesorId = profesorQueCalifica(usuario, id);
 
-            System.out.println("🎯 [EDITAR-CALIFICACION+DOC] Editando calificación entrega ID: " + id + " por profesor ID: " + profesorId);
+            log.debug("🎯 [EDITAR-CALIFICACION+DOC] Editando calificación entrega ID: {} por profesor ID: {}", id, profesorId);
 
             CalificacionDTO calificacionDTO = objectMapper.readValue(calificacionJson, CalificacionDTO.class);
             EntregaResponseDTO entrega = entregaService.editarCalificacionConDocumento(id, calificacionDTO, profesorId, documentoProfesor);
@@ -249,8 +263,7 @@ public class EntregaController {
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [EDITAR-CALIFICACION+DOC] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [EDITAR-CALIFICACION+DOC] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -259,32 +272,28 @@ public class EntregaController {
 
     // Nuevo endpoint para descargar documento del profesor
     @GetMapping("/{id}/documento-profesor")
-    public ResponseEntity<?> downloadDocumentoProfesor(@PathVariable Long id) {
+    public ResponseEntity<?> downloadDocumentoProfesor(@PathVariable Long id, @RequestHeader HttpHeaders requestHeaders) {
         try {
             // ✅ VALIDACIÓN: Verificar que el usuario actual tiene permisos
             // (En modo desarrollo, permitir descarga a cualquiera)
 
             DocumentoDTO documento = entregaService.downloadDocumentoProfesor(id);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(documento.getTipoArchivo()));
-            headers.setContentDispositionFormData("attachment", documento.getNombreArchivo());
-
-            return new ResponseEntity<>(documento.getContenido(), headers, HttpStatus.OK);
+            // ✅ Streaming con soporte de Range: no se carga el fichero en memoria
+            return documentoDescargaResponder.responder(documento, requestHeaders);
 
         } catch (ValidationException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [DOWNLOAD-DOC-PROF] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [DOWNLOAD-DOC-PROF] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
     }
 
     @DeleteMapping("/{id}/documento-profesor")
-    public ResponseEntity<?> eliminarDocumentoProfesor(@PathVariable Long id) {
+    public ResponseEntity<?> eliminarDocumentoProfesor(@PathVariable Long id, @CurrentUser JwtUserPrincipal usuario) {
         try {
             // Obtener la entrega
             Optional<EntregaResponseDTO> entregaOpt = entregaService.findById(id);
@@ -294,9 +303,9 @@ public class EntregaController {
             }
 
             // Verificar permisos del profesor
-            Long profesorId = entregaService.getProfesorIdFromEntrega(id);
+            Long profesorId = profesorQueCalifica(usuario, id);
 
-            System.out.println("🗑️ [ELIMINAR-DOC] Eliminando documento del profesor para entrega ID: " + id);
+            log.debug("🗑️ [ELIMINAR-DOC] Eliminando documento del profesor para entrega ID: {}", id);
 
             // Llamar al service para eliminar el documento
             EntregaResponseDTO entrega = entregaService.eliminarDocumentoProfesor(id, profesorId);
@@ -306,8 +315,7 @@ public class EntregaController {
         } catch (ValidationException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [ELIMINAR-DOC] Error inesperado: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [ELIMINAR-DOC] Error inesperado: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -315,26 +323,26 @@ public class EntregaController {
 
 
     @GetMapping("/{id}/documento")
-    public ResponseEntity<?> downloadDocumento(@PathVariable Long id) {
+    public ResponseEntity<?> downloadDocumento(@PathVariable Long id, @RequestHeader HttpHeaders requestHeaders) {
         try {
             // ===== MODO DESARROLLO: VALIDACIONES COMENTADAS =====
             // Permitir descarga a cualquiera
 
             DocumentoDTO documento = entregaService.downloadDocumento(id);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(documento.getTipoArchivo()));
-            headers.setContentDispositionFormData("attachment", documento.getNombreArchivo());
-
-            return new ResponseEntity<>(documento.getContenido(), headers, HttpStatus.OK);
+            // ✅ Streaming con soporte de Range: no se carga el fichero en memoria
+            return documentoDescargaResponder.responder(documento, requestHeaders);
 
         } catch (ValidationException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al leer el documento"));
         }
     }
     @GetMapping("/profesor/{profesorId}")
-    public ResponseEntity<Page<EntregaResponseDTO>> getEntregasByProfesor(
+    public ResponseEntity<?> getEntregasByProfesor(
             @PathVariable Long profesorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -342,30 +350,39 @@ public class EntregaController {
             @RequestParam(defaultValue = "asc") String direction) {
 
         try {
-            System.out.println("🔍 [CONTROLLER] Buscando entregas del profesor: " + profesorId);
+            log.debug("🔍 [CONTROLLER] Buscando entregas del profesor: {}", profesorId);
 
             // ✅ USAR MÉTODO OPTIMIZADO que carga todas las relaciones
             Page<EntregaResponseDTO> entregas = entregaService.findEntregasByProfesor(profesorId, page, size, sort, direction);
 
-            System.out.println("🔍 [CONTROLLER] Entregas encontradas: " + entregas.getContent().size());
+            log.debug("🔍 [CONTROLLER] Entregas encontradas: {}", entregas.getContent().size());
 
             // ✅ DEBUG: Verificar que las relaciones se cargan correctamente
             if (!entregas.getContent().isEmpty()) {
                 EntregaResponseDTO primera = entregas.getContent().get(0);
-                System.out.println("🔍 [CONTROLLER] Primera entrega - Profesor de tarea: " +
-                        (primera.getTarea() != null && primera.getTarea().getProfesor() != null ?
-                                primera.getTarea().getProfesor().getId() : "NULL"));
+                log.debug("🔍 [CONTROLLER] Primera entrega - Profesor de tarea: {}", primera.getTarea() != null && primera.getTarea().getProfesor() != null ? primera.getTarea().getProfesor().getId() : "NULL");
             }
 
             return ResponseEntity.ok(entregas);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("❌ [CONTROLLER] Error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ [CONTROLLER] Error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body((Page<EntregaResponseDTO>) Map.of("error", e.getMessage()));
+                    .body(Map.of("error", e.getMessage()));
         }
     }
 
+    // ✅ Paginación por cursor: pasar el siguienteCursor de la respuesta anterior para obtener la página siguiente
+    @GetMapping("/profesor/{profesorId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<EntregaResponseDTO>> getEntregasByProfesorCursor(
+            @PathVariable Long profesorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(entregaService.findEntregasByProfesorCursor(profesorId, cursor, size));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEntrega(@PathVariable Long id) {
         try {
@@ -385,13 +402,21 @@ public class EntregaController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sort,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
+            // ✅ Profesor autenticado: sus entregas pendientes, con el profesorId del token
+            if (usuario != null && usuario.getProfesorId() != null) {
+                return ResponseEntity.ok(entregaService.findEntregasPendientesCalificacion(
+                        usuario.getProfesorId(), page, size, sort, direction));
+            }
             // ===== MODO DESARROLLO: SIN VALIDACIONES =====
             // Devolver todas las entregas pendientes sin restricciones
             Page<EntregaResponseDTO> entregas = entregaService.findAll(page, size, sort, direction);
             return ResponseEntity.ok(entregas);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
@@ -399,8 +424,12 @@ public class EntregaController {
     }
 
     @GetMapping("/pendientes/count")
-    public ResponseEntity<?> countEntregasPendientesCalificacion() {
+    public ResponseEntity<?> countEntregasPendientesCalificacion(@CurrentUser JwtUserPrincipal usuario) {
         try {
+            if (usuario != null && usuario.getProfesorId() != null) {
+                return ResponseEntity.ok(Map.of("pendientes",
+                        entregaService.countEntregasPendientesCalificacion(usuario.getProfesorId())));
+            }
             // ===== MODO DESARROLLO: SIN VALIDACIONES =====
             // Devolver un conteo dummy
             return ResponseEntity.ok(Map.of("pendientes", 0L));
@@ -430,7 +459,7 @@ public class EntregaController {
                         .body(Map.of("error", "No se puede identificar al alumno de la entrega"));
             }
 
-            System.out.println("🔧 [DEBUG] Actualizando entrega ID: " + id + ", alumnoId: " + alumnoId);
+            log.debug("🔧 [DEBUG] Actualizando entrega ID: {}, alumnoId: {}", id, alumnoId);
 
             EntregaResponseDTO entregaActualizada = entregaService.updateEntrega(id, entregaUpdateDTO, alumnoId);
             return ResponseEntity.ok(entregaActualizada);
@@ -445,13 +474,20 @@ public class EntregaController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sort,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            @CurrentUser JwtUserPrincipal usuario) {
 
         try {
+            // ✅ Alumno autenticado: solo sus entregas, con el alumnoId del token
+            if (usuario != null && usuario.getAlumnoId() != null) {
+                return ResponseEntity.ok(entregaService.findByAlumno(usuario.getAlumnoId(), page, size, sort, direction));
+            }
             // ===== MODO DESARROLLO: SIN VALIDACIONES =====
             // Devolver todas las entregas
             Page<EntregaResponseDTO> entregas = entregaService.findAll(page, size, sort, direction);
             return ResponseEntity.ok(entregas);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
@@ -470,6 +506,8 @@ public class EntregaController {
             // ===== MODO DESARROLLO: SIN VALIDACIONES =====
             Page<EntregaResponseDTO> entregas = entregaService.findByTarea(tareaId, page, size, sort, direction);
             return ResponseEntity.ok(entregas);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
@@ -499,8 +537,15 @@ public class EntregaController {
     @PostMapping("/generar-entregas-vencidas")
     public ResponseEntity<?> generarEntregasVencidas() {
         try {
-            entregaService.generarEntregasAutomaticasPorVencimiento();
-            return ResponseEntity.ok(Map.of("message", "Entregas automáticas generadas correctamente"));
+            Optional<GeneracionVencidasDTO> generacion = entregaService.generarEntregasAutomaticasPorVencimiento();
+            if (generacion.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "La generación de entregas vencidas ya se está ejecutando en otro nodo"));
+            }
+            GeneracionVencidasDTO resultado = generacion.get();
+            return ResponseEntity.ok(Map.of(
+                    "message", "Entregas automáticas generadas correctamente",
+                    "resultado", resultado));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error al generar entregas automáticas: " + e.getMessage()));
@@ -511,4 +556,13 @@ public class EntregaController {
     public ResponseEntity<Map<String, String>> handleValidationException(ValidationException e) {
         return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
+
+    // Profesor que califica: el del token si quien llama es profesor (el servicio valida que la tarea sea suya);
+    // sin token (modo desarrollo), el profesor de la tarea
+    private Long profesorQueCalifica(JwtUserPrincipal usuario, Long entregaId) {
+        if (usuario != null && usuario.getProfesorId() != null) {
+            return usuario.getProfesorId();
+        }
+        return entregaService.getProfesorIdFromEntrega(entregaId);
+    }
 }
\ No newline at end of file
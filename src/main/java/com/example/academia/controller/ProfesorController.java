@@ -1,12 +1,14 @@
 package com.example.academia.controller;
 
 import com.example.academia.DTOs.Created.ProfesorCreateDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.servicios.ProfesorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -53,7 +55,12 @@ public class ProfesorController {
 
     @GetMapping("/listar")
     public ResponseEntity<List<ProfesorResponseDTO>> getAllProfesores() {
-        return ResponseEntity.ok(profesorService.findAllLista());
+        // Si el If-None-Match coincide con el ETag, Spring responde 304 sin cuerpo
+        ListadoVersionadoDTO<ProfesorResponseDTO> listado = profesorService.findAllLista();
+        return ResponseEntity.ok()
+                .eTag(listado.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(listado.getContenido());
     }
 
     @GetMapping("/especialidad/{especialidad}")
@@ -1,6 +1,8 @@
 package com.example.academia.controller;
 
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.Response.TareaResponseDTO;
 import com.example.academia.DTOs.Response.UsuarioResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.TareaSimpleDTO;
@@ -11,7 +13,10 @@ import com.example.academia.servicios.TareaService;
 import com.example.academia.servicios.UsuarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -33,9 +38,12 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TareaController {
 
+    private static final Logger log = LoggerFactory.getLogger(TareaController.class);
+
     private final TareaService tareaService;
     private final UsuarioService usuarioService;
     private final  ObjectMapper objectMapper;
+    private final DocumentoDescargaResponder documentoDescargaResponder;
 
     @GetMapping
     public ResponseEntity<Page<TareaResponseDTO>> getAllTareas(
@@ -56,7 +64,12 @@ public class TareaController {
 
     @GetMapping("/listar")
     public ResponseEntity<List<TareaSimpleDTO>> getAllTareas() {
-        return ResponseEntity.ok(tareaService.findAllLista());
+        // Si el If-None-Match coincide con el ETag, Spring responde 304 sin cuerpo
+        ListadoVersionadoDTO<TareaSimpleDTO> listado = tareaService.findAllLista();
+        return ResponseEntity.ok()
+                .eTag(listado.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(listado.getContenido());
     }
 
     @GetMapping("/buscar")
@@ -96,8 +109,8 @@ public class TareaController {
             // ✅ SOLUCIÓN: Usar profesorId del DTO si está presente, sino usar valor por defecto
             Long profesorId = tareaDTO.getProfesorId() != null ? tareaDTO.getProfesorId() : 1L;
 
-            System.out.println("🔧 [DEBUG] Creando tarea con profesorId: " + profesorId);
-            System.out.println("🔧 [DEBUG] ProfessorId del DTO: " + tareaDTO.getProfesorId());
+            log.debug("🔧 [DEBUG] Creando tarea con profesorId: {}", profesorId);
+            log.debug("🔧 [DEBUG] ProfessorId del DTO: {}", tareaDTO.getProfesorId());
 
             TareaResponseDTO tarea = tareaService.createTarea(tareaDTO, profesorId);
             return ResponseEntity.status(HttpStatus.CREATED).body(tarea);
@@ -125,17 +138,16 @@ public class TareaController {
     }
 
     @GetMapping("/{id}/documento")
-    public ResponseEntity<?> downloadDocumento(@PathVariable Long id) {
+    public ResponseEntity<?> downloadDocumento(@PathVariable Long id, @RequestHeader HttpHeaders requestHeaders) {
         try {
             DocumentoDTO documento = tareaService.downloadDocumento(id);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(documento.getTipoArchivo()));
-            headers.setContentDispositionFormData("attachment", documento.getNombreArchivo());
-
-            return new ResponseEntity<>(documento.getContenido(), headers, HttpStatus.OK);
+            // Streaming con soporte de Range: no se carga el fichero en memoria
+            return documentoDescargaResponder.responder(documento, requestHeaders);
         } catch (ValidationException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Error al leer el documento"));
         }
     }
 
@@ -170,22 +182,20 @@ public class TareaController {
             @RequestParam("tarea") String tareaJson,
             @RequestParam(value = "documento", required = false) MultipartFile documento) { // CORREGIDO: era "documentox "
         try {
-            System.out.println("🔍 === JSON RAW RECIBIDO ===");
-            System.out.println(tareaJson);
-            System.out.println("============================");
+            log.debug("🔍 JSON recibido: {}", tareaJson);
 
             TareaDTO tareaDTO = objectMapper.readValue(tareaJson, TareaDTO.class);
 
-            System.out.println("🔍 === DTO DESERIALIZADO ===");
-            System.out.println("Nombre: " + tareaDTO.getNombre());
-            System.out.println("Para todos: " + tareaDTO.getParaTodosLosAlumnos());
-            System.out.println("Tipo de paraTodos: " + (tareaDTO.getParaTodosLosAlumnos() != null ? tareaDTO.getParaTodosLosAlumnos().getClass().getSimpleName() : "null"));
-            System.out.println("Alumnos IDs: " + tareaDTO.getAlumnosIds());
-            System.out.println("Cantidad alumnos: " + (tareaDTO.getAlumnosIds() != null ? tareaDTO.getAlumnosIds().size() : "null"));
-            System.out.println("Profesor ID: " + tareaDTO.getProfesorId());
-            System.out.println("Curso ID: " + tareaDTO.getCursoId());
-            System.out.println("Documento recibido: " + (documento != null ? documento.getOriginalFilename() : "null"));
-            System.out.println("============================");
+            log.debug("🔍 === DTO DESERIALIZADO ===");
+            log.debug("Nombre: {}", tareaDTO.getNombre());
+            log.debug("Para todos: {}", tareaDTO.getParaTodosLosAlumnos());
+            log.debug("Tipo de paraTodos: {}", tareaDTO.getParaTodosLosAlumnos() != null ? tareaDTO.getParaTodosLosAlumnos().getClass().getSimpleName() : "null");
+            log.debug("Alumnos IDs: {}", tareaDTO.getAlumnosIds());
+            log.debug("Cantidad alumnos: {}", tareaDTO.getAlumnosIds() != null ? tareaDTO.getAlumnosIds().size() : "null");
+            log.debug("Profesor ID: {}", tareaDTO.getProfesorId());
+            log.debug("Curso ID: {}", tareaDTO.getCursoId());
+            log.debug("Documento recibido: {}", documento != null ? documento.getOriginalFilename() : "null");
+            log.debug("============================");
 
             // ✅ Usar el profesorId del DTO
             Long profesorId = tareaDTO.getProfesorId();
@@ -198,8 +208,7 @@ public class TareaController {
             return ResponseEntity.status(HttpStatus.CREATED).body(tarea);
 
         } catch (Exception e) {
-            System.err.println("❌ ERROR: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ ERROR: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error al procesar la tarea: " + e.getMessage()));
         }
@@ -216,6 +225,16 @@ public class TareaController {
         return ResponseEntity.ok(tareaService.findTareasProfesor(profesorId, page, size, sort, direction));
     }
 
+    // Paginación por cursor: pasar el siguienteCursor de la respuesta anterior para obtener la página siguiente
+    @GetMapping("/profesor/{profesorId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<TareaResponseDTO>> getTareasByProfesorCursor(
+            @PathVariable Long profesorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(tareaService.findTareasProfesorCursor(profesorId, cursor, size));
+    }
+
     @GetMapping("/curso/{cursoId}")
     public ResponseEntity<Page<TareaResponseDTO>> getTareasByCurso(
             @PathVariable Long cursoId,
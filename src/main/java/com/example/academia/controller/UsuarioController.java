@@ -5,19 +5,22 @@ import com.example.academia.DTOs.Created.UsuarioCreateDTO;
 import com.example.academia.DTOs.LoginResponse;
 import com.example.academia.DTOs.Response.UsuarioResponseDTO;
 import com.example.academia.DTOs.UsuarioDTO;
+import com.example.academia.Exceptions.ServicioSaturadoException;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.entidades.UsuarioEntity;
 import com.example.academia.repositorios.UsuarioRepository;
-import com.example.academia.security.CustomUserDetails;
+import com.example.academia.security.CurrentUser;
+import com.example.academia.security.JwtUserPrincipal;
 import com.example.academia.security.JwtUtil;
+import com.example.academia.security.TokenRevocacionCache;
+import com.example.academia.servicios.AutenticacionService;
 import com.example.academia.servicios.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -26,6 +29,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controlador que maneja las peticiones relacionadas con los usuarios
@@ -36,16 +41,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UsuarioController {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioController.class);
+
     private final UsuarioService usuarioService;
     private final UsuarioRepository usuarioRepository;
-    private final AuthenticationManager authenticationManager;
+    private final AutenticacionService autenticacionService;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocacionCache tokenRevocacionCache;
 
     @PostMapping("/change-password")
     public ResponseEntity<?> changePassword(@RequestBody CambioPasswordRequestDTO request) {
         try {
-            System.out.println("🔐 Solicitud de cambio de contraseña para: " + request.getUsername());
+            log.debug("🔐 Solicitud de cambio de contraseña para: {}", request.getUsername());
 
             // Buscar el usuario
             Optional<UsuarioEntity> usuarioOpt = usuarioRepository.findByUsername(request.getUsername());
@@ -69,16 +77,14 @@ public class UsuarioController {
             }
 
             // Actualizar contraseña
-            usuario.setPassword(passwordEncoder.encode(request.getNewPassword()));
-            usuarioRepository.save(usuario);
+            guardarConNuevaPassword(usuario, request.getNewPassword());
 
-            System.out.println("✅ Contraseña actualizada exitosamente para: " + request.getUsername());
+            log.info("✅ Contraseña actualizada exitosamente para: {}", request.getUsername());
 
             return ResponseEntity.ok(Map.of("message", "Contraseña actualizada correctamente"));
 
         } catch (Exception e) {
-            System.err.println("❌ Error cambiando contraseña: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error cambiando contraseña: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno al cambiar la contraseña"));
         }
@@ -147,50 +153,24 @@ public class UsuarioController {
         return ResponseEntity.ok(debug);
     }
 
+    // ✅ Asíncrono: BCrypt se verifica en el pool de login y el hilo del servlet queda libre mientras tanto
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
 
-        try {
-            // Autenticar con Spring Security
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(username, password)
-            );
-
-            // Obtener detalles del usuario autenticado
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            UsuarioEntity usuario = userDetails.getUsuario();
-
-            // Generar token JWT
-            String token = jwtUtil.generateToken(
-                    usuario.getUsername(),
-                    usuario.getRol().name(),
-                    userDetails.getProfesorId(),
-                    userDetails.getAlumnoId()
-            );
-
-            // ✅ USAR EL NUEVO MÉTODO CON ID
-            LoginResponse response = LoginResponse.success(
-                    usuario.getId(), // ✅ INCLUIR ID DEL USUARIO
-                    usuario.getUsername(),
-                    usuario.getNombre(),
-                    usuario.getApellido(),
-                    usuario.getRol(),
-                    userDetails.getProfesorId(),
-                    userDetails.getAlumnoId(),
-                    token
-            );
-
-            System.out.println("✅ Login exitoso para usuario ID: " + usuario.getId());
-
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(LoginResponse.error("Error durante el proceso de login: " + e.getMessage(), "INTERNAL_ERROR"));
-        }
+        return autenticacionService.login(username, password)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    Throwable causa = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (causa instanceof ServicioSaturadoException saturado) {
+                        return handleServicioSaturadoException(saturado);
+                    }
+                    log.error("❌ Error durante el login: {}", causa.getMessage(), causa);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(LoginResponse.error("Error durante el proceso de login: " + causa.getMessage(), "INTERNAL_ERROR"));
+                });
     }
 
     @GetMapping("/usuario/{username}")
@@ -268,26 +248,22 @@ public class UsuarioController {
 
     // Endpoint para obtener información del usuario actual desde el JWT
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser() {
+    public ResponseEntity<?> getCurrentUser(@CurrentUser JwtUserPrincipal usuario) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails)) {
+            if (usuario == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "Usuario no autenticado"));
             }
 
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            UsuarioEntity usuario = userDetails.getUsuario();
-
-            // ✅ INCLUIR ID EN LA RESPUESTA
+            // ✅ Sale de los claims del token, sin consultar la base de datos
             LoginResponse response = LoginResponse.success(
-                    usuario.getId(), // ✅ INCLUIR ID DEL USUARIO
+                    usuario.getUsuarioId(), // ✅ INCLUIR ID DEL USUARIO
                     usuario.getUsername(),
                     usuario.getNombre(),
                     usuario.getApellido(),
                     usuario.getRol(),
-                    userDetails.getProfesorId(),
-                    userDetails.getAlumnoId()
+                    usuario.getProfesorId(),
+                    usuario.getAlumnoId()
             );
 
             return ResponseEntity.ok(response);
@@ -299,24 +275,22 @@ public class UsuarioController {
 
     // Endpoint para refrescar token
     @PostMapping("/refresh-token")
-    public ResponseEntity<?> refreshToken() {
+    public ResponseEntity<?> refreshToken(@CurrentUser JwtUserPrincipal autenticado) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails)) {
+            if (autenticado == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "Usuario no autenticado"));
             }
 
-            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-            UsuarioEntity usuario = userDetails.getUsuario();
+            // Al refrescar sí se lee el usuario, para que el nuevo token lleve los datos actuales
+            Optional<UsuarioEntity> usuario = usuarioRepository.findById(autenticado.getUsuarioId());
+            if (usuario.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Usuario no autenticado"));
+            }
 
             // Generar nuevo token
-            String newToken = jwtUtil.generateToken(
-                    usuario.getUsername(),
-                    usuario.getRol().name(),
-                    userDetails.getProfesorId(),
-                    userDetails.getAlumnoId()
-            );
+            String newToken = jwtUtil.generateToken(JwtUserPrincipal.desde(usuario.get()));
 
             return ResponseEntity.ok(Map.of(
                     "token", newToken,
@@ -327,6 +301,15 @@ public class UsuarioController {
                     .body(Map.of("error", "Error al refrescar el token"));
         }
     }
+
+    // Tras cambiar la contraseña se revocan los tokens emitidos hasta ahora
+    private void guardarConNuevaPassword(UsuarioEntity usuario, String passwordNueva) {
+        usuario.setPassword(passwordEncoder.encode(passwordNueva));
+        usuario.setTokenVersion(usuario.getTokenVersion() + 1);
+        usuarioRepository.save(usuario);
+        tokenRevocacionCache.invalidar(usuario.getId());
+    }
+
     @PutMapping("/cambiar-password-simple")
     public ResponseEntity<?> cambiarPasswordSimple(@RequestBody Map<String, String> request) {
         try {
@@ -350,8 +333,7 @@ public class UsuarioController {
             }
 
             // Actualizar contraseña
-            usuario.setPassword(passwordEncoder.encode(passwordNueva));
-            usuarioRepository.save(usuario);
+            guardarConNuevaPassword(usuario, passwordNueva);
 
             return ResponseEntity.ok(Map.of("success", true, "message", "Contraseña actualizada correctamente"));
 
@@ -399,16 +381,14 @@ public class UsuarioController {
             }
 
             // Actualizar contraseña
-            usuario.setPassword(passwordEncoder.encode(passwordNueva));
-            usuarioRepository.save(usuario);
+            guardarConNuevaPassword(usuario, passwordNueva);
 
-            System.out.println("✅ Contraseña actualizada para usuario: " + username);
+            log.info("✅ Contraseña actualizada para usuario: {}", username);
 
             return ResponseEntity.ok(Map.of("message", "Contraseña actualizada correctamente"));
 
         } catch (Exception e) {
-            System.err.println("❌ Error al cambiar contraseña: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error al cambiar contraseña: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error interno del servidor"));
         }
@@ -422,9 +402,7 @@ public class UsuarioController {
     @PutMapping("/admin/{id}/perfil")
     public ResponseEntity<?> updatePerfilAdmin(@PathVariable Long id, @RequestBody Map<String, String> datos) {
         try {
-            System.out.println("👑 === ENDPOINT ESPECÍFICO PARA ADMIN ===");
-            System.out.println("ID: " + id);
-            System.out.println("Datos: " + datos);
+            log.debug("👑 Actualizando perfil de administrador ID: {}", id);
 
             // ✅ BUSCAR USUARIO
             UsuarioEntity usuario = usuarioRepository.findById(id)
@@ -466,19 +444,26 @@ public class UsuarioController {
             response.put("profesor", null);
             response.put("alumno", null);
 
-            System.out.println("✅ Administrador actualizado exitosamente");
+            log.info("✅ Administrador {} actualizado", id);
 
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("❌ Error en endpoint admin: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error en endpoint admin: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error al actualizar perfil de administrador"));
         }
     }
 
 
+    // ✅ Cola de logins llena: 503 con Retry-After para que el cliente reintente más tarde
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<Map<String, String>> handleServicioSaturadoException(ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<Map<String, String>> handleValidationException(ValidationException e) {
         return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -9,13 +9,22 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
 @Entity
-@Table(name="cursos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cursos")
+@Table(name="cursos", indexes = {
+        // Cursos con plazas libres: recorrido por rango de la columna generada
+        @Index(name = "idx_cursos_plazas_libres", columnList = "plazas_libres, id")
+})
 @AllArgsConstructor
 @EqualsAndHashCode(exclude = {"profesores", "alumnos", "tareas"})
 @NoArgsConstructor
@@ -44,6 +53,22 @@ public class CursoEntity{
     @Column(name = "precio")
     private Double precio;
 
+    // ✅ PLAZAS: capacidad e inscritos solo se modifican con UPDATE condicionales (PlazasCursoRepository), nunca en el
+    // UPDATE de la entidad; así una edición del curso no pisa el contador de una matrícula concurrente.
+    @Column(name = "capacidad", nullable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 30")
+    private Integer capacidad = 30;
+
+    @Column(name = "inscritos", nullable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer inscritos = 0;
+
+    // Calculada por MySQL (capacidad - inscritos) e indexada
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "plazas_libres", insertable = false, updatable = false,
+            columnDefinition = "INT GENERATED ALWAYS AS (capacidad - inscritos) STORED")
+    private Integer plazasLibres;
+
+    // ✅ Colecciones propietarias de la matrícula: cacheadas (ver CacheSegundoNivelConfig)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cursos.profesores")
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "curso_profesores",
@@ -53,6 +78,7 @@ public class CursoEntity{
     @JsonIgnoreProperties({"cursos", "usuario", "tareas"})
     private Set<ProfesorEntity> profesores = new HashSet<>();
     //*Cuando serialices un ProfesorEntity dentro de este contexto, ignora sus propiedades cursos y usuario. No las incluyas en el JSON.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cursos.alumnos")
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "curso_alumnos",
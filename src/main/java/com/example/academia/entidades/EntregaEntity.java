@@ -10,7 +10,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name="entregas")
+@Table(name="entregas", indexes = {
+        // Paginación por cursor de las entregas de un profesor: seek por rango dentro de su prefijo
+        @Index(name = "idx_entregas_profesor_fecha_id", columnList = "profesor_id, fecha_entrega, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +33,10 @@ public class EntregaEntity {
     @JsonIgnoreProperties({"alumnosAsignados", "entregas", "curso", "profesor"})
     private TareaEntity tarea;
 
+    // Copia de tareas.profesor_id (el profesor de una tarea no cambia): filtra por profesor sin JOIN con tareas
+    @Column(name = "profesor_id")
+    private Long profesorId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "alumno_id", nullable = false)
     @JsonIgnoreProperties({"cursos", "usuario", "tareasAsignadas", "entregas"})
@@ -42,9 +49,15 @@ public class EntregaEntity {
     @Column(name = "fecha_entrega")
     private LocalDateTime fechaEntrega;
 
-    @Lob
-    @Column(name = "documento", columnDefinition = "LONGBLOB")
-    private byte[] documento;
+    // El contenido no se mapea: está en el DocumentStore (o, sin migrar, en la columna heredada
+    // "documento", que solo lee DocumentoHeredadoRepository). documentoSize > 0 indica que hay documento.
+
+    // Clave SHA-256 del documento del alumno en el DocumentStore
+    @Column(name = "documento_clave", length = 64)
+    private String documentoClave;
+
+    @Column(name = "documento_size")
+    private Long documentoSize;
 
     @Column(name = "nombre_documento")
     private String nombreDocumento;
@@ -58,10 +71,13 @@ public class EntregaEntity {
     @Column(name = "comentarios")
     private String comentarios;
 
-    // Agregar estos campos después de los campos existentes de documento
-    @Lob
-    @Column(name = "documento_profesor", columnDefinition = "LONGBLOB")
-    private byte[] documentoProfesor;
+    // Documento del profesor: mismo esquema que el del alumno (columna heredada "documento_profesor")
+    // Clave SHA-256 del documento del profesor en el DocumentStore
+    @Column(name = "documento_profesor_clave", length = 64)
+    private String documentoProfesorClave;
+
+    @Column(name = "documento_profesor_size")
+    private Long documentoProfesorSize;
 
     @Column(name = "nombre_documento_profesor")
     private String nombreDocumentoProfesor;
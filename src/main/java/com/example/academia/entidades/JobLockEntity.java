@@ -0,0 +1,33 @@
+package com.example.academia.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Bloqueo de un trabajo programado compartido por todas las réplicas (ver JobLockService)
+@Entity
+@Table(name = "job_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLockEntity {
+
+    @Id
+    @Column(name = "nombre", length = 64)
+    private String nombre;
+
+    // Nodo que tiene el bloqueo (host:uuid)
+    @Column(name = "propietario", length = 128)
+    private String propietario;
+
+    // Fin del arrendamiento: pasado este instante, cualquier nodo puede quedarse con el bloqueo
+    @Column(name = "bloqueado_hasta", nullable = false)
+    private LocalDateTime bloqueadoHasta;
+
+    // Token de exclusión (fencing): aumenta en cada adquisición
+    @Column(name = "token", nullable = false)
+    private Long token;
+}
@@ -0,0 +1,40 @@
+package com.example.academia.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lista de espera de un curso completo: el orden de llegada es el del id autoincremental.
+ * Se escribe con sentencias de una fila (ListaEsperaRepository) siempre con la fila del curso bloqueada por
+ * el contador de plazas, así que una plaza liberada pasa al primero de la lista en la misma transacción.
+ */
+@Entity
+@Table(name = "lista_espera",
+        uniqueConstraints = @UniqueConstraint(name = "uk_lista_espera_curso_alumno", columnNames = {"curso_id", "alumno_id"}),
+        indexes = {
+                // Primero de la lista y posiciones de un curso, por orden de llegada
+                @Index(name = "idx_lista_espera_curso", columnList = "curso_id, id"),
+                @Index(name = "idx_lista_espera_alumno", columnList = "alumno_id")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListaEsperaEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "curso_id", nullable = false)
+    private Long cursoId;
+
+    @Column(name = "alumno_id", nullable = false)
+    private Long alumnoId;
+
+    @Column(name = "fecha_alta", nullable = false)
+    private LocalDateTime fechaAlta;
+}
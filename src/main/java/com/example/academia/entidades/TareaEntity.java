@@ -17,7 +17,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "tareas")
+@Table(name = "tareas", indexes = {
+        // Paginación por cursor de las tareas de un profesor (fechaLimite, id)
+        @Index(name = "idx_tareas_profesor_fecha_id", columnList = "profesor_id, fecha_limite, id"),
+        // Generación de entregas vencidas: solo se recorren las tareas pendientes de procesar
+        @Index(name = "idx_tareas_vencimiento", columnList = "vencimiento_procesado, fecha_limite")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,9 +48,15 @@ public class TareaEntity {
     private LocalDate fechaLimite;
 
 
-    @Lob
-    @Column(name = "documento", columnDefinition = "LONGBLOB")
-    private byte[] documento;
+    // El contenido no se mapea: está en el DocumentStore (o, sin migrar, en la columna heredada
+    // "documento", que solo lee DocumentoHeredadoRepository). documentoSize > 0 indica que hay documento.
+
+    // Clave SHA-256 del documento en el DocumentStore
+    @Column(name = "documento_clave", length = 64)
+    private String documentoClave;
+
+    @Column(name = "documento_size")
+    private Long documentoSize;
 
 
     @Column(name = "nombre_documento")
@@ -64,6 +75,11 @@ public class TareaEntity {
     @JsonIgnoreProperties({"cursos", "usuario", "tareas"})
     private ProfesorEntity profesor;
 
+    // Marca de agua de la generación de entregas vencidas: true cuando ya se han creado las entregas
+    // FUERA_PLAZO de esta tarea. Se vuelve a false si la tarea se modifica.
+    @Column(name = "vencimiento_procesado", nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private Boolean vencimientoProcesado = false;
+
     // Si la tarea es para todos los alumnos del curso o solo algunos específicos
     @Column(name = "para_todos_alumnos")
     private Boolean paraTodosLosAlumnos = true;
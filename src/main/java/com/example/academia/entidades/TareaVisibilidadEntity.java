@@ -0,0 +1,49 @@
+package com.example.academia.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Proyección materializada de qué tareas ve cada alumno: una fila por (alumno, tarea), tanto si la tarea es
+ * para todo el curso (matrícula en curso_alumnos) como si está asignada al alumno (tarea_alumnos).
+ * La mantiene TareaVisibilidadRepository en cada matrícula, asignación o cambio de tarea; el listado de
+ * tareas de un alumno es un recorrido por rango de la clave primaria.
+ */
+@Entity
+@Table(name = "tarea_visibility", indexes = {
+        // Listado del alumno ordenado por fecha límite
+        @Index(name = "idx_tarea_visibility_alumno_fecha", columnList = "alumno_id, fecha_limite, tarea_id"),
+        // Recalcular o borrar las filas de una tarea
+        @Index(name = "idx_tarea_visibility_tarea", columnList = "tarea_id")
+})
+@IdClass(TareaVisibilidadEntity.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TareaVisibilidadEntity {
+
+    @Id
+    @Column(name = "alumno_id")
+    private Long alumnoId;
+
+    @Id
+    @Column(name = "tarea_id")
+    private Long tareaId;
+
+    // Copia de tareas.fecha_limite para ordenar sin leer la tabla de tareas
+    @Column(name = "fecha_limite")
+    private LocalDate fechaLimite;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long alumnoId;
+        private Long tareaId;
+    }
+}
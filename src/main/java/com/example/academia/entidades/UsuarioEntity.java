@@ -10,6 +10,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+// Sin caché de segundo nivel: la caché es local a cada nodo y un cambio de contraseña o de rol
+// no se vería en las demás réplicas hasta que caducara
 @Entity
 @Table(name = "usuarios")
 @Data
@@ -48,5 +50,10 @@ public class UsuarioEntity {
     @JoinColumn(name = "alumno_id")
     @JsonIgnoreProperties({"usuario", "cursos"})
     private AlumnoEntity alumno;
+    // Versión de los tokens emitidos: al incrementarla se invalidan los JWT anteriores
+    // (cambio de contraseña o de datos incluidos en el token)
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer tokenVersion = 0;
 
 }
@@ -0,0 +1,199 @@
+package com.example.academia.jobs;
+
+import com.example.academia.DTOs.DocumentoAlmacenado;
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.Exceptions.BloqueoPerdidoException;
+import com.example.academia.servicios.DocumentStore;
+import com.example.academia.servicios.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Traslada los documentos guardados en columnas LONGBLOB al DocumentStore.
+ * Recorre cada tabla por lotes de IDs; cada documento se migra en su propia transacción,
+ * leyendo el BLOB como stream para no cargar el lote entero en memoria.
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentoMigracionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentoMigracionJob.class);
+
+    // Tabla, columna heredada, columna de clave y columna de tamaño
+    private static final List<String[]> COLUMNAS = List.of(
+            new String[]{"entregas", "documento", "documento_clave", "documento_size"},
+            new String[]{"entregas", "documento_profesor", "documento_profesor_clave", "documento_profesor_size"},
+            new String[]{"tareas", "documento", "documento_clave", "documento_size"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DocumentStore documentStore;
+    private final JobLockService jobLockService;
+
+    private static final String JOB_MIGRACION = "documento-migracion";
+
+    @Value("${documentos.migracion.arrendamiento-ms:600000}")
+    private long arrendamientoMs;
+
+    @Value("${documentos.migracion.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${documentos.migracion.tamano-lote:20}")
+    private int tamanoLote;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        // Las entidades ya no mapean el BLOB: el tamaño persistido es lo que indica que hay documento
+        try {
+            rellenarTamanhos();
+        } catch (RuntimeException e) {
+            log.error("No se pudieron registrar los tamaños de los documentos heredados: {}", e.getMessage(), e);
+        }
+        if (!habilitada) {
+            return;
+        }
+        Thread hilo = new Thread(this::migrarTodo, "documento-migracion");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // Con varias réplicas solo migra el nodo que obtiene el bloqueo; cada documento comprueba el token
+    public void migrarTodo() {
+        Optional<JobLock> bloqueo = jobLockService.adquirir(JOB_MIGRACION, Duration.ofMillis(arrendamientoMs));
+        if (bloqueo.isEmpty()) {
+            log.info("La migración de documentos se está ejecutando en otro nodo");
+            return;
+        }
+        try {
+            migrarColumnas(bloqueo.get());
+        } finally {
+            jobLockService.liberar(bloqueo.get());
+        }
+    }
+
+    private void migrarColumnas(JobLock bloqueo) {
+        for (String[] columnas : columnasHeredadas()) {
+            try {
+                long migrados = migrarColumna(columnas[0], columnas[1], columnas[2], columnas[3], bloqueo);
+                if (migrados > 0) {
+                    log.info("Migrados {} documentos de {}.{} al DocumentStore", migrados, columnas[0], columnas[1]);
+                }
+            } catch (BloqueoPerdidoException e) {
+                log.warn(e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error migrando {}.{}: {}", columnas[0], columnas[1], e.getMessage(), e);
+            }
+        }
+    }
+
+    // Documentos heredados sin tamaño (anteriores a la columna documento_size): una sola sentencia por columna
+    public void rellenarTamanhos() {
+        for (String[] columnas : columnasHeredadas()) {
+            try {
+                int actualizados = jdbcTemplate.update(
+                        "UPDATE " + columnas[0] + " SET " + columnas[3] + " = LENGTH(" + columnas[1] + ")" +
+                                " WHERE " + columnas[1] + " IS NOT NULL AND " + columnas[3] + " IS NULL");
+                if (actualizados > 0) {
+                    log.info("Tamaño registrado para {} documentos heredados de {}.{}", actualizados, columnas[0], columnas[1]);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error registrando tamaños de {}.{}: {}", columnas[0], columnas[1], e.getMessage(), e);
+            }
+        }
+    }
+
+    // En una base de datos nueva las columnas heredadas no existen: las entidades ya no las crean
+    private List<String[]> columnasHeredadas() {
+        return jdbcTemplate.execute((ConnectionCallback<List<String[]>>) conexion -> {
+            DatabaseMetaData metaData = conexion.getMetaData();
+            List<String[]> existentes = new ArrayList<>();
+            for (String[] columnas : COLUMNAS) {
+                try (ResultSet rs = metaData.getColumns(conexion.getCatalog(), null, columnas[0], columnas[1])) {
+                    if (rs.next()) {
+                        existentes.add(columnas);
+                    }
+                }
+            }
+            return existentes;
+        });
+    }
+
+    private long migrarColumna(String tabla, String columnaBlob, String columnaClave, String columnaSize, JobLock bloqueo) {
+        String sqlIds = "SELECT id FROM " + tabla +
+                " WHERE id > ? AND " + columnaBlob + " IS NOT NULL AND " + columnaClave + " IS NULL" +
+                " ORDER BY id LIMIT ?";
+
+        long migrados = 0;
+        long ultimoId = 0;
+        List<Long> lote;
+        do {
+            lote = jdbcTemplate.queryForList(sqlIds, Long.class, ultimoId, tamanoLote);
+            for (Long id : lote) {
+                try {
+                    Boolean ok = transactionTemplate.execute(status -> {
+                        if (!jobLockService.renovar(bloqueo)) {
+                            throw new BloqueoPerdidoException(JOB_MIGRACION);
+                        }
+                        return migrarDocumento(tabla, columnaBlob, columnaClave, columnaSize, id);
+                    });
+                    if (Boolean.TRUE.equals(ok)) {
+                        migrados++;
+                    }
+                } catch (BloqueoPerdidoException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    // Se deja el BLOB en su sitio; se reintentará en el próximo arranque
+                    log.warn("No se pudo migrar {}.{} id={}: {}", tabla, columnaBlob, id, e.getMessage());
+                }
+                ultimoId = id;
+            }
+        } while (lote.size() == tamanoLote);
+
+        return migrados;
+    }
+
+    private boolean migrarDocumento(String tabla, String columnaBlob, String columnaClave, String columnaSize, Long id) {
+        DocumentoAlmacenado almacenado = jdbcTemplate.query(
+                "SELECT " + columnaBlob + " FROM " + tabla + " WHERE id = ? AND " + columnaClave + " IS NULL FOR UPDATE",
+                rs -> {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    try (InputStream contenido = rs.getBinaryStream(1)) {
+                        return contenido != null ? documentStore.guardar(contenido) : null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                id);
+
+        if (almacenado == null) {
+            return false;
+        }
+
+        jdbcTemplate.update(
+                "UPDATE " + tabla + " SET " + columnaClave + " = ?, " + columnaSize + " = ?, " + columnaBlob + " = NULL WHERE id = ?",
+                almacenado.getClave(), almacenado.getTamanho(), id);
+        return true;
+    }
+}
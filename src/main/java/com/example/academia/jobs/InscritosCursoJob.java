@@ -0,0 +1,86 @@
+package com.example.academia.jobs;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.repositorios.PlazasCursoRepository;
+import com.example.academia.servicios.JobLockService;
+import com.example.academia.servicios.serviciosImpl.CursosCache;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recalcula cursos.inscritos desde curso_alumnos. Las matrículas lo mantienen en cada alta y baja,
+ * pero las filas insertadas con SQL directo (data.sql, scripts) no pasan por ellas.
+ * Un curso con más inscritos que capacidad queda con plazas_libres negativas y no admite nuevas matrículas.
+ *
+ * No se ejecuta en cada arranque: es una acción de administración (POST /actuator/mantenimiento/cursos-inscritos)
+ * o, tras cargar datos con SQL, cursos.inscritos.recalcular-al-arrancar=true para ese arranque.
+ * Solo se tocan los cursos descuadrados, uno por transacción y con su fila bloqueada como en una matrícula
+ * (primero cursos, después curso_alumnos): el recuento no se cruza con un reservar o liberar en curso.
+ */
+@Component
+@RequiredArgsConstructor
+public class InscritosCursoJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InscritosCursoJob.class);
+
+    private static final String JOB_INSCRITOS = "cursos-inscritos";
+
+    private final PlazasCursoRepository plazasCursoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+    private final CursosCache cursosCache;
+
+    @Value("${cursos.inscritos.recalcular-al-arrancar:false}")
+    private boolean recalcularAlArrancar;
+
+    @Value("${cursos.inscritos.arrendamiento-ms:300000}")
+    private long arrendamientoMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        if (!recalcularAlArrancar) {
+            return;
+        }
+        try {
+            recalcular();
+        } catch (RuntimeException e) {
+            log.error("No se pudo recalcular cursos.inscritos: {}", e.getMessage(), e);
+        }
+    }
+
+    // Con varias réplicas a la vez, solo recalcula el nodo que obtiene el bloqueo; vacío si lo tiene otro
+    public Optional<Integer> recalcular() {
+        Optional<JobLock> bloqueo = jobLockService.adquirir(JOB_INSCRITOS, Duration.ofMillis(arrendamientoMs));
+        if (bloqueo.isEmpty()) {
+            log.info("El recuento de cursos.inscritos se está ejecutando en otro nodo");
+            return Optional.empty();
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            List<Long> descuadrados = plazasCursoRepository.findCursosDescuadrados();
+            for (Long cursoId : descuadrados) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (plazasCursoRepository.bloquear(cursoId).isEmpty()) {
+                        return; // Borrado entre la consulta y el bloqueo
+                    }
+                    plazasCursoRepository.recalcularInscritos(cursoId);
+                    cursosCache.desalojarCurso(cursoId);
+                });
+            }
+            log.info("cursos.inscritos recalculado: {} cursos en {} ms", descuadrados.size(), System.currentTimeMillis() - inicio);
+            return Optional.of(descuadrados.size());
+        } finally {
+            jobLockService.liberar(bloqueo.get());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.academia.jobs;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tareas de mantenimiento que recorren tablas completas y por eso no se ejecutan en cada arranque.
+ * POST /actuator/mantenimiento/{tarea}; como todo el actuator salvo health, requiere rol Admin (SecurityConfig).
+ */
+@Component
+@Endpoint(id = "mantenimiento")
+@RequiredArgsConstructor
+public class MantenimientoEndpoint {
+
+    static final String TAREA_VISIBILIDAD = "tarea-visibilidad";
+    static final String CURSOS_INSCRITOS = "cursos-inscritos";
+
+    private final TareaVisibilidadJob tareaVisibilidadJob;
+    private final InscritosCursoJob inscritosCursoJob;
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> ejecutar(@Selector String tarea) {
+        return switch (tarea) {
+            case TAREA_VISIBILIDAD -> resultado(tarea, tareaVisibilidadJob.reconstruir());
+            case CURSOS_INSCRITOS -> resultado(tarea, inscritosCursoJob.recalcular());
+            default -> new WebEndpointResponse<>(Map.of("error", "Tarea de mantenimiento desconocida: " + tarea),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        };
+    }
+
+    // filas: filas de tarea_visibility o cursos corregidos. Vacío: otro nodo tiene el bloqueo del job y la tarea ya está en marcha allí
+    private static WebEndpointResponse<Map<String, Object>> resultado(String tarea, Optional<Integer> filas) {
+        return filas.map(n -> new WebEndpointResponse<Map<String, Object>>(Map.of("tarea", tarea, "filas", n)))
+                .orElseGet(() -> new WebEndpointResponse<>(Map.of("error", "La tarea " + tarea + " se está ejecutando en otro nodo"),
+                        HttpStatus.CONFLICT.value()));
+    }
+}
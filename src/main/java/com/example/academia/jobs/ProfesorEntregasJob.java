@@ -0,0 +1,68 @@
+package com.example.academia.jobs;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.repositorios.EntregaRepository;
+import com.example.academia.servicios.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Rellena entregas.profesor_id al arrancar. Las entregas nuevas la copian de su tarea al crearse, pero las filas
+ * anteriores a la columna y las insertadas con SQL directo (data.sql) la tienen vacía, y sin ella no aparecen
+ * en la paginación por cursor de su profesor.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfesorEntregasJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfesorEntregasJob.class);
+
+    private static final String JOB_PROFESOR_ENTREGAS = "entregas-profesor";
+
+    private final EntregaRepository entregaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${entregas.profesor.sincronizar-al-arrancar:true}")
+    private boolean sincronizarAlArrancar;
+
+    @Value("${entregas.profesor.arrendamiento-ms:300000}")
+    private long arrendamientoMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        if (!sincronizarAlArrancar) {
+            return;
+        }
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            log.error("No se pudo rellenar entregas.profesor_id: {}", e.getMessage(), e);
+        }
+    }
+
+    // Con varias réplicas arrancando a la vez, solo sincroniza el nodo que obtiene el bloqueo
+    public void sincronizar() {
+        Optional<JobLock> bloqueo = jobLockService.adquirir(JOB_PROFESOR_ENTREGAS, Duration.ofMillis(arrendamientoMs));
+        if (bloqueo.isEmpty()) {
+            log.info("La sincronización de entregas.profesor_id se está ejecutando en otro nodo");
+            return;
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            Integer filas = transactionTemplate.execute(status -> entregaRepository.sincronizarProfesorId());
+            log.info("entregas.profesor_id sincronizado: {} filas en {} ms", filas, System.currentTimeMillis() - inicio);
+        } finally {
+            jobLockService.liberar(bloqueo.get());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.academia.jobs;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
+import com.example.academia.servicios.JobLockService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Reconstruye tarea_visibility. Los servicios la mantienen en cada cambio, pero las matrículas
+ * y asignaciones insertadas con SQL directo (data.sql, scripts) no pasan por ellos.
+ * La tabla se rehace en una sola transacción: los listados nunca la ven a medias, pero es un DELETE
+ * y un INSERT ... SELECT de todas las filas, así que no se hace en cada arranque: es una acción explícita
+ * de administración (POST /actuator/mantenimiento/tarea-visibilidad) o, tras cargar datos con SQL,
+ * tareas.visibilidad.reconstruir-al-arrancar=true para ese arranque.
+ */
+@Component
+@RequiredArgsConstructor
+public class TareaVisibilidadJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TareaVisibilidadJob.class);
+
+    private static final String JOB_VISIBILIDAD = "tarea-visibilidad";
+
+    private final TareaVisibilidadRepository tareaVisibilidadRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${tareas.visibilidad.reconstruir-al-arrancar:false}")
+    private boolean reconstruirAlArrancar;
+
+    @Value("${tareas.visibilidad.arrendamiento-ms:300000}")
+    private long arrendamientoMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        if (!reconstruirAlArrancar) {
+            return;
+        }
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.error("No se pudo reconstruir tarea_visibility: {}", e.getMessage(), e);
+        }
+    }
+
+    // Con varias réplicas a la vez, solo reconstruye el nodo que obtiene el bloqueo; vacío si lo tiene otro
+    public Optional<Integer> reconstruir() {
+        Optional<JobLock> bloqueo = jobLockService.adquirir(JOB_VISIBILIDAD, Duration.ofMillis(arrendamientoMs));
+        if (bloqueo.isEmpty()) {
+            log.info("La reconstrucción de tarea_visibility se está ejecutando en otro nodo");
+            return Optional.empty();
+        }
+        try {
+            long inicio = System.currentTimeMillis();
+            Integer filas = transactionTemplate.execute(status -> {
+                tareaVisibilidadRepository.eliminarTodo();
+                return tareaVisibilidadRepository.insertarTodo();
+            });
+            log.info("tarea_visibility reconstruida: {} filas en {} ms", filas, System.currentTimeMillis() - inicio);
+            return Optional.ofNullable(filas);
+        } finally {
+            jobLockService.liberar(bloqueo.get());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.academia.jobs;
+
+import com.example.academia.DTOs.GeneracionVencidasDTO;
+import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.servicios.EntregaService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Planificador de vencimientos de tareas.
+ * Mantiene un montículo (min-heap) con las fechas límite pendientes; cada tick solo mira la cabeza,
+ * así que el trabajo es proporcional a las tareas que vencen y no al histórico.
+ * Una tarea vence cuando su fechaLimite es anterior a hoy; entonces se generan sus entregas FUERA_PLAZO
+ * y queda marcada como procesada (vencimiento_procesado), por lo que se procesa una sola vez.
+ * Los cambios de fecha y los borrados no se buscan en el montículo: el mapa de fechas vigentes
+ * invalida las entradas obsoletas cuando llegan a la cabeza.
+ *
+ * En memoria solo está una ventana: las tareas pendientes que vencen hasta el horizonte (hoy + ventana-dias,
+ * como mucho maximo-carga por lectura). Cada tick amplía la ventana con el tramo siguiente; lo que quede fuera
+ * lo recoge el barrido diario. Los cambios hechos dentro de una transacción se aplican al confirmarse
+ * (afterCommit): un rollback no deja entradas en el montículo. Antes de generar, EntregaService vuelve a
+ * comprobar en la base de datos que cada tarea sigue vencida y sin procesar.
+ */
+@Component
+@RequiredArgsConstructor
+public class VencimientoScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(VencimientoScheduler.class);
+
+    private record Vencimiento(Long tareaId, LocalDate fechaLimite) {
+    }
+
+    private final TareaRepository tareaRepository;
+    private final EntregaService entregaService;
+
+    private final PriorityQueue<Vencimiento> monticulo =
+            new PriorityQueue<>(Comparator.comparing(Vencimiento::fechaLimite));
+    private final Map<Long, LocalDate> vigentes = new HashMap<>();
+
+    @Value("${entregas.vencidas.ventana-dias:2}")
+    private int ventanaDias;
+
+    @Value("${entregas.vencidas.maximo-carga:10000}")
+    private int maximoCarga;
+
+    // Todas las tareas pendientes con fechaLimite <= horizonte se han leído (null: aún sin cargar)
+    private LocalDate horizonte;
+
+    private volatile boolean cargado;
+
+    // Solo se cargan las tareas sin procesar (marca de agua) y dentro de la ventana
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        int programadas = cargarTramo(null, LocalDate.now().plusDays(ventanaDias));
+        cargado = true;
+        log.info("Planificador de vencimientos cargado con {} tareas pendientes hasta el {}", programadas, horizonte);
+    }
+
+    // Dentro de una transacción, el montículo cambia solo si se confirma
+    public void programar(Long tareaId, LocalDate fechaLimite) {
+        alConfirmar(() -> programarAhora(tareaId, fechaLimite));
+    }
+
+    public void cancelar(Long tareaId) {
+        alConfirmar(() -> cancelarAhora(tareaId));
+    }
+
+    @Scheduled(fixedDelayString = "${entregas.vencidas.intervalo-ms:60000}")
+    public void procesarVencidas() {
+        if (!cargado) {
+            return;
+        }
+        LocalDate hoy = LocalDate.now();
+        ampliarVentana(hoy);
+        List<Long> vencidas = extraerVencidas(hoy);
+        if (vencidas.isEmpty()) {
+            return;
+        }
+        try {
+            Optional<GeneracionVencidasDTO> resultado = entregaService.generarEntregasVencidas(vencidas);
+            if (resultado.isEmpty()) {
+                // Otro nodo está generando: se reintenta en el siguiente tick
+                reprogramar(vencidas);
+                return;
+            }
+            log.info("Vencimiento de {} tareas: {} entregas creadas en {} ms",
+                    resultado.get().getTareasProcesadas(), resultado.get().getEntregasCreadas(), resultado.get().getDuracionMs());
+        } catch (RuntimeException e) {
+            // Se vuelven a programar; la marca de agua evita duplicados si parte del trabajo llegó a confirmarse
+            log.error("Error procesando vencimientos: {}", e.getMessage(), e);
+            reprogramar(vencidas);
+        }
+    }
+
+    // Barrido completo de respaldo: cubre las tareas creadas o modificadas en otras réplicas,
+    // que no están en el montículo de este nodo. Solo lo ejecuta el nodo que obtiene el bloqueo.
+    @Scheduled(cron = "${entregas.vencidas.barrido-cron:0 5 0 * * *}")
+    public void barrido() {
+        try {
+            entregaService.generarEntregasAutomaticasPorVencimiento();
+        } catch (RuntimeException e) {
+            log.error("Error en el barrido de entregas vencidas: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void programarAhora(Long tareaId, LocalDate fechaLimite) {
+        // Sin fecha o más allá del horizonte: la entrada anterior queda obsoleta y la nueva se leerá al ampliar
+        if (fechaLimite == null || (horizonte != null && fechaLimite.isAfter(horizonte))) {
+            vigentes.remove(tareaId);
+            return;
+        }
+        programarSinBloqueo(tareaId, fechaLimite);
+    }
+
+    private synchronized void cancelarAhora(Long tareaId) {
+        vigentes.remove(tareaId);
+    }
+
+    private void ampliarVentana(LocalDate hoy) {
+        LocalDate desde;
+        synchronized (this) {
+            desde = horizonte;
+        }
+        LocalDate hasta = hoy.plusDays(ventanaDias);
+        if (desde != null && desde.isBefore(hasta)) {
+            int programadas = cargarTramo(desde, hasta);
+            log.debug("Ventana de vencimientos ampliada hasta el {}: {} tareas", horizonte, programadas);
+        }
+    }
+
+    // Lee las pendientes con fechaLimite en (desde, hasta] y adelanta el horizonte hasta la última fecha leída entera
+    private int cargarTramo(LocalDate desde, LocalDate hasta) {
+        PageRequest limite = PageRequest.of(0, maximoCarga);
+        List<Object[]> filas = desde == null
+                ? tareaRepository.findVencimientosPendientesHasta(hasta, limite)
+                : tareaRepository.findVencimientosPendientesEntre(desde, hasta, limite);
+
+        LocalDate completo = hasta;
+        if (filas.size() == maximoCarga) {
+            // Lectura truncada: la última fecha puede estar a medias y se vuelve a leer en la siguiente ampliación
+            LocalDate ultima = (LocalDate) filas.get(filas.size() - 1)[1];
+            completo = ultima.minusDays(1);
+            if (desde != null && !completo.isAfter(desde)) {
+                // Una sola fecha con más de maximo-carga tareas: las que no caben las genera el barrido diario
+                log.warn("Más de {} vencimientos pendientes el {}; el resto queda para el barrido", maximoCarga, ultima);
+                completo = ultima;
+            }
+        }
+
+        int programadas = 0;
+        synchronized (this) {
+            for (Object[] fila : filas) {
+                Long tareaId = (Long) fila[0];
+                LocalDate fechaLimite = (LocalDate) fila[1];
+                // Un cambio registrado mientras se cargaba tiene prioridad sobre lo leído
+                if (!fechaLimite.isAfter(completo) && !vigentes.containsKey(tareaId)) {
+                    programarSinBloqueo(tareaId, fechaLimite);
+                    programadas++;
+                }
+            }
+            if (horizonte == null || completo.isAfter(horizonte)) {
+                horizonte = completo;
+            }
+        }
+        return programadas;
+    }
+
+    private static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private synchronized List<Long> extraerVencidas(LocalDate hoy) {
+        List<Long> vencidas = new ArrayList<>();
+        while (!monticulo.isEmpty() && monticulo.peek().fechaLimite().isBefore(hoy)) {
+            Vencimiento vencimiento = monticulo.poll();
+            // Entrada obsoleta: la tarea se borró o cambió de fecha después de programarse
+            if (vencimiento.fechaLimite().equals(vigentes.get(vencimiento.tareaId()))) {
+                vigentes.remove(vencimiento.tareaId());
+                vencidas.add(vencimiento.tareaId());
+            }
+        }
+        return vencidas;
+    }
+
+    private synchronized void reprogramar(List<Long> tareaIds) {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        for (Long tareaId : tareaIds) {
+            if (!vigentes.containsKey(tareaId)) {
+                programarSinBloqueo(tareaId, ayer);
+            }
+        }
+    }
+
+    private void programarSinBloqueo(Long tareaId, LocalDate fechaLimite) {
+        if (fechaLimite.equals(vigentes.put(tareaId, fechaLimite))) {
+            return; // ya estaba programada con la misma fecha
+        }
+        monticulo.add(new Vencimiento(tareaId, fechaLimite));
+    }
+}
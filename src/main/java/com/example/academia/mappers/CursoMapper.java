@@ -14,8 +14,17 @@ public interface CursoMapper {
     CursoResponseDTO toCursoResponseDTO(CursoEntity curso);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "inscritos", ignore = true)     // ✅ Solo lo cambian las matrículas
+    @Mapping(target = "plazasLibres", ignore = true)  // ✅ Columna generada
     CursoEntity toCursoEntity(CursoCreateDTO dto);
 
+    @Mapping(target = "plazasDisponibles", source = "plazasLibres")
+    @Mapping(target = "profesores", ignore = true)       // ✅ Consultas separadas (CursoServiceImpl.cargarDetalles)
+    @Mapping(target = "alumnos", ignore = true)
+    @Mapping(target = "tareas", ignore = true)
+    @Mapping(target = "totalProfesores", ignore = true)  // ✅ Agregados (CursoRepository.contarDetalles)
+    @Mapping(target = "totalAlumnos", ignore = true)
+    @Mapping(target = "totalTareas", ignore = true)
     CursoConDetallesDTO toCursoConDetallesDTO(CursoEntity curso);
 
     CursoSimpleDTO toCursoSimpleDTO(CursoEntity curso);
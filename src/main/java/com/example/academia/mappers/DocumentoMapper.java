@@ -2,8 +2,15 @@ package com.example.academia.mappers;
 
 import com.example.academia.DTOs.DocumentoDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface DocumentoMapper {
+    @Mapping(target = "clave", ignore = true)
+    @Mapping(target = "tamanho", ignore = true)
     DocumentoDTO toDocumentoDTO(String nombreArchivo, String tipoArchivo, byte[] contenido);
+
+    // Documento guardado en el DocumentStore: no se cargan los bytes
+    @Mapping(target = "contenido", ignore = true)
+    DocumentoDTO toDocumentoDTO(String nombreArchivo, String tipoArchivo, String clave, Long tamanho);
 }
\ No newline at end of file
@@ -12,10 +12,10 @@ import java.util.List;
 @Mapper(componentModel = "spring", uses = {TareaMapper.class, AlumnoMapper.class})
 public interface EntregaMapper {
 
-    @Mapping(target = "tieneDocumento", expression = "java(entrega.getDocumento() != null && entrega.getDocumento().length > 0)")
+    @Mapping(target = "tieneDocumento", expression = "java(entrega.getDocumentoSize() != null && entrega.getDocumentoSize() > 0)")
     @Mapping(target = "entregadaATiempo", expression = "java(entrega.getEstado() != EntregaEntity.EstadoEntrega.FUERA_PLAZO)")
     @Mapping(target = "calificada", expression = "java(entrega.getEstado() == EntregaEntity.EstadoEntrega.CALIFICADA)")
-    @Mapping(target = "tieneDocumentoProfesor", expression = "java(entrega.getDocumentoProfesor() != null && entrega.getDocumentoProfesor().length > 0)")
+    @Mapping(target = "tieneDocumentoProfesor", expression = "java(entrega.getDocumentoProfesorSize() != null && entrega.getDocumentoProfesorSize() > 0)")
     @Mapping(target = "tarea", source = "tarea") // ✅ EXPLÍCITO: mapear tarea completa
     @Mapping(target = "alumno", source = "alumno")
     EntregaResponseDTO toEntregaResponseDTO(EntregaEntity entrega);
@@ -33,13 +33,16 @@ public interface EntregaMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "tarea", ignore = true)  // 🔥 CRÍTICO
     @Mapping(target = "alumno", ignore = true) // 🔥 CRÍTICO
-    @Mapping(target = "documento", ignore = true)
+    @Mapping(target = "profesorId", ignore = true)
+    @Mapping(target = "documentoClave", ignore = true)
+    @Mapping(target = "documentoSize", ignore = true)
     @Mapping(target = "nombreDocumento", ignore = true)
     @Mapping(target = "tipoDocumento", ignore = true)
     @Mapping(target = "estado", ignore = true)
     @Mapping(target = "fechaEntrega", ignore = true)
     @Mapping(target = "nota", ignore = true)
-    @Mapping(target = "documentoProfesor", ignore = true)
+    @Mapping(target = "documentoProfesorClave", ignore = true)
+    @Mapping(target = "documentoProfesorSize", ignore = true)
     @Mapping(target = "nombreDocumentoProfesor", ignore = true)
     @Mapping(target = "tipoDocumentoProfesor", ignore = true)
     EntregaEntity toEntregaEntityWithoutRelations(EntregaCreateDTO dto);
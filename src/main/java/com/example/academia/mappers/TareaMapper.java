@@ -10,9 +10,10 @@ import java.util.List;
 @Mapper(componentModel = "spring", uses = {CursoMapper.class, ProfesorMapper.class, AlumnoMapper.class})
 public interface TareaMapper {
 
-    @Mapping(target = "tieneDocumento", expression = "java(tarea.getDocumento() != null && tarea.getDocumento().length > 0)")
-    @Mapping(target = "totalEntregas", expression = "java(tarea.getEntregas() != null ? tarea.getEntregas().size() : 0)")
-    @Mapping(target = "entregasPendientes", expression = "java(tarea.getEntregas() != null ? (int) tarea.getEntregas().stream().filter(e -> e.getEstado() == com.example.academia.entidades.EntregaEntity.EstadoEntrega.ENTREGADA).count() : 0)")
+    @Mapping(target = "tieneDocumento", expression = "java(tarea.getDocumentoSize() != null && tarea.getDocumentoSize() > 0)")
+    // Las estadísticas las rellena TareaServiceImpl con una consulta agrupada: nunca se recorre tarea.getEntregas()
+    @Mapping(target = "totalEntregas", ignore = true)
+    @Mapping(target = "entregasPendientes", ignore = true)
     TareaResponseDTO toTareaResponseDTO(TareaEntity tarea);
 
     @Mapping(target = "profesor", source = "profesor")
@@ -23,10 +24,12 @@ public interface TareaMapper {
     @Mapping(target = "curso", ignore = true)    // 🔥 CRÍTICO
     @Mapping(target = "profesor", ignore = true) // 🔥 CRÍTICO
     @Mapping(target = "alumnosAsignados", ignore = true) // 🔥 CRÍTICO
-    @Mapping(target = "documento", ignore = true)
+    @Mapping(target = "documentoClave", ignore = true)
+    @Mapping(target = "documentoSize", ignore = true)
     @Mapping(target = "nombreDocumento", ignore = true)
     @Mapping(target = "tipoDocumento", ignore = true)
     @Mapping(target = "entregas", ignore = true)
+    @Mapping(target = "vencimientoProcesado", ignore = true)
     TareaEntity toTareaEntityWithoutRelations(TareaDTO dto);
 
     List<TareaResponseDTO> toTareaResponseDTOList(List<TareaEntity> tareas);
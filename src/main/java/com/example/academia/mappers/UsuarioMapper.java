@@ -16,13 +16,16 @@ public interface UsuarioMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "profesor", ignore = true)
     @Mapping(target = "alumno", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
     UsuarioEntity toUsuarioEntity(UsuarioDTO dto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "profesor", ignore = true)
     @Mapping(target = "alumno", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
     UsuarioEntity createUsuarioFromDTO(UsuarioCreateDTO dto);
 
+    @Mapping(target = "tokenVersion", ignore = true)
     void updateUsuarioFromDTO(UsuarioDTO dto, @MappingTarget UsuarioEntity usuario);
 
     List<UsuarioResponseDTO> toUsuarioResponseDTOList(List<UsuarioEntity> usuarios);
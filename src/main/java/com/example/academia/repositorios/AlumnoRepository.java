@@ -4,8 +4,13 @@ import com.example.academia.entidades.AlumnoEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AlumnoRepository extends JpaRepository<AlumnoEntity,Long> {
 
@@ -17,4 +22,8 @@ public interface AlumnoRepository extends JpaRepository<AlumnoEntity,Long> {
 
     Page<AlumnoEntity>findByApellidoContainingIgnoreCase(String apellido, Pageable pageable);
 
+    // Cuáles de estos IDs existen (validación por lotes de la matrícula masiva)
+    @Query("SELECT a.id FROM AlumnoEntity a WHERE a.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
 }
@@ -1,13 +1,21 @@
 package com.example.academia.repositorios;
 
+import com.example.academia.entidades.AlumnoEntity;
 import com.example.academia.entidades.CursoEntity;
+import com.example.academia.entidades.ProfesorEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,16 +32,21 @@ public interface CursoRepository extends JpaRepository<CursoEntity, Long> {
     @Query("SELECT c FROM CursoEntity c JOIN c.alumnos a WHERE a.id = :alumnoId")
     Page<CursoEntity> findByAlumnosId(@Param("alumnoId") Long alumnoId, Pageable pageable);
 
-    // Cursos con menos de X alumnos (plazas disponibles)
-    @Query("SELECT c FROM CursoEntity c WHERE (:capacidadMaxima - SIZE(c.alumnos)>= :plazasMinimas)")
-    Page<CursoEntity> findCursosConPlazasDisponibles(@Param("plazasMinimas") int plazasMinimas, @Param("capacidadMaxima") int capacidadMaxima, Pageable pageable);
+    // Cursos con al menos X plazas libres: rango sobre idx_cursos_plazas_libres, sin contar curso_alumnos
+    @Query("SELECT c FROM CursoEntity c WHERE c.plazasLibres >= :plazasMinimas")
+    Page<CursoEntity> findCursosConPlazasDisponibles(@Param("plazasMinimas") int plazasMinimas, Pageable pageable);
 
-    // Cargar curso con todas sus relaciones
-    @Query("SELECT c FROM CursoEntity c " +
-            "LEFT JOIN FETCH c.profesores " +
-            "LEFT JOIN FETCH c.alumnos " +
-            "WHERE c.id = :cursoId")
-    Optional<CursoEntity> findByIdWithDetails(@Param("cursoId") Long cursoId);
+    // ✅ DETALLE DEL CURSO EN CONSULTAS SEPARADAS: un JOIN FETCH de profesores y alumnos a la vez devuelve
+    // profesores × alumnos filas. Cada colección va en su propia consulta y los totales salen de agregados.
+    @Query("SELECT p FROM CursoEntity c JOIN c.profesores p WHERE c.id = :cursoId ORDER BY p.id")
+    List<ProfesorEntity> findProfesoresDeCurso(@Param("cursoId") Long cursoId);
+
+    @Query("SELECT a FROM CursoEntity c JOIN c.alumnos a WHERE c.id = :cursoId ORDER BY a.id")
+    List<AlumnoEntity> findAlumnosDeCurso(@Param("cursoId") Long cursoId);
+
+    // Profesores, alumnos y tareas del curso: tres COUNT sobre los índices, sin cargar ninguna fila
+    @Query("SELECT SIZE(c.profesores), SIZE(c.alumnos), SIZE(c.tareas) FROM CursoEntity c WHERE c.id = :cursoId")
+    List<Object[]> contarDetalles(@Param("cursoId") Long cursoId);
 
     // Cargar curso solo con profesores
     @Query("SELECT c FROM CursoEntity c " +
@@ -67,4 +80,31 @@ public interface CursoRepository extends JpaRepository<CursoEntity, Long> {
             "WHERE c.id = :cursoId AND a.id = :alumnoId")
     Boolean isAlumnoEnrolledInCurso(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
 
+    // Validación por lotes de la matrícula masiva: matrículas que ya existen (los cursos existentes salen del
+    // bloqueo de plazas). Devuelve un superconjunto (todas las combinaciones de los IDs dados); se filtra por par en memoria.
+    @Query("SELECT c.id, a.id FROM CursoEntity c JOIN c.alumnos a WHERE c.id IN :cursoIds AND a.id IN :alumnoIds")
+    List<Object[]> findMatriculas(@Param("cursoIds") Collection<Long> cursoIds, @Param("alumnoIds") Collection<Long> alumnoIds);
+
+    // ✅ ALTAS Y BAJAS DE UNA FILA en las tablas de unión, sin cargar las colecciones del curso.
+    // Devuelven 0 si la fila ya existía (INSERT IGNORE) o no existía (DELETE): esa es la comprobación de pertenencia.
+    // Las colecciones cacheadas (cursos.alumnos, cursos.profesores) las desaloja quien llama.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "curso_alumnos"))
+    @Query(value = "INSERT IGNORE INTO curso_alumnos (curso_id, alumno_id) VALUES (:cursoId, :alumnoId)", nativeQuery = true)
+    int insertarAlumno(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "curso_alumnos"))
+    @Query(value = "DELETE FROM curso_alumnos WHERE curso_id = :cursoId AND alumno_id = :alumnoId", nativeQuery = true)
+    int eliminarAlumno(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "curso_profesores"))
+    @Query(value = "INSERT IGNORE INTO curso_profesores (curso_id, profesor_id) VALUES (:cursoId, :profesorId)", nativeQuery = true)
+    int insertarProfesor(@Param("cursoId") Long cursoId, @Param("profesorId") Long profesorId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "curso_profesores"))
+    @Query(value = "DELETE FROM curso_profesores WHERE curso_id = :cursoId AND profesor_id = :profesorId", nativeQuery = true)
+    int eliminarProfesor(@Param("cursoId") Long cursoId, @Param("profesorId") Long profesorId);
 }
@@ -0,0 +1,59 @@
+package com.example.academia.repositorios;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Acceso a las columnas LONGBLOB heredadas de entregas y tareas.
+ * Las entidades ya no mapean esas columnas, así que ninguna consulta JPA (listados, calificación,
+ * permisos) lee bytes de documento. El contenido solo se lee aquí, en la descarga de un documento
+ * que DocumentoMigracionJob todavía no ha trasladado al DocumentStore.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DocumentoHeredadoRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public byte[] leerDocumentoEntrega(Long entregaId) {
+        return leer("entregas", "documento", entregaId);
+    }
+
+    public byte[] leerDocumentoProfesorEntrega(Long entregaId) {
+        return leer("entregas", "documento_profesor", entregaId);
+    }
+
+    public byte[] leerDocumentoTarea(Long tareaId) {
+        return leer("tareas", "documento", tareaId);
+    }
+
+    // Al sustituir o eliminar un documento heredado hay que vaciar la columna; si no, la migración lo recuperaría
+    public void descartarDocumentoEntrega(Long entregaId) {
+        descartar("entregas", "documento", entregaId);
+    }
+
+    public void descartarDocumentoProfesorEntrega(Long entregaId) {
+        descartar("entregas", "documento_profesor", entregaId);
+    }
+
+    public void descartarDocumentoTarea(Long tareaId) {
+        descartar("tareas", "documento", tareaId);
+    }
+
+    private byte[] leer(String tabla, String columna, Long id) {
+        List<byte[]> filas = jdbcTemplate.query(
+                "SELECT " + columna + " FROM " + tabla + " WHERE id = ?",
+                (rs, rowNum) -> rs.getBytes(1),
+                id);
+        return filas.isEmpty() ? null : filas.get(0);
+    }
+
+    private void descartar(String tabla, String columna, Long id) {
+        jdbcTemplate.update(
+                "UPDATE " + tabla + " SET " + columna + " = NULL WHERE id = ? AND " + columna + " IS NOT NULL",
+                id);
+    }
+}
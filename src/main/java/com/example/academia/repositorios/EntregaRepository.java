@@ -2,14 +2,21 @@ package com.example.academia.repositorios;
 
 import com.example.academia.entidades.EntregaEntity;
 import com.example.academia.entidades.TareaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +35,14 @@ public interface EntregaRepository extends JpaRepository<EntregaEntity, Long> {
     @Query("SELECT e FROM EntregaEntity e WHERE e.tarea.profesor.id = :profesorId")
     Page<EntregaEntity> findByProfesorId(@Param("profesorId") Long profesorId, Pageable pageable);
 
+    // Comprobaciones de permisos: solo consultan IDs, sin cargar la entrega
+    boolean existsByIdAndAlumnoId(Long id, Long alumnoId);
+
+    boolean existsByIdAndTareaProfesorId(Long id, Long profesorId);
+
+    @Query("SELECT e.tarea.profesor.id FROM EntregaEntity e WHERE e.id = :entregaId")
+    Optional<Long> findProfesorIdByEntregaId(@Param("entregaId") Long entregaId);
+
     // Buscar entregas por estado
     Page<EntregaEntity> findByEstado(EntregaEntity.EstadoEntrega estado, Pageable pageable);
 
@@ -43,33 +58,105 @@ public interface EntregaRepository extends JpaRepository<EntregaEntity, Long> {
     @Query("SELECT AVG(e.nota) FROM EntregaEntity e WHERE e.tarea.id = :tareaId AND e.nota IS NOT NULL")
     Double getNotaMediaByTarea(@Param("tareaId") Long tareaId);
 
-    @Query("SELECT DISTINCT e FROM EntregaEntity e " +
-            "LEFT JOIN FETCH e.tarea t " +
-            "LEFT JOIN FETCH t.profesor p " +
-            "LEFT JOIN FETCH t.curso c " +
-            "LEFT JOIN FETCH e.alumno a " +
-            "WHERE p.id = :profesorId " +
-            "ORDER BY e.fechaEntrega DESC")
-    Page<EntregaEntity> findEntregasByProfesorWithRelations(@Param("profesorId") Long profesorId, Pageable pageable);
-
-    // ✅ CONSULTA OPTIMIZADA: Cargar todas las entregas con relaciones
-    @Query("SELECT DISTINCT e FROM EntregaEntity e " +
-            "LEFT JOIN FETCH e.tarea t " +
-            "LEFT JOIN FETCH t.profesor p " +
-            "LEFT JOIN FETCH t.curso c " +
-            "LEFT JOIN FETCH e.alumno a " +
-            "ORDER BY e.fechaEntrega DESC")
-    Page<EntregaEntity> findAllWithRelations(Pageable pageable);
-
-    // ✅ CONSULTA OPTIMIZADA: Cargar entregas de una tarea con relaciones
-    @Query("SELECT DISTINCT e FROM EntregaEntity e " +
+    // Estadísticas de varias tareas: filas [tareaId, estado, total]
+    @Query("SELECT e.tarea.id, e.estado, COUNT(e) FROM EntregaEntity e " +
+            "WHERE e.tarea.id IN :tareaIds GROUP BY e.tarea.id, e.estado")
+    List<Object[]> contarEntregasPorTareaYEstado(@Param("tareaIds") Collection<Long> tareaIds);
+
+    // ✅ ENTREGAS VENCIDAS EN BLOQUE: un INSERT ... SELECT por lote de tareas, sin cargar alumnos ni entregas.
+    // Tareas para todo el curso: un alumno por matrícula en curso_alumnos
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entregas"))
+    @Query(value = "INSERT INTO entregas (tarea_id, profesor_id, alumno_id, estado, fecha_entrega, nota, comentarios) " +
+            "SELECT t.id, t.profesor_id, ca.alumno_id, 'FUERA_PLAZO', :ahora, 0, :comentarios " +
+            "FROM tareas t JOIN curso_alumnos ca ON ca.curso_id = t.curso_id " +
+            "WHERE t.id IN (:tareaIds) AND t.para_todos_alumnos = true " +
+            "AND NOT EXISTS (SELECT 1 FROM entregas e WHERE e.tarea_id = t.id AND e.alumno_id = ca.alumno_id)",
+            nativeQuery = true)
+    int insertarVencidasParaTodoElCurso(@Param("tareaIds") Collection<Long> tareaIds,
+                                        @Param("ahora") LocalDateTime ahora,
+                                        @Param("comentarios") String comentarios);
+
+    // Tareas para alumnos concretos: un alumno por asignación en tarea_alumnos
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entregas"))
+    @Query(value = "INSERT INTO entregas (tarea_id, profesor_id, alumno_id, estado, fecha_entrega, nota, comentarios) " +
+            "SELECT t.id, t.profesor_id, ta.alumno_id, 'FUERA_PLAZO', :ahora, 0, :comentarios " +
+            "FROM tareas t JOIN tarea_alumnos ta ON ta.tarea_id = t.id " +
+            "WHERE t.id IN (:tareaIds) AND (t.para_todos_alumnos IS NULL OR t.para_todos_alumnos = false) " +
+            "AND NOT EXISTS (SELECT 1 FROM entregas e WHERE e.tarea_id = t.id AND e.alumno_id = ta.alumno_id)",
+            nativeQuery = true)
+    int insertarVencidasParaAlumnosAsignados(@Param("tareaIds") Collection<Long> tareaIds,
+                                             @Param("ahora") LocalDateTime ahora,
+                                             @Param("comentarios") String comentarios);
+
+    // Matrículas posteriores al vencimiento: el barrido ya no vuelve a pasar por las tareas procesadas, así que
+    // las entregas de los alumnos nuevos se crean por par (tarea, alumno) al matricular. Solo inserta filas nuevas
+    // en entregas y lee tareas sin bloquearlas en exclusiva: no serializa las matrículas del mismo curso.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entregas"))
+    @Query(value = "INSERT INTO entregas (tarea_id, profesor_id, alumno_id, estado, fecha_entrega, nota, comentarios) " +
+            "SELECT t.id, t.profesor_id, ca.alumno_id, 'FUERA_PLAZO', :ahora, 0, :comentarios " +
+            "FROM curso_alumnos ca JOIN tareas t ON t.curso_id = ca.curso_id " +
+            "WHERE ca.curso_id IN (:cursoIds) AND ca.alumno_id IN (:alumnoIds) " +
+            "AND t.para_todos_alumnos = true AND t.vencimiento_procesado = true " +
+            "AND NOT EXISTS (SELECT 1 FROM entregas e WHERE e.tarea_id = t.id AND e.alumno_id = ca.alumno_id)",
+            nativeQuery = true)
+    int insertarVencidasParaMatriculas(@Param("cursoIds") Collection<Long> cursoIds,
+                                       @Param("alumnoIds") Collection<Long> alumnoIds,
+                                       @Param("ahora") LocalDateTime ahora,
+                                       @Param("comentarios") String comentarios);
+
+    // ✅ PAGINACIÓN POR IDS: la página se ordena (Sort del Pageable, validado en el servicio) y limita
+    // en la base de datos...
+    @Query("SELECT e.id FROM EntregaEntity e")
+    Page<Long> findPaginaIds(Pageable pageable);
+
+    @Query("SELECT e.id FROM EntregaEntity e WHERE e.tarea.profesor.id = :profesorId")
+    Page<Long> findPaginaIdsByProfesorId(@Param("profesorId") Long profesorId, Pageable pageable);
+
+    @Query("SELECT e.id FROM EntregaEntity e WHERE e.tarea.id = :tareaId")
+    Page<Long> findPaginaIdsByTareaId(@Param("tareaId") Long tareaId, Pageable pageable);
+
+    // ✅ PAGINACIÓN POR CURSOR (seek sobre idx_entregas_profesor_fecha_id): orden fechaEntrega DESC, id DESC,
+    // con las entregas sin fecha al final. Sin OFFSET, sin COUNT y sin JOIN con tareas.
+    @Query("SELECT e.id FROM EntregaEntity e WHERE e.profesorId = :profesorId " +
+            "ORDER BY e.fechaEntrega DESC, e.id DESC")
+    Slice<Long> findIdsByProfesorIdCursorInicio(@Param("profesorId") Long profesorId, Pageable pageable);
+
+    // Solo entregas con fecha: "fechaEntrega <= :fecha" es el rango sobre el índice; el resto de la condición
+    // descarta únicamente las filas de la misma fecha ya devueltas. Las entregas sin fecha las pide el servicio
+    // aparte (findIdsByProfesorIdCursorSinFechaDespuesDe) cuando estas se acaban.
+    @Query("SELECT e.id FROM EntregaEntity e WHERE e.profesorId = :profesorId " +
+            "AND e.fechaEntrega <= :fecha AND (e.fechaEntrega < :fecha OR e.id < :id) " +
+            "ORDER BY e.fechaEntrega DESC, e.id DESC")
+    Slice<Long> findIdsByProfesorIdCursorDespuesDe(@Param("profesorId") Long profesorId,
+                                                   @Param("fecha") LocalDateTime fecha,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    @Query("SELECT e.id FROM EntregaEntity e WHERE e.profesorId = :profesorId " +
+            "AND e.fechaEntrega IS NULL AND e.id < :id " +
+            "ORDER BY e.id DESC")
+    Slice<Long> findIdsByProfesorIdCursorSinFechaDespuesDe(@Param("profesorId") Long profesorId,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    // Rellena entregas.profesor_id desde tareas (filas anteriores a la columna o insertadas con SQL directo)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "entregas"))
+    @Query(value = "UPDATE entregas e JOIN tareas t ON t.id = e.tarea_id SET e.profesor_id = t.profesor_id " +
+            "WHERE NOT (e.profesor_id <=> t.profesor_id)", nativeQuery = true)
+    int sincronizarProfesorId();
+
+    // ...y las relaciones se cargan solo para los IDs de la página
+    @Query("SELECT e FROM EntregaEntity e " +
             "LEFT JOIN FETCH e.tarea t " +
             "LEFT JOIN FETCH t.profesor p " +
             "LEFT JOIN FETCH t.curso c " +
             "LEFT JOIN FETCH e.alumno a " +
-            "WHERE t.id = :tareaId " +
-            "ORDER BY e.fechaEntrega DESC")
-    Page<EntregaEntity> findByTareaIdWithRelations(@Param("tareaId") Long tareaId, Pageable pageable);
+            "WHERE e.id IN :ids")
+    List<EntregaEntity> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
 }
 
 
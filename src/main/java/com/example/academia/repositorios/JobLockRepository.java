@@ -0,0 +1,55 @@
+package com.example.academia.repositorios;
+
+import com.example.academia.entidades.JobLockEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// Las horas se toman siempre de la base de datos (NOW(3)) para no depender del reloj de cada réplica
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLockEntity, String> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_locks"))
+    @Query(value = "INSERT IGNORE INTO job_locks (nombre, propietario, bloqueado_hasta, token) " +
+            "VALUES (:nombre, NULL, NOW(3), 0)", nativeQuery = true)
+    int crearSiNoExiste(@Param("nombre") String nombre);
+
+    // Solo se adquiere si el arrendamiento anterior ha caducado; el token aumenta en cada adquisición
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_locks"))
+    @Query(value = "UPDATE job_locks SET propietario = :propietario, token = token + 1, " +
+            "bloqueado_hasta = TIMESTAMPADD(MICROSECOND, :arrendamientoMs * 1000, NOW(3)) " +
+            "WHERE nombre = :nombre AND bloqueado_hasta <= NOW(3)", nativeQuery = true)
+    int adquirir(@Param("nombre") String nombre,
+                 @Param("propietario") String propietario,
+                 @Param("arrendamientoMs") long arrendamientoMs);
+
+    @Query("SELECT l.token FROM JobLockEntity l WHERE l.nombre = :nombre AND l.propietario = :propietario")
+    Optional<Long> findToken(@Param("nombre") String nombre, @Param("propietario") String propietario);
+
+    // Renovación y comprobación de fencing: falla si otro nodo ha adquirido el bloqueo desde entonces
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_locks"))
+    @Query(value = "UPDATE job_locks SET bloqueado_hasta = TIMESTAMPADD(MICROSECOND, :arrendamientoMs * 1000, NOW(3)) " +
+            "WHERE nombre = :nombre AND propietario = :propietario AND token = :token", nativeQuery = true)
+    int renovar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("token") long token,
+                @Param("arrendamientoMs") long arrendamientoMs);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "job_locks"))
+    @Query(value = "UPDATE job_locks SET bloqueado_hasta = NOW(3) " +
+            "WHERE nombre = :nombre AND propietario = :propietario AND token = :token", nativeQuery = true)
+    int liberar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("token") long token);
+}
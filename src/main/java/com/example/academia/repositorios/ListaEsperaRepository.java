@@ -0,0 +1,63 @@
+package com.example.academia.repositorios;
+
+import com.example.academia.entidades.ListaEsperaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ListaEsperaRepository extends JpaRepository<ListaEsperaEntity, Long> {
+
+    // Alumnos en espera de un curso por orden de llegada (carga del índice en memoria)
+    @Query("SELECT e.alumnoId FROM ListaEsperaEntity e WHERE e.cursoId = :cursoId ORDER BY e.id")
+    List<Long> findAlumnosEnEspera(@Param("cursoId") Long cursoId);
+
+    // Posición (desde 1) del alumno en la lista del curso; 0 si no está en ella
+    @Query("SELECT COUNT(e) FROM ListaEsperaEntity e WHERE e.cursoId = :cursoId AND e.id <= " +
+            "(SELECT p.id FROM ListaEsperaEntity p WHERE p.cursoId = :cursoId AND p.alumnoId = :alumnoId)")
+    long findPosicion(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    boolean existsByCursoId(Long cursoId);
+
+    @Query("SELECT e.cursoId FROM ListaEsperaEntity e WHERE e.alumnoId = :alumnoId")
+    List<Long> findCursoIdsByAlumnoId(@Param("alumnoId") Long alumnoId);
+
+    // Primero de la lista, bloqueado hasta el commit (quien llama ya tiene bloqueada la fila del curso: PlazasCursoRepository.bloquear)
+    @Query(value = "SELECT * FROM lista_espera WHERE curso_id = :cursoId ORDER BY id LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Optional<ListaEsperaEntity> findPrimeroParaPromover(@Param("cursoId") Long cursoId);
+
+    // ✅ Devuelve 0 si el alumno ya estaba en la lista (INSERT IGNORE sobre uk_lista_espera_curso_alumno)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lista_espera"))
+    @Query(value = "INSERT IGNORE INTO lista_espera (curso_id, alumno_id, fecha_alta) VALUES (:cursoId, :alumnoId, NOW())", nativeQuery = true)
+    int apuntar(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    // Devuelve 0 si el alumno no estaba en la lista (o acaba de ser promovido)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lista_espera"))
+    @Query(value = "DELETE FROM lista_espera WHERE curso_id = :cursoId AND alumno_id = :alumnoId", nativeQuery = true)
+    int eliminar(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lista_espera"))
+    @Query(value = "DELETE FROM lista_espera WHERE id = :id", nativeQuery = true)
+    int eliminarPorId(@Param("id") Long id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lista_espera"))
+    @Query(value = "DELETE FROM lista_espera WHERE curso_id = :cursoId", nativeQuery = true)
+    int eliminarPorCurso(@Param("cursoId") Long cursoId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lista_espera"))
+    @Query(value = "DELETE FROM lista_espera WHERE alumno_id = :alumnoId", nativeQuery = true)
+    int eliminarPorAlumno(@Param("alumnoId") Long alumnoId);
+}
@@ -0,0 +1,96 @@
+package com.example.academia.repositorios;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Contadores de plazas de cursos.capacidad / cursos.inscritos.
+ * Cada reserva es un UPDATE condicional sobre la fila del curso: MySQL comprueba y suma en la misma sentencia,
+ * así que dos matrículas simultáneas nunca venden la misma plaza.
+ * Orden de bloqueo de todas las altas y bajas (individuales, masivas y promociones de la lista de espera):
+ * primero la fila de cursos y después curso_alumnos y lista_espera. La matrícula individual la toma con el propio
+ * UPDATE de reservar; solo con el curso completo o con lista de espera pasa por bloquear (SELECT ... FOR UPDATE).
+ * Va por JDBC y no como consulta nativa de Hibernate: con la tabla cursos declarada como espacio, Hibernate
+ * vaciaría la región entera de cursos y sus colecciones en cada matrícula. Quien llama desaloja solo su curso.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlazasCursoRepository {
+
+    public record Plazas(int capacidad, int inscritos) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // SELECT ... FOR UPDATE de la fila del curso: plazas libres, o vacío si el curso no existe.
+    // Para bajas, promociones y altas en la lista de espera, que deben ir de una en una por curso
+    // (un reservar que no encuentra plaza no deja la fila bloqueada en READ COMMITTED).
+    public Optional<Integer> bloquear(Long cursoId) {
+        return jdbcTemplate.query(
+                "SELECT capacidad - inscritos FROM cursos WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> rs.getInt(1),
+                cursoId).stream().findFirst();
+    }
+
+    // false si no quedan tantas plazas libres
+    public boolean reservar(Long cursoId, int plazas) {
+        return jdbcTemplate.update(
+                "UPDATE cursos SET inscritos = inscritos + ? WHERE id = ? AND inscritos + ? <= capacidad",
+                plazas, cursoId, plazas) == 1;
+    }
+
+    public void liberar(Long cursoId, int plazas) {
+        jdbcTemplate.update(
+                "UPDATE cursos SET inscritos = GREATEST(inscritos - ?, 0) WHERE id = ?",
+                plazas, cursoId);
+    }
+
+    // false si ya hay más inscritos que la nueva capacidad
+    public boolean cambiarCapacidad(Long cursoId, int capacidad) {
+        return jdbcTemplate.update(
+                "UPDATE cursos SET capacidad = ? WHERE id = ? AND inscritos <= ?",
+                capacidad, cursoId, capacidad) == 1;
+    }
+
+    public Optional<Plazas> leer(Long cursoId) {
+        return jdbcTemplate.query(
+                "SELECT capacidad, inscritos FROM cursos WHERE id = ?",
+                (rs, rowNum) -> new Plazas(rs.getInt(1), rs.getInt(2)),
+                cursoId).stream().findFirst();
+    }
+
+    // Matrícula masiva: bloquea las filas de los cursos del lote hasta el commit y devuelve sus plazas libres
+    public Map<Long, Integer> bloquearPlazasLibres(Collection<Long> cursoIds) {
+        Map<Long, Integer> libres = new HashMap<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(
+                "SELECT id, capacidad - inscritos FROM cursos WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", cursoIds),
+                rs -> {
+                    libres.put(rs.getLong(1), Math.max(0, rs.getInt(2)));
+                });
+        return libres;
+    }
+
+    // Cursos cuyo contador no coincide con curso_alumnos (matrículas insertadas con SQL directo); lectura sin bloqueos
+    public List<Long> findCursosDescuadrados() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.id FROM cursos c WHERE c.inscritos <> (SELECT COUNT(*) FROM curso_alumnos ca WHERE ca.curso_id = c.id)",
+                Long.class);
+    }
+
+    // Recuento de un curso desde curso_alumnos; quien llama ya tiene bloqueada su fila (bloquear)
+    public void recalcularInscritos(Long cursoId) {
+        jdbcTemplate.update(
+                "UPDATE cursos SET inscritos = (SELECT COUNT(*) FROM curso_alumnos WHERE curso_id = ?) WHERE id = ?",
+                cursoId, cursoId);
+    }
+}
@@ -1,52 +1,79 @@
 package com.example.academia.repositorios;
 
 import com.example.academia.entidades.TareaEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TareaRepository extends JpaRepository<TareaEntity, Long> {
 
 
-    // ✅ OPTIMIZACIÓN: Cargar tareas con alumnos en una sola consulta
+    // ✅ PAGINACIÓN EN DOS FASES: primero la página de IDs (orden y LIMIT en la base de datos)...
+    @Query("SELECT t.id FROM TareaEntity t")
+    Page<Long> findPaginaIds(Pageable pageable);
+
+    // Tareas del detalle de un curso con su profesor (TareaSimpleDTO), en una sola consulta
+    @Query("SELECT t FROM TareaEntity t LEFT JOIN FETCH t.profesor WHERE t.curso.id = :cursoId ORDER BY t.id")
+    List<TareaEntity> findByCursoIdConProfesor(@Param("cursoId") Long cursoId);
+
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.profesor.id = :profesorId")
+    Page<Long> findPaginaIdsByProfesorId(@Param("profesorId") Long profesorId, Pageable pageable);
+
+    // Tareas visibles para el alumno según tarea_visibility, con orden por cualquier columna de la tarea
+    // (para id y fechaLimite se usa directamente TareaVisibilidadRepository.findPaginaTareaIds)
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.id IN (" +
+            "SELECT v.tareaId FROM TareaVisibilidadEntity v WHERE v.alumnoId = :alumnoId)")
+    Page<Long> findPaginaIdsForAlumno(@Param("alumnoId") Long alumnoId, Pageable pageable);
+
+    // ✅ PAGINACIÓN POR CURSOR (seek sobre idx_tareas_profesor_fecha_id): orden fechaLimite ASC, id ASC,
+    // con las tareas sin fecha límite al principio (orden de MySQL). Sin OFFSET ni COUNT.
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.profesor.id = :profesorId " +
+            "ORDER BY t.fechaLimite ASC, t.id ASC")
+    Slice<Long> findIdsByProfesorIdCursorInicio(@Param("profesorId") Long profesorId, Pageable pageable);
+
+    // Solo tareas con fecha: "fechaLimite >= :fecha" es el rango sobre el índice; el resto de la condición
+    // descarta únicamente las filas de la misma fecha ya devueltas
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.profesor.id = :profesorId " +
+            "AND t.fechaLimite >= :fecha AND (t.fechaLimite > :fecha OR t.id > :id) " +
+            "ORDER BY t.fechaLimite ASC, t.id ASC")
+    Slice<Long> findIdsByProfesorIdCursorDespuesDe(@Param("profesorId") Long profesorId,
+                                                   @Param("fecha") LocalDate fecha,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    // Las tareas sin fecha van primero; cuando se acaban, el servicio sigue con findIdsByProfesorIdCursorConFecha
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.profesor.id = :profesorId " +
+            "AND t.fechaLimite IS NULL AND t.id > :id " +
+            "ORDER BY t.id ASC")
+    Slice<Long> findIdsByProfesorIdCursorSinFechaDespuesDe(@Param("profesorId") Long profesorId,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
+
+    @Query("SELECT t.id FROM TareaEntity t WHERE t.profesor.id = :profesorId " +
+            "AND t.fechaLimite IS NOT NULL " +
+            "ORDER BY t.fechaLimite ASC, t.id ASC")
+    Slice<Long> findIdsByProfesorIdCursorConFecha(@Param("profesorId") Long profesorId, Pageable pageable);
+
+    // ...y después las relaciones solo de esas tareas, en una consulta
     @Query("SELECT DISTINCT t FROM TareaEntity t " +
             "LEFT JOIN FETCH t.alumnosAsignados " +
             "LEFT JOIN FETCH t.curso " +
             "LEFT JOIN FETCH t.profesor " +
-            "WHERE t.profesor.id = :profesorId " +
-            "ORDER BY t.fechaLimite")
-    List<TareaEntity> findByProfesorIdWithAlumnos(@Param("profesorId") Long profesorId);
-
-    // ✅ OPTIMIZACIÓN: Cargar todas las tareas con relaciones
-    @Query("SELECT DISTINCT t FROM TareaEntity t " +
-            "LEFT JOIN FETCH t.alumnosAsignados " +
-            "LEFT JOIN FETCH t.curso " +
-            "LEFT JOIN FETCH t.profesor " +
-            "ORDER BY t.fechaLimite")
-    List<TareaEntity> findAllWithAlumnos();
-
-    // ✅ OPTIMIZACIÓN: Cargar tareas para alumno con relaciones
-    @Query("SELECT DISTINCT t FROM TareaEntity t " +
-            "LEFT JOIN FETCH t.alumnosAsignados " +
-            "LEFT JOIN FETCH t.curso " +
-            "LEFT JOIN FETCH t.profesor " +
-            "WHERE " +
-            "  (t.paraTodosLosAlumnos = true AND EXISTS (" +
-            "    SELECT 1 FROM t.curso.alumnos a WHERE a.id = :alumnoId" +
-            "  )) " +
-            "  OR " +
-            "  (t.paraTodosLosAlumnos = false AND EXISTS (" +
-            "    SELECT 1 FROM t.alumnosAsignados aa WHERE aa.id = :alumnoId" +
-            "  )) " +
-            "ORDER BY t.fechaLimite")
-    List<TareaEntity> findTareasForAlumnoWithAlumnos(@Param("alumnoId") Long alumnoId);
+            "WHERE t.id IN :ids")
+    List<TareaEntity> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
 
     Page<TareaEntity> findAll(Pageable pageable);
 
@@ -62,23 +89,32 @@ public interface TareaRepository extends JpaRepository<TareaEntity, Long> {
 
     Page<TareaEntity> findByCursoIdAndProfesorId(Long cursoId, Long profesorId, Pageable pageable);
 
-    //Seleccionar todas las tareas asignadas al alumno de forma que se monstraran las tareas donde el alumno está en el curso y la tarea es para todos y las suyas propias
-    @Query("SELECT DISTINCT t FROM TareaEntity t " +
-            "WHERE " +
-            "  (t.paraTodosLosAlumnos = true AND EXISTS (" +
-            "    SELECT 1 FROM t.curso.alumnos a WHERE a.id = :alumnoId" +
-            "  )) " +
-            "  OR " +
-            "  (t.paraTodosLosAlumnos = false AND EXISTS (" +
-            "    SELECT 1 FROM t.alumnosAsignados aa WHERE aa.id = :alumnoId" +
-            "  ))")
-    Page<TareaEntity> findTareasForAlumno(@Param("alumnoId") Long alumnoId, Pageable pageable);
-
-    // ✅ NUEVO: Buscar tareas vencidas que no tienen entregas de algunos alumnos
-    @Query("SELECT DISTINCT t FROM TareaEntity t " +
-            "WHERE t.fechaLimite < :fecha " +
-            "AND (t.paraTodosLosAlumnos = true OR t.alumnosAsignados IS NOT EMPTY)")
-    List<TareaEntity> findTareasVencidasSinEntregas(@Param("fecha") LocalDate fecha);
+    // ✅ Lote de tareas vencidas aún no procesadas (marca de agua vencimientoProcesado)
+    @Query("SELECT t.id FROM TareaEntity t " +
+            "WHERE t.vencimientoProcesado = false AND t.fechaLimite < :fecha AND t.id > :ultimoId " +
+            "ORDER BY t.id")
+    List<Long> findIdsVencidasSinProcesar(@Param("fecha") LocalDate fecha, @Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    @Query("SELECT t.id FROM TareaEntity t " +
+            "WHERE t.id IN :ids AND t.vencimientoProcesado = false AND t.fechaLimite < :fecha")
+    List<Long> findIdsVencidasSinProcesarIn(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha);
+
+    // Filas [id, fechaLimite] de las tareas sin procesar que vencen hasta :hasta, por fecha (idx_tareas_vencimiento)
+    @Query("SELECT t.id, t.fechaLimite FROM TareaEntity t " +
+            "WHERE t.vencimientoProcesado = false AND t.fechaLimite <= :hasta " +
+            "ORDER BY t.fechaLimite")
+    List<Object[]> findVencimientosPendientesHasta(@Param("hasta") LocalDate hasta, Pageable pageable);
+
+    // Ampliación de la ventana: solo el tramo (desde, hasta]
+    @Query("SELECT t.id, t.fechaLimite FROM TareaEntity t " +
+            "WHERE t.vencimientoProcesado = false AND t.fechaLimite > :desde AND t.fechaLimite <= :hasta " +
+            "ORDER BY t.fechaLimite")
+    List<Object[]> findVencimientosPendientesEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+                                                   Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TareaEntity t SET t.vencimientoProcesado = true WHERE t.id IN :ids")
+    int marcarVencimientoProcesado(@Param("ids") Collection<Long> ids);
 
     //Verificar que el profesor está en el mismo curso que el alumno al que quiere enviarle la tarea, sino es así devuelve false
     @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM CursoEntity c JOIN c.profesores p JOIN c.alumnos a WHERE p.id = :profesorId AND a.id = :alumnoId AND c.id = :cursoId")
@@ -88,4 +124,16 @@ public interface TareaRepository extends JpaRepository<TareaEntity, Long> {
     @Query("SELECT t FROM TareaEntity t WHERE t.curso.id = :cursoId AND (t.paraTodosLosAlumnos = true OR :alumnoId IN (SELECT a.id FROM t.alumnosAsignados a))")
     List<TareaEntity> findTareasByCursoForAlumno(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
 
+    // ✅ Asignación o retirada de un alumno con una sola fila de tarea_alumnos, sin cargar alumnosAsignados.
+    // Devuelven 0 si el alumno ya estaba asignado (INSERT IGNORE) o no lo estaba (DELETE).
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_alumnos"))
+    @Query(value = "INSERT IGNORE INTO tarea_alumnos (tarea_id, alumno_id) VALUES (:tareaId, :alumnoId)", nativeQuery = true)
+    int insertarAlumnoAsignado(@Param("tareaId") Long tareaId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_alumnos"))
+    @Query(value = "DELETE FROM tarea_alumnos WHERE tarea_id = :tareaId AND alumno_id = :alumnoId", nativeQuery = true)
+    int eliminarAlumnoAsignado(@Param("tareaId") Long tareaId, @Param("alumnoId") Long alumnoId);
+
 }
\ No newline at end of file
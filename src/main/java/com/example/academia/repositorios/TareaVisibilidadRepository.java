@@ -0,0 +1,104 @@
+package com.example.academia.repositorios;
+
+import com.example.academia.entidades.TareaVisibilidadEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+// Mantenimiento de tarea_visibility con sentencias por conjuntos; las escrituras pendientes de las entidades
+// se vuelcan antes (flushAutomatically) para que el INSERT ... SELECT vea las matrículas y asignaciones nuevas
+@Repository
+public interface TareaVisibilidadRepository extends JpaRepository<TareaVisibilidadEntity, TareaVisibilidadEntity.Clave> {
+
+    // Tareas visibles para el alumno, ordenadas por tareaId o fechaLimite: solo lee el índice
+    @Query("SELECT v.tareaId FROM TareaVisibilidadEntity v WHERE v.alumnoId = :alumnoId")
+    Page<Long> findPaginaTareaIds(@Param("alumnoId") Long alumnoId, Pageable pageable);
+
+    // Alta, edición o asignación de una tarea: se rehacen sus filas (curso completo o alumnos asignados)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "DELETE FROM tarea_visibility WHERE tarea_id = :tareaId", nativeQuery = true)
+    int eliminarPorTarea(@Param("tareaId") Long tareaId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "INSERT INTO tarea_visibility (alumno_id, tarea_id, fecha_limite) " +
+            "SELECT ca.alumno_id, t.id, t.fecha_limite FROM tareas t JOIN curso_alumnos ca ON ca.curso_id = t.curso_id " +
+            "WHERE t.id = :tareaId AND t.para_todos_alumnos = true " +
+            "UNION ALL " +
+            "SELECT ta.alumno_id, t.id, t.fecha_limite FROM tareas t JOIN tarea_alumnos ta ON ta.tarea_id = t.id " +
+            "WHERE t.id = :tareaId AND t.para_todos_alumnos = false",
+            nativeQuery = true)
+    int insertarPorTarea(@Param("tareaId") Long tareaId);
+
+    // Asignación de un alumno a una tarea que no es para todo el curso
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "INSERT IGNORE INTO tarea_visibility (alumno_id, tarea_id, fecha_limite) " +
+            "SELECT :alumnoId, t.id, t.fecha_limite FROM tareas t " +
+            "WHERE t.id = :tareaId AND t.para_todos_alumnos = false",
+            nativeQuery = true)
+    int insertarPorAsignacion(@Param("tareaId") Long tareaId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "DELETE FROM tarea_visibility WHERE tarea_id = :tareaId AND alumno_id = :alumnoId", nativeQuery = true)
+    int eliminarPorAsignacion(@Param("tareaId") Long tareaId, @Param("alumnoId") Long alumnoId);
+
+    // Matrícula: el alumno pasa a ver las tareas del curso que son para todos
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "INSERT IGNORE INTO tarea_visibility (alumno_id, tarea_id, fecha_limite) " +
+            "SELECT :alumnoId, t.id, t.fecha_limite FROM tareas t " +
+            "WHERE t.curso_id = :cursoId AND t.para_todos_alumnos = true",
+            nativeQuery = true)
+    int insertarPorMatricula(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    // Matrícula masiva: un INSERT ... SELECT por lote (superconjunto de pares; las filas existentes se ignoran)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "INSERT IGNORE INTO tarea_visibility (alumno_id, tarea_id, fecha_limite) " +
+            "SELECT ca.alumno_id, t.id, t.fecha_limite FROM curso_alumnos ca JOIN tareas t ON t.curso_id = ca.curso_id " +
+            "WHERE ca.curso_id IN (:cursoIds) AND ca.alumno_id IN (:alumnoIds) AND t.para_todos_alumnos = true",
+            nativeQuery = true)
+    int insertarPorMatriculas(@Param("cursoIds") Collection<Long> cursoIds, @Param("alumnoIds") Collection<Long> alumnoIds);
+
+    // Baja del curso: deja de ver las tareas para todos; las que tenga asignadas expresamente se mantienen
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "DELETE v FROM tarea_visibility v JOIN tareas t ON t.id = v.tarea_id " +
+            "WHERE v.alumno_id = :alumnoId AND t.curso_id = :cursoId AND t.para_todos_alumnos = true",
+            nativeQuery = true)
+    int eliminarPorMatricula(@Param("cursoId") Long cursoId, @Param("alumnoId") Long alumnoId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "DELETE FROM tarea_visibility WHERE alumno_id = :alumnoId", nativeQuery = true)
+    int eliminarPorAlumno(@Param("alumnoId") Long alumnoId);
+
+    // Reconstrucción completa (arranque): cubre los cambios hechos con SQL directo, como data.sql
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "DELETE FROM tarea_visibility", nativeQuery = true)
+    int eliminarTodo();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tarea_visibility"))
+    @Query(value = "INSERT INTO tarea_visibility (alumno_id, tarea_id, fecha_limite) " +
+            "SELECT ca.alumno_id, t.id, t.fecha_limite FROM tareas t JOIN curso_alumnos ca ON ca.curso_id = t.curso_id " +
+            "WHERE t.para_todos_alumnos = true " +
+            "UNION ALL " +
+            "SELECT ta.alumno_id, t.id, t.fecha_limite FROM tareas t JOIN tarea_alumnos ta ON ta.tarea_id = t.id " +
+            "WHERE t.para_todos_alumnos = false",
+            nativeQuery = true)
+    int insertarTodo();
+}
@@ -2,6 +2,8 @@ package com.example.academia.repositorios;
 
 import com.example.academia.entidades.UsuarioEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +12,7 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<UsuarioEntity, Long> {
 
+    // Búsquedas de autenticación sin caché: credenciales y rol siempre leídos de la base de datos
     Optional<UsuarioEntity> findByUsername(String username);
 
     Boolean existsByUsername(String username);
@@ -19,4 +22,8 @@ public interface UsuarioRepository extends JpaRepository<UsuarioEntity, Long> {
     Optional<UsuarioEntity> findByProfesorId(Long profesorId);
 
     Optional<UsuarioEntity> findByAlumnoId(Long alumnoId);
+
+    // Solo la versión de token, para la comprobación de revocación sin cargar el usuario
+    @Query("SELECT u.tokenVersion FROM UsuarioEntity u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.academia.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Inyecta en un parámetro JwtUserPrincipal el usuario autenticado de la petición, tal como lo resolvió
+ * JwtAuthenticationFilter a partir del token (sin consultar la base de datos).
+ * El parámetro es null si la petición no lleva un token válido (rutas públicas en modo desarrollo).
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,55 @@
+package com.example.academia.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resuelve los parámetros @CurrentUser JwtUserPrincipal desde el contexto de seguridad.
+ * El principal se obtiene una vez por petición y se guarda como atributo de la request.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATRIBUTO = CurrentUserArgumentResolver.class.getName() + ".USUARIO";
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && JwtUserPrincipal.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object resuelto = webRequest.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        if (resuelto == null) {
+            resuelto = desdeContexto();
+            if (resuelto != null) {
+                webRequest.setAttribute(ATRIBUTO, resuelto, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return resuelto;
+    }
+
+    // JwtUserPrincipal en modo sin estado; CustomUserDetails con tokens antiguos o en modo con estado
+    private static JwtUserPrincipal desdeContexto() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return principal;
+        }
+        if (authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return JwtUserPrincipal.desde(userDetails.getUsuario());
+        }
+        return null;
+    }
+}
@@ -17,17 +17,8 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-
-        System.out.println("Generando autoridades para usuario: " + usuario.getUsername());
-        System.out.println("Rol del usuario: " + usuario.getRol().name());
         // Convertir el rol del usuario a GrantedAuthority
-
-        Collection<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name())
-        );
-
-        System.out.println("Autoridades generadas: " + authorities);
-        return authorities;
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + usuario.getRol().name()));
     }
 
     @Override
@@ -3,6 +3,8 @@ package com.example.academia.security;
 import com.example.academia.entidades.UsuarioEntity;
 import com.example.academia.repositorios.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,18 +16,14 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     private final UsuarioRepository usuarioRepository;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("Buscando usuario con username exacto: '" + username + "'");
-
         Optional<UsuarioEntity> usuario = usuarioRepository.findByUsername(username);
-        System.out.println("Usuario encontrado en BD: " + (usuario.isPresent() ? "SÍ" : "NO"));
-
-        if (usuario.isPresent()) {
-            System.out.println("Hash almacenado en BD: " + usuario.get().getPassword());
-        }
+        log.debug("Usuario '{}' encontrado en BD: {}", username, usuario.isPresent());
 
         return usuario.map(u -> new CustomUserDetails(u))
                 .orElseThrow(() -> new UsernameNotFoundException(
@@ -5,7 +5,11 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,84 +17,73 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-
+import java.util.Collection;
+
+/**
+ * Autentica las peticiones con el JWT del header Authorization.
+ * En modo sin estado (jwt.sin-estado, por defecto) el principal se construye con los claims verificados
+ * y no se consulta la base de datos; los tokens emitidos antes de incluir esos claims, o el modo
+ * con estado, cargan el usuario con CustomUserDetailsService como antes.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocacionCache tokenRevocacionCache;
+
+    @Value("${jwt.sin-estado:true}")
+    private boolean sinEstado;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        System.out.println("=== JWT FILTER DEBUG ===");
-        System.out.println("URL: " + request.getRequestURI());
-
         final String authorizationHeader = request.getHeader("Authorization");
-        System.out.println("Authorization Header: " + authorizationHeader);
-
-        String username = null;
-        String jwt = null;
 
-        // Verificar si el header Authorization contiene el token JWT
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // Remover "Bearer "
-            System.out.println("Token extraído: " + jwt.substring(0, Math.min(20, jwt.length())) + "...");
+        // Verificar si el header Authorization contiene el token JWT y no hay autenticación previa
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7); // Remover "Bearer "
             try {
-                username = jwtUtil.extractUsername(jwt);
-                System.out.println("Username extraído: " + username);
-            } catch (Exception e) {
-                System.err.println("Error al extraer username del token JWT: " + e.getMessage());
-                e.printStackTrace();
-            }
-        } else {
-            System.out.println("No hay header Authorization o no empieza con 'Bearer '");
-        }
-
-        // Si tenemos username y no hay autenticación previa
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            System.out.println("Intentando autenticar usuario: " + username);
-
-            try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                System.out.println("UserDetails cargado para: " + userDetails.getUsername());
-
-                // Validar el token
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                    System.out.println("Token válido para: " + username);
-
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
-
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                    System.out.println("Autenticación establecida exitosamente");
-                    System.out.println("Authorities: " + userDetails.getAuthorities());
+                // Un solo parseo y verificación de firma por petición
+                TokenVerificado token = jwtUtil.verificar(jwt);
+                JwtUserPrincipal principal = sinEstado ? token.toPrincipal() : null;
+                if (principal != null) {
+                    if (tokenRevocacionCache.esVigente(principal)) {
+                        autenticar(request, principal, principal.getAuthorities());
+                    } else {
+                        log.debug("Token revocado para usuario {}", principal.getUsername());
+                    }
                 } else {
-                    System.err.println("Token inválido para usuario: " + username);
+                    autenticarDesdeBaseDeDatos(request, token);
                 }
             } catch (Exception e) {
-                System.err.println("Error durante la autenticación: " + e.getMessage());
-                e.printStackTrace();
+                log.debug("Token JWT rechazado en {}: {}", request.getRequestURI(), e.getMessage());
             }
-        } else if (username == null) {
-            System.out.println("No se pudo extraer username del token");
-        } else {
-            System.out.println("Ya hay autenticación establecida");
         }
 
-        System.out.println("=== FIN JWT FILTER DEBUG ===");
         filterChain.doFilter(request, response);
     }
 
+    // Firma y expiración ya están verificadas; solo falta que el usuario exista
+    private void autenticarDesdeBaseDeDatos(HttpServletRequest request, TokenVerificado token) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.getUsername());
+        autenticar(request, userDetails, userDetails.getAuthorities());
+    }
+
+    private void autenticar(HttpServletRequest request, Object principal,
+                            Collection<? extends GrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
@@ -99,4 +92,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 path.equals("/api/register") ||
                 path.startsWith("/api/public");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.example.academia.security;
+
+import com.example.academia.entidades.UsuarioEntity;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado construido solo con los claims verificados del JWT, sin consultar la base de datos.
+ * Contiene lo mismo que el token: identificadores, rol y nombre para mostrar.
+ */
+@Getter
+@RequiredArgsConstructor
+public class JwtUserPrincipal implements AuthenticatedPrincipal {
+
+    private final Long usuarioId;
+    private final String username;
+    private final String nombre;
+    private final String apellido;
+    private final UsuarioEntity.Rol rol;
+    private final Long profesorId;
+    private final Long alumnoId;
+    private final int tokenVersion;
+
+    public static JwtUserPrincipal desde(UsuarioEntity usuario) {
+        return new JwtUserPrincipal(
+                usuario.getId(),
+                usuario.getUsername(),
+                usuario.getNombre(),
+                usuario.getApellido(),
+                usuario.getRol(),
+                usuario.getProfesor() != null ? usuario.getProfesor().getId() : null,
+                usuario.getAlumno() != null ? usuario.getAlumno().getId() : null,
+                usuario.getTokenVersion() != null ? usuario.getTokenVersion() : 0
+        );
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + rol.name()));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
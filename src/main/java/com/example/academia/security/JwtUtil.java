@@ -1,7 +1,11 @@
 package com.example.academia.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -9,23 +13,61 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
     //Generaremos y Validaremos los Tokens para poder identificar al usuario
-    // Clave secreta para firmar los tokens (debe ser segura en producción)
-    private final String SECRET_KEY = "mySecretKeyForJWTTokenGenerationAcademiaApp2025SecureKey";
 
     // Tiempo de expiración del token (24 horas)
     @Value("${jwt.expiration:86400000}")
     private Long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    // Clave y parser se construyen una vez al arrancar (el parser es inmutable y seguro entre hilos)
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Tokens ya verificados, por el segmento de firma: ya es un HMAC-SHA256 del resto del token, así que
+    // no hace falta volver a calcular otro hash de todo el token para la clave (costaba casi lo mismo que
+    // el parseo que se quiere ahorrar). La entrada guarda el token completo y un acierto exige que coincida
+    // entero: una firma válida pegada a otra cabecera o a otro payload no reutiliza los claims verificados.
+    // Caché concurrente (Caffeine): las lecturas no bloquean, el tamaño está acotado y cada entrada
+    // caduca sola en el "exp" de su token.
+    private final Cache<String, Verificacion> verificados;
+
+    private record Verificacion(String token, TokenVerificado verificado) {
+    }
+
+    public JwtUtil(@Value("${jwt.secret:mySecretKeyForJWTTokenGenerationAcademiaApp2025SecureKey}") String secret,
+                   @Value("${jwt.cache.maximo-entradas:10000}") int maximoCacheados) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verificados = Caffeine.newBuilder()
+                .maximumSize(maximoCacheados)
+                .expireAfter(new Expiry<String, Verificacion>() {
+                    @Override
+                    public long expireAfterCreate(String firma, Verificacion entrada, long ahoraNanos) {
+                        // toNanos satura: un token sin exp no caduca por tiempo
+                        long expiraEn = entrada.verificado().getExpiraEn();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiraEn - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String firma, Verificacion entrada, long ahoraNanos, long restanteNanos) {
+                        return restanteNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String firma, Verificacion entrada, long ahoraNanos, long restanteNanos) {
+                        return restanteNanos;
+                    }
+                })
+                .build();
     }
 
     // Generar token para un usuario
@@ -41,6 +83,23 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    // Token con todos los datos del usuario autenticado, para construir el principal sin consultar la base de datos
+    public String generateToken(JwtUserPrincipal usuario) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("rol", usuario.getRol().name());
+        claims.put("uid", usuario.getUsuarioId());
+        claims.put("nombre", usuario.getNombre());
+        claims.put("apellido", usuario.getApellido());
+        claims.put("ver", usuario.getTokenVersion());
+        if (usuario.getProfesorId() != null) {
+            claims.put("profesorId", usuario.getProfesorId());
+        }
+        if (usuario.getAlumnoId() != null) {
+            claims.put("alumnoId", usuario.getAlumnoId());
+        }
+        return createToken(claims, usuario.getUsername());
+    }
+
     // Crear el token JWT
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
@@ -48,70 +107,76 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Verifica firma y expiración una sola vez por token; las llamadas siguientes salen del caché
+    public TokenVerificado verificar(String token) {
+        String firma = token.substring(token.lastIndexOf('.') + 1);
+        Verificacion cacheada = verificados.getIfPresent(firma);
+        // Caffeine ya no devuelve entradas caducadas; la comprobación cubre el margen de su reloj
+        if (cacheada != null && cacheada.token().equals(token)
+                && !cacheada.verificado().estaCaducado(System.currentTimeMillis())) {
+            return cacheada.verificado();
+        }
+
+        // Fuera de cualquier bloqueo: dos peticiones con el mismo token nuevo verifican las dos, sin esperarse
+        TokenVerificado verificado = new TokenVerificado(extractAllClaims(token));
+        verificados.put(firma, new Verificacion(token, verificado));
+        return verificado;
+    }
+
     // Extraer username del token
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verificar(token).getUsername();
     }
 
     // Extraer fecha de expiración
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verificar(token).getExpiracion();
     }
 
     // Extraer rol del token
     public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("rol", String.class));
+        return verificar(token).getRol();
     }
 
     // Extraer profesor ID del token
     public Long extractProfesorId(String token) {
-        return extractClaim(token, claims -> {
-            Object profesorId = claims.get("profesorId");
-            return profesorId != null ? Long.valueOf(profesorId.toString()) : null;
-        });
+        return verificar(token).getProfesorId();
     }
 
     // Extraer alumno ID del token
     public Long extractAlumnoId(String token) {
-        return extractClaim(token, claims -> {
-            Object alumnoId = claims.get("alumnoId");
-            return alumnoId != null ? Long.valueOf(alumnoId.toString()) : null;
-        });
+        return verificar(token).getAlumnoId();
+    }
+
+    // Principal a partir de los claims verificados (firma y expiración).
+    // null si el token es anterior a los claims de usuario y hay que cargarlo de la base de datos
+    public JwtUserPrincipal extractPrincipal(String token) {
+        return verificar(token).toPrincipal();
     }
 
     // Extraer claim específico
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verificar(token).getClaims());
     }
 
     // Extraer todos los claims del token
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             throw new RuntimeException("Token JWT inválido", e);
         }
     }
 
-    // Verificar si el token ha expirado
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     // Validar token
     public Boolean validateToken(String token, String username) {
         try {
-            final String extractedUsername = extractUsername(token);
-            return (extractedUsername.equals(username) && !isTokenExpired(token));
+            TokenVerificado verificado = verificar(token);
+            return verificado.getUsername().equals(username) && !verificado.estaCaducado(System.currentTimeMillis());
         } catch (Exception e) {
             return false;
         }
@@ -120,8 +185,7 @@ public class JwtUtil {
     // Validar token sin comparar username
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token); // Esto lanzará excepción si el token es inválido
-            return !isTokenExpired(token);
+            return !verificar(token).estaCaducado(System.currentTimeMillis());
         } catch (Exception e) {
             return false;
         }
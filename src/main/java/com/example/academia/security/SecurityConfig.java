@@ -1,6 +1,8 @@
 package com.example.academia.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -55,6 +57,10 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(authz -> authz
+                                // ✅ Actuator: health público (sondas), métricas y el resto solo para Admin, también en desarrollo
+                                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("Admin")
+
                                 // ===== MODO DESARROLLO: TODAS LAS RUTAS PÚBLICAS =====
                                 .requestMatchers("/api/**").permitAll()
 
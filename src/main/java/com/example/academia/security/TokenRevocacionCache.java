@@ -0,0 +1,59 @@
+package com.example.academia.security;
+
+import com.example.academia.repositorios.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Comprobación opcional de revocación de tokens sin estado.
+ * Un token es vigente si su claim de versión coincide con usuarios.token_version; la versión leída
+ * se guarda en memoria durante un TTL corto, así que como mucho hay una consulta por usuario y TTL
+ * en lugar de una por petición. Un token revocado deja de aceptarse, como máximo, al caducar su entrada.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocacionCache {
+
+    private record Entrada(Integer version, long caducaEn) {
+    }
+
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${jwt.revocacion.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${jwt.revocacion.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${jwt.revocacion.maximo-entradas:10000}")
+    private int maximoEntradas;
+
+    private final Map<Long, Entrada> versiones = new ConcurrentHashMap<>();
+
+    public boolean esVigente(JwtUserPrincipal principal) {
+        if (!habilitada) {
+            return true;
+        }
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = versiones.get(principal.getUsuarioId());
+        if (entrada == null || entrada.caducaEn() <= ahora) {
+            // Usuario borrado: versión nula, el token deja de ser vigente
+            Integer version = usuarioRepository.findTokenVersionById(principal.getUsuarioId()).orElse(null);
+            entrada = new Entrada(version, ahora + ttlMs);
+            if (versiones.size() >= maximoEntradas) {
+                versiones.values().removeIf(e -> e.caducaEn() <= ahora);
+            }
+            versiones.put(principal.getUsuarioId(), entrada);
+        }
+        return entrada.version() != null && entrada.version() == principal.getTokenVersion();
+    }
+
+    // Las réplicas que no reciben el cambio lo verán al caducar su entrada
+    public void invalidar(Long usuarioId) {
+        versiones.remove(usuarioId);
+    }
+}
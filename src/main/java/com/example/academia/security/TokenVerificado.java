@@ -0,0 +1,77 @@
+package com.example.academia.security;
+
+import com.example.academia.entidades.UsuarioEntity;
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Claims de un JWT cuya firma ya se ha verificado. Se obtiene una sola vez por token con
+ * JwtUtil.verificar y todas las lecturas de claims salen de aquí, sin volver a parsear ni calcular el HMAC.
+ */
+public final class TokenVerificado {
+
+    private final Claims claims;
+    private final long expiraEn;
+
+    TokenVerificado(Claims claims) {
+        this.claims = claims;
+        this.expiraEn = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+    }
+
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    public Date getExpiracion() {
+        return claims.getExpiration();
+    }
+
+    public String getRol() {
+        return claims.get("rol", String.class);
+    }
+
+    public Long getProfesorId() {
+        return claimLong("profesorId");
+    }
+
+    public Long getAlumnoId() {
+        return claimLong("alumnoId");
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public boolean estaCaducado(long ahora) {
+        return expiraEn <= ahora;
+    }
+
+    // Instante de expiración (ms); Long.MAX_VALUE si el token no tiene exp
+    long getExpiraEn() {
+        return expiraEn;
+    }
+
+    // null si el token es anterior a los claims de usuario y hay que cargarlo de la base de datos
+    public JwtUserPrincipal toPrincipal() {
+        if (claims.get("uid") == null) {
+            return null;
+        }
+        Object version = claims.get("ver");
+        return new JwtUserPrincipal(
+                claimLong("uid"),
+                getUsername(),
+                claims.get("nombre", String.class),
+                claims.get("apellido", String.class),
+                UsuarioEntity.Rol.valueOf(getRol()),
+                getProfesorId(),
+                getAlumnoId(),
+                version != null ? Integer.parseInt(version.toString()) : 0
+        );
+    }
+
+    private Long claimLong(String nombre) {
+        Object valor = claims.get(nombre);
+        return valor != null ? Long.valueOf(valor.toString()) : null;
+    }
+}
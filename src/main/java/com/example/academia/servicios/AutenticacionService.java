@@ -0,0 +1,12 @@
+package com.example.academia.servicios;
+
+import com.example.academia.DTOs.LoginResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AutenticacionService {
+
+    // Verifica las credenciales (BCrypt) en un ejecutor propio y acotado, fuera de los hilos del servlet.
+    // Lanza ServicioSaturadoException si la cola de logins está llena.
+    CompletableFuture<LoginResponse> login(String username, String password);
+}
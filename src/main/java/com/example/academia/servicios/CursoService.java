@@ -4,6 +4,8 @@ import com.example.academia.DTOs.Created.CursoCreateDTO;
 import com.example.academia.DTOs.CursoConDetallesDTO;
 import com.example.academia.DTOs.Response.AlumnoResponseDTO;
 import com.example.academia.DTOs.Response.CursoResponseDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PosicionListaEsperaDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
 import org.springframework.data.domain.Page;
@@ -20,7 +22,8 @@ public interface CursoService {
 
     Optional<CursoConDetallesDTO> findByIdWithDetails(Long id);
 
-    List<CursoSimpleDTO> findAllLista();
+    // Listado completo para desplegables, servido desde memoria mientras no haya escrituras
+    ListadoVersionadoDTO<CursoSimpleDTO> findAllLista();
 
     Page<CursoResponseDTO> findByNombre(String nombre, int page, int size, String sort, String direction);
 
@@ -44,12 +47,20 @@ public interface CursoService {
 
     // === GESTIÓN DE alumnos ===
 
+    // Con el curso completo el alumno pasa a la lista de espera y se lanza CursoCompletoException con su posición
     CursoResponseDTO enrollAlumnoInCurso(Long cursoId, Long alumnoId);
 
     CursoResponseDTO unenrollAlumnoFromCurso(Long cursoId, Long alumnoId);
 
     Set<AlumnoResponseDTO> getAlumnosByCurso(Long cursoId);
 
+    // === LISTA DE ESPERA ===
+
+    // Servida desde el índice en memoria (ListaEsperaIndice)
+    PosicionListaEsperaDTO getPosicionListaEspera(Long cursoId, Long alumnoId);
+
+    void abandonarListaEspera(Long cursoId, Long alumnoId);
+
     Page<CursoResponseDTO> findCursosByAlumno(Long alumnoId, int page, int size, String sort, String direction);
 
     // Buscar cursos con plazas disponibles
@@ -0,0 +1,34 @@
+package com.example.academia.servicios;
+
+import com.example.academia.DTOs.DocumentoAlmacenado;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Almacén de documentos direccionado por contenido.
+ * Los bytes se guardan fuera de la base de datos bajo su hash SHA-256 y las entidades
+ * solo conservan la clave, el tamaño y el tipo MIME.
+ */
+public interface DocumentStore {
+
+    // Guarda el contenido y devuelve su clave (SHA-256 en hexadecimal) y su tamaño
+    DocumentoAlmacenado guardar(InputStream contenido) throws IOException;
+
+    // Abre el contenido asociado a una clave
+    InputStream abrir(String clave) throws IOException;
+
+    // Abre un canal de solo lectura para transferencias sin copia (FileChannel.transferTo)
+    FileChannel abrirCanal(String clave) throws IOException;
+
+    // Comprueba si existe contenido para una clave
+    boolean existe(String clave);
+
+    // Lee el contenido completo en memoria (solo para documentos pequeños)
+    default byte[] leer(String clave) throws IOException {
+        try (InputStream in = abrir(clave)) {
+            return in.readAllBytes();
+        }
+    }
+}
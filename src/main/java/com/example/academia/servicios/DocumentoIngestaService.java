@@ -0,0 +1,13 @@
+package com.example.academia.servicios;
+
+import com.example.academia.DTOs.DocumentoAlmacenado;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface DocumentoIngestaService {
+
+    // Envía el fichero subido al DocumentStore en streaming, calculando hash, tamaño y tipo MIME en una sola pasada.
+    // Se llama antes de abrir la transacción que guarda la clave en la entidad.
+    DocumentoAlmacenado ingerir(MultipartFile archivo) throws IOException;
+}
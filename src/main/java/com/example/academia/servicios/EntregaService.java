@@ -2,8 +2,10 @@ package com.example.academia.servicios;
 
 import com.example.academia.DTOs.CalificacionDTO;
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.GeneracionVencidasDTO;
 import com.example.academia.DTOs.Created.EntregaCreateDTO;
 import com.example.academia.DTOs.Response.EntregaResponseDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.SimpleDTO.EntregaSimpleDTO;
 import com.example.academia.entidades.AlumnoEntity;
 import com.example.academia.entidades.EntregaEntity;
@@ -12,6 +14,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +26,10 @@ public interface EntregaService {
     Optional<EntregaResponseDTO> findById(Long id);
 
     Page <EntregaResponseDTO> findEntregasByProfesor (Long profesorId, int page, int size, String sort, String direction);
+
+    // Entregas de un profesor por cursor (más recientes primero), sin COUNT ni OFFSET
+    PaginaCursorDTO<EntregaResponseDTO> findEntregasByProfesorCursor(Long profesorId, String cursor, int size);
+
     // Guardar una entrega
     EntregaResponseDTO saveEntrega(EntregaCreateDTO entrega);
 
@@ -84,9 +91,18 @@ public interface EntregaService {
 
     EntregaResponseDTO updateEntrega(Long entregaId, EntregaCreateDTO entregaDTO, Long alumnoId);
 
-    void generarEntregasAutomaticasPorVencimiento();
+    // Crea en bloque las entregas FUERA_PLAZO de las tareas vencidas aún no procesadas.
+    // Vacío si otro nodo está ejecutando la generación en ese momento.
+    Optional<GeneracionVencidasDTO> generarEntregasAutomaticasPorVencimiento();
+
+    // Igual, pero solo para las tareas indicadas que sigan vencidas y sin procesar
+    Optional<GeneracionVencidasDTO> generarEntregasVencidas(Collection<Long> tareaIds);
 
     void generarEntregasVencidaParaTarea(TareaEntity tarea);
+
+    // Entregas FUERA_PLAZO de las tareas ya procesadas para matrículas nuevas (pares curso x alumno que existan
+    // en curso_alumnos). Se llama dentro de la transacción que matricula.
+    int generarEntregasVencidasPorMatricula(Collection<Long> cursoIds, Collection<Long> alumnoIds);
     // -- Métodos de validación -- //
 
     Page<EntregaResponseDTO> findByProfesor(Long profesorId, int page, int size, String sort, String direction);
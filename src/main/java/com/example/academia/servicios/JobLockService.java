@@ -0,0 +1,22 @@
+package com.example.academia.servicios;
+
+import com.example.academia.DTOs.JobLock;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bloqueo de trabajos programados entre réplicas, sobre la tabla job_locks.
+ * Solo un nodo ejecuta un trabajo a la vez; si el nodo cae, el bloqueo caduca al terminar su arrendamiento.
+ */
+public interface JobLockService {
+
+    // Vacío si otro nodo tiene el bloqueo
+    Optional<JobLock> adquirir(String nombre, Duration arrendamiento);
+
+    // Comprobación de fencing antes de cada lote: renueva el arrendamiento y devuelve false si el bloqueo
+    // ya pertenece a otro nodo. Dentro de una transacción, la fila queda bloqueada hasta el commit del lote.
+    boolean renovar(JobLock bloqueo);
+
+    void liberar(JobLock bloqueo);
+}
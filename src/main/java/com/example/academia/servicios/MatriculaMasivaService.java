@@ -0,0 +1,17 @@
+package com.example.academia.servicios;
+
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface MatriculaMasivaService {
+
+    // CSV con una matrícula por línea: "cursoId,alumnoId" (también con ";"), cabecera opcional.
+    // Se lee en streaming; cada lote se valida y se inserta en su propia transacción y los errores
+    // de una fila se informan sin detener la importación.
+    MatriculaMasivaResultadoDTO matricularCsv(InputStream csv) throws IOException;
+
+    // Array JSON de objetos {"cursoId": 1, "alumnoId": 2}, leído elemento a elemento
+    MatriculaMasivaResultadoDTO matricularJson(InputStream json) throws IOException;
+}
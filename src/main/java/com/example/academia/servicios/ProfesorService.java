@@ -2,6 +2,7 @@ package com.example.academia.servicios;
 
 import com.example.academia.DTOs.Created.ProfesorCreateDTO;
 import com.example.academia.DTOs.Created.UsuarioCreateDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
 import com.example.academia.entidades.CursoEntity;
@@ -17,7 +18,8 @@ public interface ProfesorService {
 
     Optional<ProfesorResponseDTO> findById(Long id);
 
-    List<ProfesorResponseDTO> findAllLista();
+    // Listado completo para desplegables, servido desde memoria mientras no haya escrituras
+    ListadoVersionadoDTO<ProfesorResponseDTO> findAllLista();
 
     Page<ProfesorResponseDTO> findByNombreOrApellido(String nombre, String apellido, int page, int size, String sort, String direction);
 
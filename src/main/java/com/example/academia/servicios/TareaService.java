@@ -1,6 +1,8 @@
 package com.example.academia.servicios;
 
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.Response.TareaResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.TareaSimpleDTO;
 import com.example.academia.DTOs.TareaDTO;
@@ -18,7 +20,8 @@ public interface TareaService {
 
     Optional<TareaResponseDTO> findById(Long id);
 
-    List<TareaSimpleDTO> findAllLista();
+    // Listado completo para desplegables, servido desde memoria mientras no haya escrituras
+    ListadoVersionadoDTO<TareaSimpleDTO> findAllLista();
 
     Page<TareaResponseDTO> findByNombre(String nombre, int page, int size, String sort, String direction);
 
@@ -37,6 +40,9 @@ public interface TareaService {
     // Buscar tareas de un profesor
     Page<TareaResponseDTO> findTareasProfesor(Long profesorId, int page, int size, String sort, String direction);
 
+    // Buscar tareas de un profesor por cursor (ordenadas por fecha límite), sin COUNT ni OFFSET
+    PaginaCursorDTO<TareaResponseDTO> findTareasProfesorCursor(Long profesorId, String cursor, int size);
+
     // Buscar tareas de un curso
     Page<TareaResponseDTO> findTareasCurso(Long cursoId, int page, int size, String sort, String direction);
 
@@ -11,10 +11,14 @@ import com.example.academia.mappers.AlumnoMapper;
 import com.example.academia.mappers.CursoMapper;
 import com.example.academia.repositorios.AlumnoRepository;
 import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.ListaEsperaRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
 import com.example.academia.repositorios.UsuarioRepository;
 import com.example.academia.servicios.AlumnoService;
 import com.example.academia.validators.UsuarioValidator;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +32,8 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 public class AlumnoServiceImpl implements AlumnoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlumnoServiceImpl.class);
     private final AlumnoRepository aRepository;
     private final UsuarioRepository usuarioRepository;
     private final UsuarioValidator usuarioValidator;
@@ -35,6 +41,9 @@ public class AlumnoServiceImpl implements AlumnoService {
     private final AlumnoMapper alumnoMapper;
     private final CursoMapper cursoMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TareaVisibilidadRepository tareaVisibilidadRepository;
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final ListaEsperaIndice listaEsperaIndice;
 
     private Pageable crearPageable(int page, int size, String sort, String direction) {
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
@@ -155,17 +164,16 @@ public class AlumnoServiceImpl implements AlumnoService {
                 // Guardar usuario
                 UsuarioEntity usuarioGuardado = usuarioRepository.save(usuario);
 
-                System.out.println("✅ Usuario creado exitosamente: " + usuarioGuardado.getUsername());
+                log.info("✅ Usuario creado exitosamente: {}", usuarioGuardado.getUsername());
             }
 
             return alumnoMapper.toAlumnoResponseDTO(alumnoGuardado);
 
         } catch (ValidationException e) {
-            System.err.println("❌ Error de validación: " + e.getMessage());
+            log.warn("❌ Error de validación: {}", e.getMessage());
             throw e;
         } catch (Exception e) {
-            System.err.println("❌ Error inesperado al crear alumno con usuario: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error inesperado al crear alumno con usuario: {}", e.getMessage(), e);
             throw new ValidationException("Error al crear alumno: " + e.getMessage());
         }
     }
@@ -191,7 +199,10 @@ public class AlumnoServiceImpl implements AlumnoService {
             usuarioRepository.delete(usuario.get());
         }
 
-        // Eliminar alumno
+        // Eliminar alumno (y las tareas que veía y sus listas de espera)
+        tareaVisibilidadRepository.eliminarPorAlumno(id);
+        listaEsperaRepository.findCursoIdsByAlumnoId(id).forEach(listaEsperaIndice::invalidar);
+        listaEsperaRepository.eliminarPorAlumno(id);
         aRepository.deleteById(id);
     }
 }
\ No newline at end of file
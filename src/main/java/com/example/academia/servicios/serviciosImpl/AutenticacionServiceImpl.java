@@ -0,0 +1,147 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.LoginResponse;
+import com.example.academia.Exceptions.ServicioSaturadoException;
+import com.example.academia.entidades.UsuarioEntity;
+import com.example.academia.security.CustomUserDetails;
+import com.example.academia.security.JwtUserPrincipal;
+import com.example.academia.security.JwtUtil;
+import com.example.academia.servicios.AutenticacionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Login con la verificación BCrypt aislada en un pool propio.
+ * BCrypt es caro a propósito; si se ejecuta en los hilos de Tomcat, una avalancha de logins (un grupo
+ * entero entrando a la vez a un examen) los ocupa todos y el resto de la API deja de responder.
+ * Aquí el pool tiene un tamaño fijo y una cola acotada: cuando se llena, el login se rechaza al momento
+ * con 503 y Retry-After, y los logins que esperaron en cola más de lo razonable se descartan sin calcular el hash.
+ */
+@Service
+public class AutenticacionServiceImpl implements AutenticacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutenticacionServiceImpl.class);
+
+    private final AuthenticationManager authenticationManager;
+    private final JwtUtil jwtUtil;
+    private final ThreadPoolExecutor ejecutor;
+    private final long esperaMaximaMs;
+    private final long retryAfterSegundos;
+    private final Timer tiempoVerificacion;
+    private final Timer tiempoEnCola;
+    private final Counter rechazados;
+
+    public AutenticacionServiceImpl(AuthenticationManager authenticationManager,
+                                    JwtUtil jwtUtil,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${login.hilos:0}") int hilos,
+                                    @Value("${login.cola:200}") int cola,
+                                    @Value("${login.espera-maxima-ms:10000}") long esperaMaximaMs,
+                                    @Value("${login.retry-after-segundos:2}") long retryAfterSegundos) {
+        this.authenticationManager = authenticationManager;
+        this.jwtUtil = jwtUtil;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.retryAfterSegundos = retryAfterSegundos;
+
+        // Por defecto la mitad de los núcleos: BCrypt es CPU pura y no debe quitar CPU al resto de la API
+        int tamanoPool = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(tamanoPool, tamanoPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "login-bcrypt-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.tiempoVerificacion = Timer.builder("login.bcrypt.verificacion")
+                .description("Tiempo de verificación de credenciales (BCrypt)")
+                .register(meterRegistry);
+        this.tiempoEnCola = Timer.builder("login.bcrypt.espera")
+                .description("Tiempo en cola antes de verificar las credenciales")
+                .register(meterRegistry);
+        this.rechazados = Counter.builder("login.bcrypt.rechazados")
+                .description("Logins rechazados por cola llena o espera excesiva")
+                .register(meterRegistry);
+        Gauge.builder("login.bcrypt.cola", ejecutor, e -> e.getQueue().size())
+                .description("Logins esperando verificación")
+                .register(meterRegistry);
+        Gauge.builder("login.bcrypt.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Verificaciones BCrypt en curso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<LoginResponse> login(String username, String password) {
+        long encolado = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> verificar(username, password, encolado), ejecutor);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw saturado();
+        }
+    }
+
+    private LoginResponse verificar(String username, String password, long encolado) {
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - encolado);
+        tiempoEnCola.record(esperaMs, TimeUnit.MILLISECONDS);
+        // El cliente probablemente ya abandonó: no se gasta CPU en su hash
+        if (esperaMs > esperaMaximaMs) {
+            rechazados.increment();
+            throw saturado();
+        }
+
+        // Autenticar con Spring Security
+        Authentication authentication = tiempoVerificacion.record(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password)));
+
+        // Obtener detalles del usuario autenticado
+        CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+        UsuarioEntity usuario = userDetails.getUsuario();
+
+        // Generar token JWT con los datos del usuario (el filtro no vuelve a consultarlo)
+        String token = jwtUtil.generateToken(JwtUserPrincipal.desde(usuario));
+
+        log.debug("✅ Login exitoso para usuario ID: {}", usuario.getId());
+
+        // ✅ USAR EL NUEVO MÉTODO CON ID
+        return LoginResponse.success(
+                usuario.getId(), // ✅ INCLUIR ID DEL USUARIO
+                usuario.getUsername(),
+                usuario.getNombre(),
+                usuario.getApellido(),
+                usuario.getRol(),
+                userDetails.getProfesorId(),
+                userDetails.getAlumnoId(),
+                token
+        );
+    }
+
+    private ServicioSaturadoException saturado() {
+        return new ServicioSaturadoException(
+                "Demasiados inicios de sesión simultáneos, inténtelo de nuevo en unos segundos", retryAfterSegundos);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+}
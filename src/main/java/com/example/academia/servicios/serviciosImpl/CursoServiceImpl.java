@@ -4,43 +4,75 @@ import com.example.academia.DTOs.Created.CursoCreateDTO;
 import com.example.academia.DTOs.CursoConDetallesDTO;
 import com.example.academia.DTOs.Response.AlumnoResponseDTO;
 import com.example.academia.DTOs.Response.CursoResponseDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PosicionListaEsperaDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
+import com.example.academia.Exceptions.CursoCompletoException;
 import com.example.academia.Exceptions.ValidationException;
-import com.example.academia.entidades.AlumnoEntity;
 import com.example.academia.entidades.CursoEntity;
-import com.example.academia.entidades.ProfesorEntity;
+import com.example.academia.entidades.ListaEsperaEntity;
 import com.example.academia.mappers.AlumnoMapper;
 import com.example.academia.mappers.CursoMapper;
 import com.example.academia.mappers.ProfesorMapper;
+import com.example.academia.mappers.TareaMapper;
 import com.example.academia.repositorios.AlumnoRepository;
 import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.ListaEsperaRepository;
+import com.example.academia.repositorios.PlazasCursoRepository;
 import com.example.academia.repositorios.ProfesorRepository;
+import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
 import com.example.academia.servicios.CursoService;
+import com.example.academia.servicios.EntregaService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CursoServiceImpl implements CursoService {
 
+    private static final Logger log = LoggerFactory.getLogger(CursoServiceImpl.class);
+
     private final CursoRepository cursoRepository;
     private final ProfesorRepository profesorRepository;
     private final AlumnoRepository alumnoRepository;
     private final CursoMapper cursoMapper;
     private final ProfesorMapper profesorMapper;
     private final AlumnoMapper alumnoMapper;
+    private final ListadoCache listadoCache;
+    private final TareaVisibilidadRepository tareaVisibilidadRepository;
+    private final CursosCache cursosCache;
+    private final PlazasCursoRepository plazasCursoRepository;
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final ListaEsperaIndice listaEsperaIndice;
+    private final TareaRepository tareaRepository;
+    private final TareaMapper tareaMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntregaService entregaService;
+    private final Map<Long, CompletableFuture<Optional<CursoConDetallesDTO>>> detallesEnCurso = new ConcurrentHashMap<>();
+
+    @Value("${cursos.capacidad-por-defecto:30}")
+    private int capacidadPorDefecto;
 
     private Pageable createPageable(int page, int size, String sort, String direction) {
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
@@ -67,16 +99,59 @@ public class CursoServiceImpl implements CursoService {
         return cursoRepository.findById(id).map(cursoMapper::toCursoResponseDTO);
     }
 
+    /**
+     * Detalle del curso con single-flight: si ya hay una carga del mismo curso en marcha, las peticiones
+     * concurrentes esperan su resultado en lugar de lanzar las mismas consultas otra vez.
+     */
     @Override
     public Optional<CursoConDetallesDTO> findByIdWithDetails(Long id) {
-        return cursoRepository.findByIdWithDetails(id).map(cursoMapper::toCursoConDetallesDTO);
+        CompletableFuture<Optional<CursoConDetallesDTO>> carga = new CompletableFuture<>();
+        CompletableFuture<Optional<CursoConDetallesDTO>> enCurso = detallesEnCurso.putIfAbsent(id, carga);
+        if (enCurso != null) {
+            try {
+                return enCurso.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException causa ? causa : e;
+            }
+        }
+        try {
+            Optional<CursoConDetallesDTO> detalles = transactionTemplate.execute(status -> cargarDetalles(id));
+            carga.complete(detalles);
+            return detalles;
+        } catch (RuntimeException e) {
+            carga.completeExceptionally(e);
+            throw e;
+        } finally {
+            detallesEnCurso.remove(id, carga);
+        }
+    }
+
+    // Curso (caché de segundo nivel) + una consulta por colección + una de totales: nunca profesores × alumnos filas
+    private Optional<CursoConDetallesDTO> cargarDetalles(Long id) {
+        return cursoRepository.findById(id).map(curso -> {
+            CursoConDetallesDTO detalles = cursoMapper.toCursoConDetallesDTO(curso);
+            detalles.setProfesores(cursoRepository.findProfesoresDeCurso(id).stream()
+                    .map(profesorMapper::toProfesorResponseDTO)
+                    .collect(Collectors.toList()));
+            detalles.setAlumnos(cursoRepository.findAlumnosDeCurso(id).stream()
+                    .map(alumnoMapper::toAlumnoResponseDTO)
+                    .collect(Collectors.toList()));
+            // t.curso es el curso ya cargado en esta transacción
+            detalles.setTareas(tareaMapper.toTareaSimpleDTOList(tareaRepository.findByCursoIdConProfesor(id)));
+            cursoRepository.contarDetalles(id).stream().findFirst().ifPresent(totales -> {
+                detalles.setTotalProfesores(((Number) totales[0]).intValue());
+                detalles.setTotalAlumnos(((Number) totales[1]).intValue());
+                detalles.setTotalTareas(((Number) totales[2]).intValue());
+            });
+            return detalles;
+        });
     }
 
     @Override
-    public List<CursoSimpleDTO> findAllLista() {
-        return cursoRepository.findAll().stream()
+    public ListadoVersionadoDTO<CursoSimpleDTO> findAllLista() {
+        return listadoCache.obtener(ListadoCache.CURSOS, () -> cursoRepository.findAll().stream()
                 .map(cursoMapper::toCursoSimpleDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -104,11 +179,18 @@ public class CursoServiceImpl implements CursoService {
     @Override
     public CursoResponseDTO saveCurso(CursoCreateDTO curso) {
         CursoEntity cursoEntity = cursoMapper.toCursoEntity(curso);
+        if (cursoEntity.getCapacidad() == null) {
+            cursoEntity.setCapacidad(capacidadPorDefecto);
+        } else if (cursoEntity.getCapacidad() < 0) {
+            throw new ValidationException("La capacidad del curso no puede ser negativa");
+        }
         CursoEntity savedCurso = cursoRepository.save(cursoEntity);
+        listadoCache.invalidar(ListadoCache.CURSOS);
         return cursoMapper.toCursoResponseDTO(savedCurso);
     }
 
     @Override
+    @Transactional
     public CursoResponseDTO updateCurso(Long id, CursoCreateDTO curso) {
         Optional<CursoEntity> cursoExistente = cursoRepository.findById(id);
         if (cursoExistente.isEmpty()) {
@@ -122,13 +204,31 @@ public class CursoServiceImpl implements CursoService {
         cursoEntity.setAlumnos(cursoExistente.get().getAlumnos());
         cursoEntity.setTareas(cursoExistente.get().getTareas());
 
+        // La capacidad no va en el UPDATE de la entidad: se cambia solo si no deja fuera a alumnos ya inscritos
+        Integer capacidad = curso.getCapacidad();
+        if (capacidad != null && !capacidad.equals(cursoExistente.get().getCapacidad())) {
+            if (capacidad < 0 || !plazasCursoRepository.cambiarCapacidad(id, capacidad)) {
+                throw new ValidationException("La capacidad no puede ser menor que los alumnos inscritos");
+            }
+            cursosCache.desalojarCurso(id);
+            // Las plazas nuevas son para la lista de espera (la fila del curso sigue bloqueada por el UPDATE)
+            promoverListaEspera(id);
+        }
+        refrescarPlazas(cursoEntity);
+
         CursoEntity updatedCurso = cursoRepository.save(cursoEntity);
+        // Las tareas del listado llevan el nombre del curso
+        listadoCache.invalidar(ListadoCache.CURSOS, ListadoCache.TAREAS);
         return cursoMapper.toCursoResponseDTO(updatedCurso);
     }
 
     @Override
+    @Transactional
     public void deleteCurso(Long id) {
+        listaEsperaRepository.eliminarPorCurso(id);
+        listaEsperaIndice.invalidar(id);
         cursoRepository.deleteById(id);
+        listadoCache.invalidar(ListadoCache.CURSOS, ListadoCache.TAREAS);
     }
 
     @Override
@@ -136,18 +236,17 @@ public class CursoServiceImpl implements CursoService {
     public CursoResponseDTO assignProfesorToCurso(Long cursoId, Long profesorId) {
         CursoEntity curso = cursoRepository.findById(cursoId)
                 .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
-        ProfesorEntity profesor = profesorRepository.findById(profesorId)
-                .orElseThrow(() -> new ValidationException("Profesor no encontrado con ID: " + profesorId));
+        if (!profesorRepository.existsById(profesorId)) {
+            throw new ValidationException("Profesor no encontrado con ID: " + profesorId);
+        }
 
-        if (curso.getProfesores().contains(profesor)) {
+        // Una fila en curso_profesores: no se cargan los profesores del curso para comprobar ni para guardar
+        if (cursoRepository.insertarProfesor(cursoId, profesorId) == 0) {
             throw new ValidationException("El profesor ya está asignado a este curso");
         }
+        cursosCache.desalojarProfesoresCurso(cursoId);
 
-        curso.getProfesores().add(profesor);
-        profesor.getCursos().add(curso);
-        CursoEntity savedCurso = cursoRepository.save(curso);
-
-        return cursoMapper.toCursoResponseDTO(savedCurso);
+        return cursoMapper.toCursoResponseDTO(curso);
     }
 
     @Override
@@ -155,18 +254,16 @@ public class CursoServiceImpl implements CursoService {
     public CursoResponseDTO removeProfesorFromCurso(Long cursoId, Long profesorId) {
         CursoEntity curso = cursoRepository.findById(cursoId)
                 .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
-        ProfesorEntity profesor = profesorRepository.findById(profesorId)
-                .orElseThrow(() -> new ValidationException("Profesor no encontrado con ID: " + profesorId));
+        if (!profesorRepository.existsById(profesorId)) {
+            throw new ValidationException("Profesor no encontrado con ID: " + profesorId);
+        }
 
-        if (!curso.getProfesores().contains(profesor)) {
+        if (cursoRepository.eliminarProfesor(cursoId, profesorId) == 0) {
             throw new ValidationException("El profesor no está asignado a este curso");
         }
+        cursosCache.desalojarProfesoresCurso(cursoId);
 
-        curso.getProfesores().remove(profesor);
-        profesor.getCursos().remove(curso);
-        CursoEntity savedCurso = cursoRepository.save(curso);
-
-        return cursoMapper.toCursoResponseDTO(savedCurso);
+        return cursoMapper.toCursoResponseDTO(curso);
     }
 
     @Override
@@ -187,22 +284,37 @@ public class CursoServiceImpl implements CursoService {
     }
 
     @Override
-    @Transactional
+    @Transactional(dontRollbackOn = CursoCompletoException.class)
     public CursoResponseDTO enrollAlumnoInCurso(Long cursoId, Long alumnoId) {
         CursoEntity curso = cursoRepository.findById(cursoId)
                 .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
-        AlumnoEntity alumno = alumnoRepository.findById(alumnoId)
-                .orElseThrow(() -> new ValidationException("Alumno no encontrado con ID: " + alumnoId));
-
-        if (curso.getAlumnos().contains(alumno)) {
-            throw new ValidationException("El alumno ya está matriculado en este curso");
+        if (!alumnoRepository.existsById(alumnoId)) {
+            throw new ValidationException("Alumno no encontrado con ID: " + alumnoId);
+        }
+        // Reintento de quien ya espera: se responde con su posición sin escribir nada
+        long posicion = listaEsperaRepository.findPosicion(cursoId, alumnoId);
+        if (posicion > 0) {
+            throw new CursoCompletoException("El curso está completo", posicion);
         }
 
-        curso.getAlumnos().add(alumno);
-        alumno.getCursos().add(curso);
-        CursoEntity savedCurso = cursoRepository.save(curso);
+        // ✅ Camino rápido: sin lista de espera, la plaza se toma con el UPDATE condicional, sin SELECT ... FOR UPDATE.
+        // El UPDATE es también el primer bloqueo de la fila del curso (mismo orden que la matrícula masiva y las bajas)
+        if (listaEsperaRepository.existsByCursoId(cursoId) || !plazasCursoRepository.reservar(cursoId, 1)) {
+            reservarConBloqueo(cursoId, alumnoId);
+        }
 
-        return cursoMapper.toCursoResponseDTO(savedCurso);
+        // Una fila en curso_alumnos: el coste no depende del número de alumnos del curso
+        if (cursoRepository.insertarAlumno(cursoId, alumnoId) == 0) {
+            throw new ValidationException("El alumno ya está matriculado en este curso");
+        }
+        tareaVisibilidadRepository.insertarPorMatricula(cursoId, alumnoId);
+        // Tareas del curso que ya vencieron y se procesaron antes de esta matrícula
+        entregaService.generarEntregasVencidasPorMatricula(List.of(cursoId), List.of(alumnoId));
+        cursosCache.desalojarAlumnosCurso(cursoId);
+        cursosCache.desalojarCurso(cursoId);
+        refrescarPlazas(curso);
+
+        return cursoMapper.toCursoResponseDTO(curso);
     }
 
     @Override
@@ -210,18 +322,25 @@ public class CursoServiceImpl implements CursoService {
     public CursoResponseDTO unenrollAlumnoFromCurso(Long cursoId, Long alumnoId) {
         CursoEntity curso = cursoRepository.findById(cursoId)
                 .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
-        AlumnoEntity alumno = alumnoRepository.findById(alumnoId)
-                .orElseThrow(() -> new ValidationException("Alumno no encontrado con ID: " + alumnoId));
+        if (!alumnoRepository.existsById(alumnoId)) {
+            throw new ValidationException("Alumno no encontrado con ID: " + alumnoId);
+        }
 
-        if (!curso.getAlumnos().contains(alumno)) {
+        // Mismo orden de bloqueo que la matrícula: fila del curso, después curso_alumnos
+        plazasCursoRepository.bloquear(cursoId)
+                .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
+        if (cursoRepository.eliminarAlumno(cursoId, alumnoId) == 0) {
             throw new ValidationException("El alumno no está matriculado en este curso");
         }
-
-        curso.getAlumnos().remove(alumno);
-        alumno.getCursos().remove(curso);
-        CursoEntity savedCurso = cursoRepository.save(curso);
-
-        return cursoMapper.toCursoResponseDTO(savedCurso);
+        tareaVisibilidadRepository.eliminarPorMatricula(cursoId, alumnoId);
+        plazasCursoRepository.liberar(cursoId, 1);
+        // La plaza pasa al primero de la lista de espera antes del commit: nadie puede adelantarle
+        promoverListaEspera(cursoId);
+        cursosCache.desalojarAlumnosCurso(cursoId);
+        cursosCache.desalojarCurso(cursoId);
+        refrescarPlazas(curso);
+
+        return cursoMapper.toCursoResponseDTO(curso);
     }
 
     @Override
@@ -244,8 +363,91 @@ public class CursoServiceImpl implements CursoService {
     @Override
     public Page<CursoResponseDTO> findCursosConPlazasDisponibles(int plazasMinimas, int page, int size, String sort, String direction) {
         Pageable pageable = createPageable(page, size, sort, direction);
-        int capacidadMaxima = 30; // Valor por defecto o configurable
-        return cursoRepository.findCursosConPlazasDisponibles(plazasMinimas, capacidadMaxima, pageable)
+        return cursoRepository.findCursosConPlazasDisponibles(plazasMinimas, pageable)
                 .map(cursoMapper::toCursoResponseDTO);
     }
+
+    @Override
+    public PosicionListaEsperaDTO getPosicionListaEspera(Long cursoId, Long alumnoId) {
+        ListaEsperaIndice.Cola cola = listaEsperaIndice.obtener(cursoId);
+        int posicion = cola.posicion(alumnoId);
+        if (posicion == 0) {
+            throw new ValidationException("El alumno no está en la lista de espera de este curso");
+        }
+        return new PosicionListaEsperaDTO(cursoId, alumnoId, posicion, cola.enEspera());
+    }
+
+    @Override
+    @Transactional
+    public void abandonarListaEspera(Long cursoId, Long alumnoId) {
+        // Si justo acaba de ser promovido, la fila ya no está: 0 filas
+        if (listaEsperaRepository.eliminar(cursoId, alumnoId) == 0) {
+            throw new ValidationException("El alumno no está en la lista de espera de este curso");
+        }
+        listaEsperaIndice.invalidar(cursoId);
+    }
+
+    /**
+     * Camino lento de la matrícula: curso completo o con gente esperando. Con la fila del curso bloqueada,
+     * una plaza libre es antes para la lista de espera (nadie le adelanta) y, si aún queda alguna, se reserva
+     * para este alumno. Si no, se apunta en la lista y sale con CursoCompletoException (sin deshacer el alta).
+     */
+    private void reservarConBloqueo(Long cursoId, Long alumnoId) {
+        int plazasLibres = plazasCursoRepository.bloquear(cursoId)
+                .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + cursoId));
+        if (plazasLibres > 0) {
+            // Lectura actual de la lista (FOR UPDATE): ve también a quien se apuntó después de nuestra instantánea
+            promoverListaEspera(cursoId);
+            if (plazasCursoRepository.reservar(cursoId, 1)) {
+                return;
+            }
+        }
+        if (Boolean.TRUE.equals(cursoRepository.isAlumnoEnrolledInCurso(cursoId, alumnoId))) {
+            throw new ValidationException("El alumno ya está matriculado en este curso");
+        }
+        listaEsperaRepository.apuntar(cursoId, alumnoId);
+        listaEsperaIndice.invalidar(cursoId);
+        throw new CursoCompletoException("El curso está completo",
+                listaEsperaRepository.findPosicion(cursoId, alumnoId));
+    }
+
+    /**
+     * Matricula a los primeros de la lista de espera mientras queden plazas. Quien llama ya tiene bloqueada
+     * la fila del curso (PlazasCursoRepository.bloquear, o un UPDATE que sí la modificó: cambiarCapacidad),
+     * así que las matrículas y promociones del mismo curso se ejecutan de una en una.
+     */
+    private void promoverListaEspera(Long cursoId) {
+        int promovidos = 0;
+        Optional<ListaEsperaEntity> primero;
+        while ((primero = listaEsperaRepository.findPrimeroParaPromover(cursoId)).isPresent()) {
+            if (!plazasCursoRepository.reservar(cursoId, 1)) {
+                break;
+            }
+            Long alumnoId = primero.get().getAlumnoId();
+            listaEsperaRepository.eliminarPorId(primero.get().getId());
+            if (cursoRepository.insertarAlumno(cursoId, alumnoId) == 0) {
+                // Ya estaba matriculado (matrícula masiva): la plaza sigue libre para el siguiente
+                plazasCursoRepository.liberar(cursoId, 1);
+                continue;
+            }
+            tareaVisibilidadRepository.insertarPorMatricula(cursoId, alumnoId);
+            entregaService.generarEntregasVencidasPorMatricula(List.of(cursoId), List.of(alumnoId));
+            promovidos++;
+        }
+        if (promovidos > 0) {
+            listaEsperaIndice.invalidar(cursoId);
+            cursosCache.desalojarAlumnosCurso(cursoId);
+            cursosCache.desalojarCurso(cursoId);
+            log.debug("Curso {}: {} alumnos promovidos desde la lista de espera", cursoId, promovidos);
+        }
+    }
+
+    // Contadores actuales en la entidad devuelta (el UPDATE fue por JDBC, la entidad no lo ve)
+    private void refrescarPlazas(CursoEntity curso) {
+        plazasCursoRepository.leer(curso.getId()).ifPresent(plazas -> {
+            curso.setCapacidad(plazas.capacidad());
+            curso.setInscritos(plazas.inscritos());
+            curso.setPlazasLibres(plazas.capacidad() - plazas.inscritos());
+        });
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.Exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Token opaco de la paginación por cursor.
+ * Codifica la posición del último elemento devuelto (valor de la columna de orden e ID) para que
+ * la siguiente página se pida con un "seek" sobre el índice en lugar de un OFFSET.
+ * Un valor de orden nulo se codifica vacío.
+ */
+final class CursorPaginacion {
+
+    static final int TAMANO_MAXIMO = 100;
+
+    private static final char SEPARADOR = '~';
+
+    private CursorPaginacion() {
+    }
+
+    record Posicion(String valor, Long id) {
+
+        <T> T valorComo(Function<String, T> conversor) {
+            if (valor == null) {
+                return null;
+            }
+            try {
+                return conversor.apply(valor);
+            } catch (RuntimeException e) {
+                throw new ValidationException("Cursor de paginación no válido");
+            }
+        }
+    }
+
+    static String codificar(Object valor, Long id) {
+        String texto = (valor != null ? valor.toString() : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null si no hay cursor (primera página)
+    static Posicion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(SEPARADOR);
+            String valor = texto.substring(0, separador);
+            return new Posicion(valor.isEmpty() ? null : valor, Long.parseLong(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Cursor de paginación no válido");
+        }
+    }
+
+    static int tamanoValido(int size) {
+        return Math.max(1, Math.min(size, TAMANO_MAXIMO));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.entidades.CursoEntity;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Desalojo de un curso y de sus colecciones en la caché de segundo nivel tras escribir directamente en
+ * curso_alumnos, curso_profesores o en los contadores de plazas. Hibernate no los invalida por su cuenta:
+ * la sentencia nativa o JDBC no pasa por la entidad. Solo se desaloja la entrada del curso afectado,
+ * no la región entera.
+ */
+@Component
+@RequiredArgsConstructor
+public class CursosCache {
+
+    private static final String ALUMNOS_CURSO = CursoEntity.class.getName() + ".alumnos";
+    private static final String PROFESORES_CURSO = CursoEntity.class.getName() + ".profesores";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    void desalojarAlumnosCurso(Long cursoId) {
+        desalojar(cache -> cache.evictCollectionData(ALUMNOS_CURSO, cursoId));
+    }
+
+    void desalojarProfesoresCurso(Long cursoId) {
+        desalojar(cache -> cache.evictCollectionData(PROFESORES_CURSO, cursoId));
+    }
+
+    // Capacidad o inscritos modificados fuera de la entidad
+    public void desalojarCurso(Long cursoId) {
+        desalojar(cache -> cache.evictEntityData(CursoEntity.class, cursoId));
+    }
+
+    // Otra vez al terminar la transacción: una lectura concurrente pudo cachear el dato antes del commit
+    private void desalojar(Consumer<Cache> desalojo) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        desalojo.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    desalojo.accept(cache);
+                }
+            });
+        }
+    }
+}
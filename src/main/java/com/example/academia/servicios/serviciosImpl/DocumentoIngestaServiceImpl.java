@@ -0,0 +1,98 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.DocumentoAlmacenado;
+import com.example.academia.servicios.DocumentStore;
+import com.example.academia.servicios.DocumentoIngestaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Ingesta de documentos subidos.
+ * El fichero nunca se carga entero en memoria: se lee del spool del servlet y se escribe en el
+ * DocumentStore en streaming, que calcula el SHA-256 y el tamaño mientras los primeros bytes
+ * se capturan para detectar el tipo MIME.
+ * El volumen de subidas simultáneas lo acota PresupuestoSubidasFilter antes de que se lea el cuerpo.
+ * Se llama fuera de las transacciones: la escritura en disco no retiene una conexión ni bloqueos.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentoIngestaServiceImpl implements DocumentoIngestaService {
+
+    private static final int BYTES_CABECERA = 16;
+
+    private final DocumentStore documentStore;
+
+    @Override
+    public DocumentoAlmacenado ingerir(MultipartFile archivo) throws IOException {
+        try (CapturaCabeceraInputStream in = new CapturaCabeceraInputStream(archivo.getInputStream())) {
+            DocumentoAlmacenado almacenado = documentStore.guardar(in);
+            almacenado.setTipoMime(resolverTipo(archivo.getContentType(), detectarTipo(in.cabecera())));
+            return almacenado;
+        }
+    }
+
+    // El tipo declarado por el navegador se respeta salvo que falte o sea genérico
+    private static String resolverTipo(String declarado, String detectado) {
+        if (declarado == null || declarado.isBlank() || declarado.equals("application/octet-stream")) {
+            return detectado != null ? detectado : "application/octet-stream";
+        }
+        return declarado;
+    }
+
+    private static String detectarTipo(byte[] cabecera) {
+        if (empiezaPor(cabecera, "%PDF".getBytes(StandardCharsets.US_ASCII))) return "application/pdf";
+        if (empiezaPor(cabecera, new byte[]{(byte) 0x89, 'P', 'N', 'G'})) return "image/png";
+        if (empiezaPor(cabecera, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})) return "image/jpeg";
+        if (empiezaPor(cabecera, "GIF8".getBytes(StandardCharsets.US_ASCII))) return "image/gif";
+        if (empiezaPor(cabecera, new byte[]{'P', 'K', 3, 4})) return "application/zip";
+        if (empiezaPor(cabecera, new byte[]{(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0})) return "application/x-ole-storage";
+        if (empiezaPor(cabecera, "{\\rtf".getBytes(StandardCharsets.US_ASCII))) return "application/rtf";
+        return null;
+    }
+
+    private static boolean empiezaPor(byte[] datos, byte[] prefijo) {
+        return datos.length >= prefijo.length && Arrays.equals(datos, 0, prefijo.length, prefijo, 0, prefijo.length);
+    }
+
+    // Guarda los primeros bytes leídos para detectar el tipo sin una segunda lectura del fichero
+    private static final class CapturaCabeceraInputStream extends FilterInputStream {
+
+        private final byte[] cabecera = new byte[BYTES_CABECERA];
+        private int capturados;
+
+        CapturaCabeceraInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && capturados < BYTES_CABECERA) {
+                cabecera[capturados++] = (byte) b;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int leidos = super.read(b, off, len);
+            if (leidos > 0 && capturados < BYTES_CABECERA) {
+                int copiar = Math.min(leidos, BYTES_CABECERA - capturados);
+                System.arraycopy(b, off, cabecera, capturados, copiar);
+                capturados += copiar;
+            }
+            return leidos;
+        }
+
+        byte[] cabecera() {
+            return Arrays.copyOf(cabecera, capturados);
+        }
+    }
+}
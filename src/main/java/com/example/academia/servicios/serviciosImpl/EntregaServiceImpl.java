@@ -1,10 +1,15 @@
 package com.example.academia.servicios.serviciosImpl;
 
 import com.example.academia.DTOs.CalificacionDTO;
+import com.example.academia.DTOs.DocumentoAlmacenado;
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.GeneracionVencidasDTO;
+import com.example.academia.DTOs.JobLock;
 import com.example.academia.DTOs.Created.EntregaCreateDTO;
 import com.example.academia.DTOs.Response.EntregaResponseDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.SimpleDTO.EntregaSimpleDTO;
+import com.example.academia.Exceptions.BloqueoPerdidoException;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.entidades.AlumnoEntity;
 import com.example.academia.entidades.EntregaEntity;
@@ -13,27 +18,42 @@ import com.example.academia.mappers.CalificacionMapper;
 import com.example.academia.mappers.DocumentoMapper;
 import com.example.academia.mappers.EntregaMapper;
 import com.example.academia.repositorios.AlumnoRepository;
+import com.example.academia.repositorios.DocumentoHeredadoRepository;
 import com.example.academia.repositorios.EntregaRepository;
 import com.example.academia.repositorios.ProfesorRepository;
 import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.servicios.DocumentoIngestaService;
 import com.example.academia.servicios.EntregaService;
+import com.example.academia.servicios.JobLockService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -45,6 +65,27 @@ public class EntregaServiceImpl implements EntregaService {
     private final EntregaMapper entregaMapper;
     private final DocumentoMapper documentoMapper;
     private final CalificacionMapper calificacionMapper;
+    private final DocumentoIngestaService documentoIngestaService;
+    private final DocumentoHeredadoRepository documentoHeredadoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    private static final Logger log = LoggerFactory.getLogger(EntregaServiceImpl.class);
+
+    private static final String COMENTARIO_ENTREGA_VENCIDA = "ENTREGA AUTOMÁTICA - Tarea vencida sin entregar. Calificación: 0";
+
+    private static final String JOB_VENCIDAS = "entregas-vencidas";
+
+    // Orden admitido en los listados paginados por IDs: parámetro sort -> atributo de EntregaEntity
+    private static final Map<String, String> ORDEN_PAGINA_IDS = Map.of(
+            "id", "id", "fechaEntrega", "fechaEntrega", "estado", "estado", "nota", "nota");
+
+    @Value("${entregas.vencidas.tamano-lote:500}")
+    private int tamanoLoteVencidas;
+
+    // Si el nodo que genera cae, otro puede tomar el relevo pasado este tiempo
+    @Value("${entregas.vencidas.arrendamiento-ms:300000}")
+    private long arrendamientoVencidasMs;
 
     // Método auxiliar para crear un Pageable
     private Pageable createPageable(int page, int size, String sort, String direction) {
@@ -53,13 +94,49 @@ public class EntregaServiceImpl implements EntregaService {
         return PageRequest.of(page, size, sortDirection, sort);
     }
 
+    // Como createPageable, pero rechaza un orden fuera de ORDEN_PAGINA_IDS y desempata por id
+    // para que OFFSET no repita ni salte filas entre páginas
+    private Pageable createPageablePaginaIds(int page, int size, String sort, String direction) {
+        String atributo = ORDEN_PAGINA_IDS.get(sort == null || sort.isEmpty() ? "id" : sort);
+        if (atributo == null) {
+            throw new ValidationException("Orden no admitido: " + sort + ". Valores válidos: " + ORDEN_PAGINA_IDS.keySet());
+        }
+        Sort.Direction sentido = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort orden = Sort.by(sentido, atributo);
+        if (!atributo.equals("id")) {
+            orden = orden.and(Sort.by(sentido, "id"));
+        }
+        return PageRequest.of(page, size, orden);
+    }
+
+    // Paginación por IDs: combinar JOIN FETCH con Pageable obliga a Hibernate a paginar en memoria.
+    // La página de IDs se resuelve en la base de datos y después se cargan sus relaciones en una consulta.
+    private Page<EntregaResponseDTO> paginarConRelaciones(Page<Long> paginaIds) {
+        List<EntregaResponseDTO> contenido = cargarConRelaciones(paginaIds.getContent()).stream()
+                .map(entregaMapper::toEntregaResponseDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(contenido, paginaIds.getPageable(), paginaIds.getTotalElements());
+    }
+
+    // Entregas con sus relaciones, en el mismo orden que los IDs recibidos
+    private List<EntregaEntity> cargarConRelaciones(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EntregaEntity> porId = entregaRepository.findAllWithRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(EntregaEntity::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     // -- Implementaciones de métodos CRUD básicos -- //
 
     @Override
     public Page<EntregaResponseDTO> findAll(int page, int size, String sort, String direction) {
-        Pageable pageable = createPageable(page, size, sort, direction);
-        return entregaRepository.findAllWithRelations(pageable)
-                .map(entregaMapper::toEntregaResponseDTO);
+        Pageable pageable = createPageablePaginaIds(page, size, sort, direction);
+        return paginarConRelaciones(entregaRepository.findPaginaIds(pageable));
     }
 
     @Override
@@ -91,7 +168,9 @@ public class EntregaServiceImpl implements EntregaService {
         }
 
         // ✅ ELIMINAR EL DOCUMENTO DEL PROFESOR
-        entrega.setDocumentoProfesor(null);
+        descartarDocumentoProfesorHeredado(entrega);
+        entrega.setDocumentoProfesorClave(null);
+        entrega.setDocumentoProfesorSize(null);
         entrega.setNombreDocumentoProfesor(null);
         entrega.setTipoDocumentoProfesor(null);
 
@@ -136,48 +215,47 @@ public class EntregaServiceImpl implements EntregaService {
 
 
     @Override
-    @Transactional
     public EntregaResponseDTO editarCalificacionConDocumento(Long entregaId, CalificacionDTO calificacionDTO, Long profesorId, MultipartFile documentoProfesor) throws IOException {
-        EntregaEntity entrega = entregaRepository.findById(entregaId)
-                .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
+        DocumentoAlmacenado almacenado = ingerirDocumentoProfesor(entregaId, profesorId, documentoProfesor);
+        return transactionTemplate.execute(status -> {
+            EntregaEntity entrega = entregaRepository.findById(entregaId)
+                    .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
+
+            // Verificar que el profesor puede editar esta calificación
+            if (!validarEntregaProfesor(entregaId, profesorId)) {
+                throw new ValidationException("El profesor no está autorizado para editar esta calificación");
+            }
 
-        // Verificar que el profesor puede editar esta calificación
-        if (!validarEntregaProfesor(entregaId, profesorId)) {
-            throw new ValidationException("El profesor no está autorizado para editar esta calificación");
-        }
+            // Verificar que la entrega está calificada
+            if (entrega.getEstado() != EntregaEntity.EstadoEntrega.CALIFICADA) {
+                throw new ValidationException("Solo se pueden editar entregas que ya están calificadas");
+            }
 
-        // Verificar que la entrega está calificada
-        if (entrega.getEstado() != EntregaEntity.EstadoEntrega.CALIFICADA) {
-            throw new ValidationException("Solo se pueden editar entregas que ya están calificadas");
-        }
+            // Validar la nueva nota
+            if (calificacionDTO.getNota() < 0 || calificacionDTO.getNota() > 10) {
+                throw new ValidationException("La nota debe estar entre 0 y 10");
+            }
 
-        // Validar la nueva nota
-        if (calificacionDTO.getNota() < 0 || calificacionDTO.getNota() > 10) {
-            throw new ValidationException("La nota debe estar entre 0 y 10");
-        }
+            // Actualizar la calificación
+            calificacionMapper.updateEntregaFromCalificacion(calificacionDTO, entrega);
+            entrega.setEstado(EntregaEntity.EstadoEntrega.CALIFICADA);
 
-        // Actualizar la calificación
-        calificacionMapper.updateEntregaFromCalificacion(calificacionDTO, entrega);
-        entrega.setEstado(EntregaEntity.EstadoEntrega.CALIFICADA);
-
-        // Actualizar documento del profesor si se proporcionó
-        if (documentoProfesor != null && !documentoProfesor.isEmpty()) {
-            entrega.setDocumentoProfesor(documentoProfesor.getBytes());
-            entrega.setNombreDocumentoProfesor(documentoProfesor.getOriginalFilename());
-            entrega.setTipoDocumentoProfesor(documentoProfesor.getContentType());
-        }
+            // Actualizar documento del profesor si se proporcionó
+            if (almacenado != null) {
+                aplicarDocumentoProfesor(entrega, almacenado, documentoProfesor.getOriginalFilename());
+            }
 
-        EntregaEntity savedEntrega = entregaRepository.save(entrega);
-        return entregaMapper.toEntregaResponseDTO(savedEntrega);
+            EntregaEntity savedEntrega = entregaRepository.save(entrega);
+            return entregaMapper.toEntregaResponseDTO(savedEntrega);
+        });
     }
 
     // -- Implementaciones de métodos de búsqueda -- //
 
     @Override
     public Page<EntregaResponseDTO> findByTarea(Long tareaId, int page, int size, String sort, String direction) {
-        Pageable pageable = createPageable(page, size, sort, direction);
-        return entregaRepository.findByTareaIdWithRelations(tareaId, pageable)
-                .map(entregaMapper::toEntregaResponseDTO);
+        Pageable pageable = createPageablePaginaIds(page, size, sort, direction);
+        return paginarConRelaciones(entregaRepository.findPaginaIdsByTareaId(tareaId, pageable));
     }
 
     @Override
@@ -240,6 +318,7 @@ public class EntregaServiceImpl implements EntregaService {
         // ✅ CREAR LA ENTREGA
         EntregaEntity entrega = new EntregaEntity();
         entrega.setTarea(tarea);
+        entrega.setProfesorId(tarea.getProfesor() != null ? tarea.getProfesor().getId() : null);
         entrega.setAlumno(alumno);
         entrega.setFechaEntrega(LocalDateTime.now());
         entrega.setComentarios(entregaDTO.getComentarios());
@@ -297,7 +376,7 @@ public class EntregaServiceImpl implements EntregaService {
         }
 
         // ✅ VALIDACIÓN: Verificar que la entrega tenga documento (opcional, depende de tus reglas)
-        if (entrega.getDocumento() == null || entrega.getDocumento().length == 0) {
+        if (!tieneDocumentoAlumno(entrega)) {
             throw new ValidationException("La entrega no tiene documento para calificar");
         }
 
@@ -316,49 +395,49 @@ public class EntregaServiceImpl implements EntregaService {
 
     // ✅ NUEVO MÉTODO: Para calificar con documento
     @Override
-    @Transactional
     public EntregaResponseDTO calificarEntregaConDocumento(Long entregaId, CalificacionDTO calificacionDTO, Long profesorId, MultipartFile documentoProfesor) throws IOException {
-        EntregaEntity entrega = entregaRepository.findById(entregaId)
-                .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
-
-        // ✅ VALIDACIÓN: Verificar permisos del profesor
-        if (!validarEntregaProfesor(entregaId, profesorId)) {
-            throw new ValidationException("El profesor no está autorizado para calificar esta entrega");
-        }
+        DocumentoAlmacenado almacenado = ingerirDocumentoProfesor(entregaId, profesorId, documentoProfesor);
+        return transactionTemplate.execute(status -> {
+            EntregaEntity entrega = entregaRepository.findById(entregaId)
+                    .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
+
+            // ✅ VALIDACIÓN: Verificar permisos del profesor
+            if (!validarEntregaProfesor(entregaId, profesorId)) {
+                throw new ValidationException("El profesor no está autorizado para calificar esta entrega");
+            }
 
-        // ✅ VALIDACIÓN: Verificar que la entrega NO esté ya calificada
-        if (entrega.getEstado() == EntregaEntity.EstadoEntrega.CALIFICADA) {
-            throw new ValidationException("Esta entrega ya está calificada. Use el método de edición para modificar la calificación.");
-        }
+            // ✅ VALIDACIÓN: Verificar que la entrega NO esté ya calificada
+            if (entrega.getEstado() == EntregaEntity.EstadoEntrega.CALIFICADA) {
+                throw new ValidationException("Esta entrega ya está calificada. Use el método de edición para modificar la calificación.");
+            }
 
-        // ✅ VALIDACIÓN: Verificar que la entrega esté en estado ENTREGADA
-        if (entrega.getEstado() != EntregaEntity.EstadoEntrega.ENTREGADA) {
-            throw new ValidationException("Solo se pueden calificar entregas en estado 'ENTREGADA'. Estado actual: " + entrega.getEstado());
-        }
+            // ✅ VALIDACIÓN: Verificar que la entrega esté en estado ENTREGADA
+            if (entrega.getEstado() != EntregaEntity.EstadoEntrega.ENTREGADA) {
+                throw new ValidationException("Solo se pueden calificar entregas en estado 'ENTREGADA'. Estado actual: " + entrega.getEstado());
+            }
 
-        // ✅ VALIDACIÓN: Verificar que la entrega tenga documento del alumno
-        if (entrega.getDocumento() == null || entrega.getDocumento().length == 0) {
-            throw new ValidationException("La entrega no tiene documento para calificar");
-        }
+            // ✅ VALIDACIÓN: Verificar que la entrega tenga documento del alumno
+            if (!tieneDocumentoAlumno(entrega)) {
+                throw new ValidationException("La entrega no tiene documento para calificar");
+            }
 
-        // ✅ VALIDACIÓN: Verificar rango de nota
-        if (calificacionDTO.getNota() < 0 || calificacionDTO.getNota() > 10) {
-            throw new ValidationException("La nota debe estar entre 0 y 10");
-        }
+            // ✅ VALIDACIÓN: Verificar rango de nota
+            if (calificacionDTO.getNota() < 0 || calificacionDTO.getNota() > 10) {
+                throw new ValidationException("La nota debe estar entre 0 y 10");
+            }
 
-        // ✅ APLICAR CALIFICACIÓN
-        calificacionMapper.updateEntregaFromCalificacion(calificacionDTO, entrega);
-        entrega.setEstado(EntregaEntity.EstadoEntrega.CALIFICADA);
+            // ✅ APLICAR CALIFICACIÓN
+            calificacionMapper.updateEntregaFromCalificacion(calificacionDTO, entrega);
+            entrega.setEstado(EntregaEntity.EstadoEntrega.CALIFICADA);
 
-        // ✅ AGREGAR DOCUMENTO DEL PROFESOR si se proporcionó
-        if (documentoProfesor != null && !documentoProfesor.isEmpty()) {
-            entrega.setDocumentoProfesor(documentoProfesor.getBytes());
-            entrega.setNombreDocumentoProfesor(documentoProfesor.getOriginalFilename());
-            entrega.setTipoDocumentoProfesor(documentoProfesor.getContentType());
-        }
+            // ✅ AGREGAR DOCUMENTO DEL PROFESOR si se proporcionó
+            if (almacenado != null) {
+                aplicarDocumentoProfesor(entrega, almacenado, documentoProfesor.getOriginalFilename());
+            }
 
-        EntregaEntity savedEntrega = entregaRepository.save(entrega);
-        return entregaMapper.toEntregaResponseDTO(savedEntrega);
+            EntregaEntity savedEntrega = entregaRepository.save(entrega);
+            return entregaMapper.toEntregaResponseDTO(savedEntrega);
+        });
     }
 
     @Override
@@ -377,57 +456,75 @@ public class EntregaServiceImpl implements EntregaService {
         EntregaEntity entrega = entregaRepository.findById(entregaId)
                 .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
 
-        if (entrega.getDocumentoProfesor() == null || entrega.getDocumentoProfesor().length == 0) {
+        if (!tieneDocumentoProfesor(entrega)) {
             throw new ValidationException("La entrega no tiene documento del profesor");
         }
 
+        // ✅ En el DocumentStore: solo metadatos, el controlador lo sirve en streaming
+        if (entrega.getDocumentoProfesorClave() != null) {
+            return documentoMapper.toDocumentoDTO(
+                    entrega.getNombreDocumentoProfesor(),
+                    entrega.getTipoDocumentoProfesor(),
+                    entrega.getDocumentoProfesorClave(),
+                    entrega.getDocumentoProfesorSize()
+            );
+        }
+
+        // Documento heredado aún sin migrar: único camino que lee la columna LONGBLOB
         return documentoMapper.toDocumentoDTO(
                 entrega.getNombreDocumentoProfesor(),
                 entrega.getTipoDocumentoProfesor(),
-                entrega.getDocumentoProfesor()
+                documentoHeredadoRepository.leerDocumentoProfesorEntrega(entregaId)
         );
     }
 
     @Override
     public Long getProfesorIdFromEntrega(Long entregaId) {
-        EntregaEntity entrega = entregaRepository.findById(entregaId)
+        return entregaRepository.findProfesorIdByEntregaId(entregaId)
                 .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
-
-        return entrega.getTarea().getProfesor().getId();
     }
 
     // -- Implementaciones de métodos de documentos -- //
 
     @Override
-    @Transactional
     public EntregaResponseDTO uploadDocumento(Long entregaId, MultipartFile file, Long alumnoId) throws IOException {
         // Verificar que la entrega existe
-        EntregaEntity entrega = entregaRepository.findById(entregaId)
-                .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
+        if (!entregaRepository.existsById(entregaId)) {
+            throw new ValidationException("Entrega no encontrada con ID: " + entregaId);
+        }
 
         // Verificar que el alumno es el propietario de la entrega
         if (!validarEntregaAlumno(entregaId, alumnoId)) {
             throw new ValidationException("El alumno no es el propietario de esta entrega");
         }
 
-        // Actualizar el documento
-        entrega.setDocumento(file.getBytes());
-        entrega.setNombreDocumento(file.getOriginalFilename());
-        entrega.setTipoDocumento(file.getContentType());
-
-        // Actualizar fecha de entrega y estado
-        entrega.setFechaEntrega(LocalDateTime.now());
-
-        // Verificar si está dentro del plazo
-        if (entrega.getTarea().getFechaLimite() != null &&
-                entrega.getFechaEntrega().toLocalDate().isAfter(entrega.getTarea().getFechaLimite())) {
-            entrega.setEstado(EntregaEntity.EstadoEntrega.FUERA_PLAZO);
-        } else {
-            entrega.setEstado(EntregaEntity.EstadoEntrega.ENTREGADA);
-        }
+        // Los bytes van al DocumentStore en streaming antes de abrir la transacción; la entidad solo guarda la clave
+        DocumentoAlmacenado almacenado = documentoIngestaService.ingerir(file);
+        return transactionTemplate.execute(status -> {
+            EntregaEntity entrega = entregaRepository.findById(entregaId)
+                    .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
+            if (entrega.getDocumentoClave() == null && entrega.getDocumentoSize() != null) {
+                documentoHeredadoRepository.descartarDocumentoEntrega(entrega.getId());
+            }
+            entrega.setDocumentoClave(almacenado.getClave());
+            entrega.setDocumentoSize(almacenado.getTamanho());
+            entrega.setNombreDocumento(file.getOriginalFilename());
+            entrega.setTipoDocumento(almacenado.getTipoMime());
+
+            // Actualizar fecha de entrega y estado
+            entrega.setFechaEntrega(LocalDateTime.now());
+
+            // Verificar si está dentro del plazo
+            if (entrega.getTarea().getFechaLimite() != null &&
+                    entrega.getFechaEntrega().toLocalDate().isAfter(entrega.getTarea().getFechaLimite())) {
+                entrega.setEstado(EntregaEntity.EstadoEntrega.FUERA_PLAZO);
+            } else {
+                entrega.setEstado(EntregaEntity.EstadoEntrega.ENTREGADA);
+            }
 
-        EntregaEntity savedEntrega = entregaRepository.save(entrega);
-        return entregaMapper.toEntregaResponseDTO(savedEntrega);
+            EntregaEntity savedEntrega = entregaRepository.save(entrega);
+            return entregaMapper.toEntregaResponseDTO(savedEntrega);
+        });
     }
 
     @Override
@@ -435,14 +532,25 @@ public class EntregaServiceImpl implements EntregaService {
         EntregaEntity entrega = entregaRepository.findById(entregaId)
                 .orElseThrow(() -> new ValidationException("Entrega no encontrada con ID: " + entregaId));
 
-        if (entrega.getDocumento() == null || entrega.getDocumento().length == 0) {
+        if (!tieneDocumentoAlumno(entrega)) {
             throw new ValidationException("La entrega no tiene documento");
         }
 
+        // ✅ En el DocumentStore: solo metadatos, el controlador lo sirve en streaming
+        if (entrega.getDocumentoClave() != null) {
+            return documentoMapper.toDocumentoDTO(
+                    entrega.getNombreDocumento(),
+                    entrega.getTipoDocumento(),
+                    entrega.getDocumentoClave(),
+                    entrega.getDocumentoSize()
+            );
+        }
+
+        // Documento heredado aún sin migrar: único camino que lee la columna LONGBLOB
         return documentoMapper.toDocumentoDTO(
                 entrega.getNombreDocumento(),
                 entrega.getTipoDocumento(),
-                entrega.getDocumento()
+                documentoHeredadoRepository.leerDocumentoEntrega(entregaId)
         );
     }
 
@@ -485,7 +593,7 @@ public class EntregaServiceImpl implements EntregaService {
                 entrega.getEstado() == EntregaEntity.EstadoEntrega.ENTREGADA) {
 
             // Si tiene documento, marcar como entregada, sino como pendiente
-            if (entrega.getDocumento() != null && entrega.getDocumento().length > 0) {
+            if (tieneDocumentoAlumno(entrega)) {
                 entrega.setEstado(EntregaEntity.EstadoEntrega.ENTREGADA);
             } else {
                 entrega.setEstado(EntregaEntity.EstadoEntrega.PENDIENTE);
@@ -496,45 +604,145 @@ public class EntregaServiceImpl implements EntregaService {
         return entregaMapper.toEntregaResponseDTO(savedEntrega);
     }
 
-    // ✅ NUEVO: Método para generar entregas automáticas por vencimiento
-    @Transactional
-    public void generarEntregasAutomaticasPorVencimiento() {
-        LocalDate hoy = LocalDate.now();
+    // ✅ Generación de entregas vencidas en bloque: por cada lote de tareas vencidas sin procesar, un
+    // INSERT ... SELECT crea las entregas FUERA_PLAZO que faltan y la tarea queda marcada como procesada.
+    // Cada lote va en su propia transacción; las tareas ya procesadas no se vuelven a recorrer: a los alumnos
+    // matriculados después les crea su entrega la propia matrícula (generarEntregasVencidasPorMatricula) y una
+    // asignación nueva (asignarTareaAAlumno) devuelve la tarea a pendiente.
+    // Con varias réplicas solo un nodo genera a la vez (bloqueo JOB_VENCIDAS).
+    @Override
+    public Optional<GeneracionVencidasDTO> generarEntregasAutomaticasPorVencimiento() {
+        return conBloqueoVencidas(bloqueo -> {
+            long inicio = System.nanoTime();
+            LocalDate hoy = LocalDate.now();
+            int tareasProcesadas = 0;
+            int entregasCreadas = 0;
+
+            long ultimoId = 0;
+            List<Long> lote;
+            do {
+                lote = tareaRepository.findIdsVencidasSinProcesar(hoy, ultimoId, PageRequest.of(0, tamanoLoteVencidas));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                entregasCreadas += insertarLoteVencidas(lote, bloqueo);
+                tareasProcesadas += lote.size();
+                ultimoId = lote.get(lote.size() - 1);
+            } while (lote.size() == tamanoLoteVencidas);
+
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            log.info("Entregas vencidas: {} tareas procesadas, {} entregas creadas en {} ms",
+                    tareasProcesadas, entregasCreadas, duracionMs);
+            return new GeneracionVencidasDTO(tareasProcesadas, entregasCreadas, duracionMs);
+        });
+    }
 
-        // Buscar todas las tareas vencidas
-        List<TareaEntity> tareasVencidas = tareaRepository.findTareasVencidasSinEntregas(hoy);
+    @Override
+    public Optional<GeneracionVencidasDTO> generarEntregasVencidas(Collection<Long> tareaIds) {
+        return conBloqueoVencidas(bloqueo -> {
+            long inicio = System.nanoTime();
+            List<Long> vencidas = tareaRepository.findIdsVencidasSinProcesarIn(tareaIds, LocalDate.now());
+
+            int entregasCreadas = 0;
+            for (int desde = 0; desde < vencidas.size(); desde += tamanoLoteVencidas) {
+                entregasCreadas += insertarLoteVencidas(
+                        vencidas.subList(desde, Math.min(desde + tamanoLoteVencidas, vencidas.size())), bloqueo);
+            }
+
+            return new GeneracionVencidasDTO(vencidas.size(), entregasCreadas, (System.nanoTime() - inicio) / 1_000_000);
+        });
+    }
 
-        for (TareaEntity tarea : tareasVencidas) {
-            generarEntregasVencidaParaTarea(tarea);
+    private Optional<GeneracionVencidasDTO> conBloqueoVencidas(Function<JobLock, GeneracionVencidasDTO> trabajo) {
+        Optional<JobLock> bloqueo = jobLockService.adquirir(JOB_VENCIDAS, Duration.ofMillis(arrendamientoVencidasMs));
+        if (bloqueo.isEmpty()) {
+            log.info("La generación de entregas vencidas se está ejecutando en otro nodo");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(trabajo.apply(bloqueo.get()));
+        } finally {
+            jobLockService.liberar(bloqueo.get());
         }
     }
 
-    // ✅ NUEVO: Generar entregas con nota 0 para una tarea específica
+    // Fencing: cada lote comprueba (y renueva) el bloqueo en su misma transacción antes de insertar
+    private int insertarLoteVencidas(List<Long> tareaIds, JobLock bloqueo) {
+        Integer creadas = transactionTemplate.execute(status -> {
+            if (!jobLockService.renovar(bloqueo)) {
+                throw new BloqueoPerdidoException(JOB_VENCIDAS);
+            }
+            return insertarEntregasVencidas(tareaIds);
+        });
+        return creadas != null ? creadas : 0;
+    }
+
+    @Override
     @Transactional
     public void generarEntregasVencidaParaTarea(TareaEntity tarea) {
-        Set<AlumnoEntity> alumnosAsignados = getAlumnosAsignadosATarea(tarea);
-
-        for (AlumnoEntity alumno : alumnosAsignados) {
-            // Verificar si ya existe una entrega
-            Optional<EntregaEntity> entregaExistente = entregaRepository
-                    .findByTareaIdAndAlumnoId(tarea.getId(), alumno.getId());
-
-            if (entregaExistente.isEmpty()) {
-                // Crear entrega automática con nota 0
-                EntregaEntity entregaVencida = new EntregaEntity();
-                entregaVencida.setTarea(tarea);
-                entregaVencida.setAlumno(alumno);
-                entregaVencida.setEstado(EntregaEntity.EstadoEntrega.FUERA_PLAZO);
-                entregaVencida.setFechaEntrega(LocalDateTime.now());
-                entregaVencida.setNota(0.0);
-                entregaVencida.setComentarios("ENTREGA AUTOMÁTICA - Tarea vencida sin entregar. Calificación: 0");
-
-                entregaRepository.save(entregaVencida);
-
-                System.out.println("✅ Entrega automática creada para tarea ID: " + tarea.getId() +
-                        ", alumno: " + alumno.getNombre() + " " + alumno.getApellido());
+        insertarEntregasVencidas(List.of(tarea.getId()));
+    }
+
+    // La marca vencimientoProcesado es por tarea: un alumno matriculado después del barrido no lo vuelve a activar
+    @Override
+    @Transactional
+    public int generarEntregasVencidasPorMatricula(Collection<Long> cursoIds, Collection<Long> alumnoIds) {
+        if (cursoIds.isEmpty() || alumnoIds.isEmpty()) {
+            return 0;
+        }
+        return entregaRepository.insertarVencidasParaMatriculas(cursoIds, alumnoIds, LocalDateTime.now(), COMENTARIO_ENTREGA_VENCIDA);
+    }
+
+    private int insertarEntregasVencidas(List<Long> tareaIds) {
+        LocalDateTime ahora = LocalDateTime.now();
+        int creadas = entregaRepository.insertarVencidasParaTodoElCurso(tareaIds, ahora, COMENTARIO_ENTREGA_VENCIDA)
+                + entregaRepository.insertarVencidasParaAlumnosAsignados(tareaIds, ahora, COMENTARIO_ENTREGA_VENCIDA);
+        tareaRepository.marcarVencimientoProcesado(tareaIds);
+        return creadas;
+    }
+
+    @Override
+    public PaginaCursorDTO<EntregaResponseDTO> findEntregasByProfesorCursor(Long profesorId, String cursor, int size) {
+        Pageable limite = PageRequest.of(0, CursorPaginacion.tamanoValido(size));
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+
+        // ✅ Seek sobre (profesorId, fechaEntrega, id): el coste de cada página no depende de lo lejos que esté
+        Slice<Long> ids;
+        if (posicion == null) {
+            ids = entregaRepository.findIdsByProfesorIdCursorInicio(profesorId, limite);
+        } else if (posicion.valor() == null) {
+            ids = entregaRepository.findIdsByProfesorIdCursorSinFechaDespuesDe(profesorId, posicion.id(), limite);
+        } else {
+            ids = entregaRepository.findIdsByProfesorIdCursorDespuesDe(
+                    profesorId, posicion.valorComo(LocalDateTime::parse), posicion.id(), limite);
+            if (!ids.hasNext()) {
+                ids = completarConSinFecha(profesorId, ids, limite);
             }
         }
+
+        List<EntregaEntity> entregas = cargarConRelaciones(ids.getContent());
+        String siguienteCursor = null;
+        if (ids.hasNext() && !entregas.isEmpty()) {
+            EntregaEntity ultima = entregas.get(entregas.size() - 1);
+            siguienteCursor = CursorPaginacion.codificar(ultima.getFechaEntrega(), ultima.getId());
+        }
+
+        return new PaginaCursorDTO<>(
+                entregas.stream().map(entregaMapper::toEntregaResponseDTO).collect(Collectors.toList()),
+                siguienteCursor,
+                siguienteCursor != null);
+    }
+
+    // Las entregas sin fecha van al final del orden: al acabarse las fechadas, la página sigue con ellas
+    private Slice<Long> completarConSinFecha(Long profesorId, Slice<Long> fechadas, Pageable limite) {
+        int restantes = limite.getPageSize() - fechadas.getNumberOfElements();
+        Slice<Long> sinFecha = entregaRepository.findIdsByProfesorIdCursorSinFechaDespuesDe(
+                profesorId, Long.MAX_VALUE, PageRequest.of(0, Math.max(restantes, 1)));
+
+        List<Long> ids = new ArrayList<>(fechadas.getContent());
+        ids.addAll(sinFecha.getContent().subList(0, Math.min(restantes, sinFecha.getNumberOfElements())));
+        boolean hayMas = restantes == 0 ? sinFecha.hasContent() : sinFecha.hasNext();
+        return new SliceImpl<>(ids, limite, hayMas);
     }
 
     @Override
@@ -545,43 +753,63 @@ public class EntregaServiceImpl implements EntregaService {
     }
     @Override
     public Page<EntregaResponseDTO> findEntregasByProfesor(Long profesorId, int page, int size, String sort, String direction) {
-        Pageable pageable = createPageable(page, size, sort, direction);
+        Pageable pageable = createPageablePaginaIds(page, size, sort, direction);
 
-        // ✅ USAR CONSULTA OPTIMIZADA para cargar todas las relaciones
-        Page<EntregaEntity> entregas = entregaRepository.findEntregasByProfesorWithRelations(profesorId, pageable);
-
-        return entregas.map(entregaMapper::toEntregaResponseDTO);
+        // ✅ Página de IDs en la base de datos y relaciones solo para esa página
+        return paginarConRelaciones(entregaRepository.findPaginaIdsByProfesorId(profesorId, pageable));
     }
 
 
-    // ✅ NUEVO: Obtener alumnos asignados a una tarea
-    private Set<AlumnoEntity> getAlumnosAsignadosATarea(TareaEntity tarea) {
-        Set<AlumnoEntity> alumnos = new HashSet<>();
+    // -- Métodos auxiliares de documentos -- //
 
-        if (Boolean.TRUE.equals(tarea.getParaTodosLosAlumnos())) {
-            // Todos los alumnos del curso
-            alumnos.addAll(tarea.getCurso().getAlumnos());
-        } else {
-            // Solo alumnos específicamente asignados
-            alumnos.addAll(tarea.getAlumnosAsignados());
-        }
+    // El documento puede estar ya en el DocumentStore o todavía en la columna heredada sin migrar;
+    // en ambos casos el tamaño está persistido, así que no hace falta leer el contenido.
+    // Un documento vacío (0 bytes) cuenta como que no hay documento, igual que con el contenido en la entidad
+    private boolean tieneDocumentoAlumno(EntregaEntity entrega) {
+        return entrega.getDocumentoSize() != null && entrega.getDocumentoSize() > 0;
+    }
+
+    private boolean tieneDocumentoProfesor(EntregaEntity entrega) {
+        return entrega.getDocumentoProfesorSize() != null && entrega.getDocumentoProfesorSize() > 0;
+    }
 
-        return alumnos;
+    private void descartarDocumentoProfesorHeredado(EntregaEntity entrega) {
+        if (entrega.getDocumentoProfesorClave() == null && entrega.getDocumentoProfesorSize() != null) {
+            documentoHeredadoRepository.descartarDocumentoProfesorEntrega(entrega.getId());
+        }
     }
 
+    // Permisos comprobados antes de escribir nada en disco; el fichero se guarda fuera de la transacción
+    private DocumentoAlmacenado ingerirDocumentoProfesor(Long entregaId, Long profesorId, MultipartFile documentoProfesor) throws IOException {
+        if (documentoProfesor == null || documentoProfesor.isEmpty()) {
+            return null;
+        }
+        if (!entregaRepository.existsById(entregaId)) {
+            throw new ValidationException("Entrega no encontrada con ID: " + entregaId);
+        }
+        if (!validarEntregaProfesor(entregaId, profesorId)) {
+            throw new ValidationException("El profesor no está autorizado para calificar esta entrega");
+        }
+        return documentoIngestaService.ingerir(documentoProfesor);
+    }
 
+    private void aplicarDocumentoProfesor(EntregaEntity entrega, DocumentoAlmacenado almacenado, String nombreArchivo) {
+        descartarDocumentoProfesorHeredado(entrega);
+        entrega.setDocumentoProfesorClave(almacenado.getClave());
+        entrega.setDocumentoProfesorSize(almacenado.getTamanho());
+        entrega.setNombreDocumentoProfesor(nombreArchivo);
+        entrega.setTipoDocumentoProfesor(almacenado.getTipoMime());
+    }
 
     // -- Implementaciones de métodos de validación -- //
 
     @Override
     public boolean validarEntregaAlumno(Long entregaId, Long alumnoId) {
-        Optional<EntregaEntity> entrega = entregaRepository.findById(entregaId);
-        return entrega.isPresent() && entrega.get().getAlumno().getId().equals(alumnoId);
+        return entregaRepository.existsByIdAndAlumnoId(entregaId, alumnoId);
     }
 
     @Override
     public boolean validarEntregaProfesor(Long entregaId, Long profesorId) {
-        Optional<EntregaEntity> entrega = entregaRepository.findById(entregaId);
-        return entrega.isPresent() && entrega.get().getTarea().getProfesor().getId().equals(profesorId);
+        return entregaRepository.existsByIdAndTareaProfesorId(entregaId, profesorId);
     }
 }
\ No newline at end of file
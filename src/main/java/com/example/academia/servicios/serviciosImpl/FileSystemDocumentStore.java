@@ -0,0 +1,128 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.DocumentoAlmacenado;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.servicios.DocumentStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación del DocumentStore sobre el sistema de ficheros local.
+ * Cada documento se guarda en {raiz}/ab/cd/{sha256}; el mismo contenido subido dos veces
+ * ocupa un único fichero.
+ */
+@Service
+@ConditionalOnProperty(name = "documentos.almacenamiento.tipo", havingValue = "local", matchIfMissing = true)
+public class FileSystemDocumentStore implements DocumentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSystemDocumentStore.class);
+    private static final Pattern CLAVE_VALIDA = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path directorioRaiz;
+    private final Path directorioTemporal;
+
+    public FileSystemDocumentStore(@Value("${documentos.almacenamiento.ruta:./data/documentos}") String ruta) {
+        this.directorioRaiz = Paths.get(ruta).toAbsolutePath().normalize();
+        this.directorioTemporal = directorioRaiz.resolve("tmp");
+    }
+
+    @PostConstruct
+    void inicializar() throws IOException {
+        Files.createDirectories(directorioTemporal);
+        log.info("DocumentStore local en {}", directorioRaiz);
+    }
+
+    @Override
+    public DocumentoAlmacenado guardar(InputStream contenido) throws IOException {
+        MessageDigest digest = nuevoDigest();
+        Path temporal = Files.createTempFile(directorioTemporal, "subida-", ".part");
+        try {
+            long tamanho;
+            try (DigestInputStream in = new DigestInputStream(contenido, digest);
+                 OutputStream out = Files.newOutputStream(temporal)) {
+                tamanho = in.transferTo(out);
+            }
+
+            String clave = HexFormat.of().formatHex(digest.digest());
+            Path destino = rutaPara(clave);
+
+            if (Files.exists(destino)) {
+                // Contenido ya almacenado: no duplicamos el fichero
+                Files.deleteIfExists(temporal);
+            } else {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Otra subida concurrente del mismo contenido ganó la carrera
+                    Files.deleteIfExists(temporal);
+                }
+            }
+            return new DocumentoAlmacenado(clave, tamanho);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream abrir(String clave) throws IOException {
+        try {
+            return Files.newInputStream(rutaPara(clave));
+        } catch (NoSuchFileException e) {
+            throw new ValidationException("Documento no encontrado en el almacén: " + clave);
+        }
+    }
+
+    @Override
+    public FileChannel abrirCanal(String clave) throws IOException {
+        try {
+            return FileChannel.open(rutaPara(clave), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new ValidationException("Documento no encontrado en el almacén: " + clave);
+        }
+    }
+
+    @Override
+    public boolean existe(String clave) {
+        return clave != null && CLAVE_VALIDA.matcher(clave).matches() && Files.exists(rutaPara(clave));
+    }
+
+    private Path rutaPara(String clave) {
+        if (clave == null || !CLAVE_VALIDA.matcher(clave).matches()) {
+            throw new ValidationException("Clave de documento no válida");
+        }
+        return directorioRaiz.resolve(clave.substring(0, 2))
+                .resolve(clave.substring(2, 4))
+                .resolve(clave);
+    }
+
+    private static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.repositorios.JobLockRepository;
+import com.example.academia.servicios.JobLockService;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class JobLockServiceImpl implements JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final String propietario;
+
+    public JobLockServiceImpl(JobLockRepository jobLockRepository) {
+        this.jobLockRepository = jobLockRepository;
+        this.propietario = nombreDelNodo() + ":" + UUID.randomUUID();
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public Optional<JobLock> adquirir(String nombre, Duration arrendamiento) {
+        jobLockRepository.crearSiNoExiste(nombre);
+        if (jobLockRepository.adquirir(nombre, propietario, arrendamiento.toMillis()) == 0) {
+            return Optional.empty();
+        }
+        return jobLockRepository.findToken(nombre, propietario)
+                .map(token -> new JobLock(nombre, propietario, token, arrendamiento));
+    }
+
+    @Override
+    @Transactional
+    public boolean renovar(JobLock bloqueo) {
+        return jobLockRepository.renovar(bloqueo.getNombre(), bloqueo.getPropietario(),
+                bloqueo.getToken(), bloqueo.getArrendamiento().toMillis()) == 1;
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void liberar(JobLock bloqueo) {
+        jobLockRepository.liberar(bloqueo.getNombre(), bloqueo.getPropietario(), bloqueo.getToken());
+    }
+
+    private static String nombreDelNodo() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "desconocido";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.repositorios.ListaEsperaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Posiciones de las listas de espera en memoria, por curso. Los alumnos en espera consultan su posición
+ * de forma periódica; cada consulta es una búsqueda en un mapa y solo la primera tras un cambio va a la base de datos.
+ * Mismo esquema que ListadoCache: cada curso tiene una versión que suben las altas, bajas y promociones,
+ * y una copia solo se sirve si se cargó con la versión actual. La caducidad (ttl-ms) cubre los cambios de otras réplicas.
+ */
+@Component
+public class ListaEsperaIndice {
+
+    record Cola(long version, long cargadaEn, Map<Long, Integer> posiciones) {
+
+        // 0 si el alumno no está en la lista
+        int posicion(Long alumnoId) {
+            return posiciones.getOrDefault(alumnoId, 0);
+        }
+
+        int enEspera() {
+            return posiciones.size();
+        }
+    }
+
+    private final ListaEsperaRepository listaEsperaRepository;
+    private final long ttlMs;
+    private final Map<Long, AtomicLong> versiones = new ConcurrentHashMap<>();
+    private final Map<Long, Cola> colas = new ConcurrentHashMap<>();
+
+    public ListaEsperaIndice(ListaEsperaRepository listaEsperaRepository,
+                             @Value("${lista-espera.indice.ttl-ms:30000}") long ttlMs) {
+        this.listaEsperaRepository = listaEsperaRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    Cola obtener(Long cursoId) {
+        Cola cola = vigente(cursoId);
+        if (cola != null) {
+            return cola;
+        }
+        // Una sola carga por curso a la vez: el resto de consultas espera y reutiliza su resultado
+        synchronized (version(cursoId)) {
+            cola = vigente(cursoId);
+            if (cola != null) {
+                return cola;
+            }
+            long version = version(cursoId).get();
+            List<Long> alumnos = listaEsperaRepository.findAlumnosEnEspera(cursoId);
+            Map<Long, Integer> posiciones = new HashMap<>(alumnos.size() * 2);
+            for (int i = 0; i < alumnos.size(); i++) {
+                posiciones.put(alumnos.get(i), i + 1);
+            }
+            cola = new Cola(version, System.currentTimeMillis(), Map.copyOf(posiciones));
+            // Si la lista cambió durante la carga, se sirve pero no se guarda
+            if (version(cursoId).get() == version) {
+                colas.put(cursoId, cola);
+            }
+            return cola;
+        }
+    }
+
+    // Igual que ListadoCache.invalidar: otra vez tras el commit, para no guardar una carga anterior a él
+    void invalidar(Long cursoId) {
+        subirVersion(cursoId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    subirVersion(cursoId);
+                }
+            });
+        }
+    }
+
+    private void subirVersion(Long cursoId) {
+        version(cursoId).incrementAndGet();
+        colas.remove(cursoId);
+    }
+
+    private Cola vigente(Long cursoId) {
+        Cola cola = colas.get(cursoId);
+        if (cola == null || cola.version() != version(cursoId).get()
+                || System.currentTimeMillis() - cola.cargadaEn() > ttlMs) {
+            return null;
+        }
+        return cola;
+    }
+
+    private AtomicLong version(Long cursoId) {
+        return versiones.computeIfAbsent(cursoId, id -> new AtomicLong());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Copia en memoria de los listados completos (/listar) que el frontend pide en casi cada pantalla.
+ * Cada listado tiene un número de versión que suben las escrituras de los servicios; una copia solo se sirve
+ * si se cargó con la versión actual. El ETag es el SHA-256 del JSON de la lista, así que dos cargas con
+ * los mismos datos dan el mismo ETag y el cliente sigue recibiendo 304.
+ * La caducidad (ttl-ms) cubre los cambios que no pasan por los servicios (otra réplica, SQL directo).
+ */
+@Component
+public class ListadoCache {
+
+    static final String CURSOS = "cursos";
+    static final String PROFESORES = "profesores";
+    static final String TAREAS = "tareas";
+
+    private static final Logger log = LoggerFactory.getLogger(ListadoCache.class);
+
+    private record Copia(long version, long cargadaEn, ListadoVersionadoDTO<?> listado) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long ttlMs;
+    private final Map<String, AtomicLong> versiones = new ConcurrentHashMap<>();
+    private final Map<String, Copia> copias = new ConcurrentHashMap<>();
+
+    public ListadoCache(ObjectMapper objectMapper,
+                        @Value("${listados.cache.ttl-ms:60000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttlMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> ListadoVersionadoDTO<T> obtener(String nombre, Supplier<List<T>> cargar) {
+        Copia copia = vigente(nombre);
+        if (copia != null) {
+            return (ListadoVersionadoDTO<T>) copia.listado();
+        }
+        // Una sola carga por listado a la vez: el resto de peticiones espera y reutiliza su resultado
+        synchronized (version(nombre)) {
+            copia = vigente(nombre);
+            if (copia != null) {
+                return (ListadoVersionadoDTO<T>) copia.listado();
+            }
+            long version = version(nombre).get();
+            List<T> contenido = List.copyOf(cargar.get());
+            ListadoVersionadoDTO<T> listado = new ListadoVersionadoDTO<>(contenido, calcularEtag(contenido));
+            // Si una escritura subió la versión durante la carga, la lista puede estar desfasada: se sirve pero no se guarda
+            if (version(nombre).get() == version) {
+                copias.put(nombre, new Copia(version, System.currentTimeMillis(), listado));
+            }
+            log.debug("Listado '{}' cargado: {} elementos, ETag {}", nombre, contenido.size(), listado.getEtag());
+            return listado;
+        }
+    }
+
+    /**
+     * Descarta las copias de los listados indicados. Dentro de una transacción la versión se sube otra vez
+     * tras el commit, para que no quede guardada una carga que leyó los datos antes de confirmarse.
+     */
+    void invalidar(String... nombres) {
+        subirVersion(nombres);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    subirVersion(nombres);
+                }
+            });
+        }
+    }
+
+    private void subirVersion(String... nombres) {
+        for (String nombre : nombres) {
+            version(nombre).incrementAndGet();
+            copias.remove(nombre);
+        }
+    }
+
+    private Copia vigente(String nombre) {
+        Copia copia = copias.get(nombre);
+        if (copia == null || copia.version() != version(nombre).get()
+                || System.currentTimeMillis() - copia.cargadaEn() > ttlMs) {
+            return null;
+        }
+        return copia;
+    }
+
+    private AtomicLong version(String nombre) {
+        return versiones.computeIfAbsent(nombre, n -> new AtomicLong());
+    }
+
+    private String calcularEtag(List<?> contenido) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(contenido));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular el ETag del listado", e);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO;
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO.ErrorFila;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.repositorios.AlumnoRepository;
+import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.PlazasCursoRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
+import com.example.academia.servicios.EntregaService;
+import com.example.academia.servicios.MatriculaMasivaService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Matrícula masiva (inicio de curso): los pares (cursoId, alumnoId) se leen en streaming y se procesan
+ * por lotes. Cada lote valida cursos, alumnos y matrículas existentes con tres consultas IN, inserta las
+ * nuevas en curso_alumnos con un batch JDBC (un INSERT de varias filas con rewriteBatchedStatements) y
+ * actualiza tarea_visibility con un INSERT ... SELECT. Un lote que falla entero no detiene los siguientes.
+ */
+@Service
+public class MatriculaMasivaServiceImpl implements MatriculaMasivaService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatriculaMasivaServiceImpl.class);
+
+    private static final String SQL_INSERTAR_MATRICULA =
+            "INSERT IGNORE INTO curso_alumnos (curso_id, alumno_id) VALUES (?, ?)";
+
+    private record Par(long fila, Long cursoId, Long alumnoId) {
+
+        Matricula matricula() {
+            return new Matricula(cursoId, alumnoId);
+        }
+    }
+
+    private record Matricula(Long cursoId, Long alumnoId) {
+    }
+
+    private record ResultadoLote(List<Par> creadas, long yaMatriculadas, List<ErrorFila> errores) {
+    }
+
+    private final CursoRepository cursoRepository;
+    private final AlumnoRepository alumnoRepository;
+    private final TareaVisibilidadRepository tareaVisibilidadRepository;
+    private final PlazasCursoRepository plazasCursoRepository;
+    private final CursosCache cursosCache;
+    private final EntregaService entregaService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanoLote;
+    private final int maximoErrores;
+
+    public MatriculaMasivaServiceImpl(CursoRepository cursoRepository,
+                                      AlumnoRepository alumnoRepository,
+                                      TareaVisibilidadRepository tareaVisibilidadRepository,
+                                      PlazasCursoRepository plazasCursoRepository,
+                                      CursosCache cursosCache,
+                                      EntregaService entregaService,
+                                      JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      ObjectMapper objectMapper,
+                                      @Value("${matriculas.masiva.tamano-lote:1000}") int tamanoLote,
+                                      @Value("${matriculas.masiva.maximo-errores:1000}") int maximoErrores) {
+        this.cursoRepository = cursoRepository;
+        this.alumnoRepository = alumnoRepository;
+        this.tareaVisibilidadRepository = tareaVisibilidadRepository;
+        this.plazasCursoRepository = plazasCursoRepository;
+        this.cursosCache = cursosCache;
+        this.entregaService = entregaService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.tamanoLote = tamanoLote;
+        this.maximoErrores = maximoErrores;
+    }
+
+    @Override
+    public MatriculaMasivaResultadoDTO matricularCsv(InputStream csv) throws IOException {
+        long inicio = System.currentTimeMillis();
+        MatriculaMasivaResultadoDTO resultado = new MatriculaMasivaResultadoDTO();
+        List<Par> lote = new ArrayList<>(tamanoLote);
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String linea;
+            long fila = 0;
+            while ((linea = lector.readLine()) != null) {
+                fila++;
+                // BOM de los CSV exportados desde Excel
+                if (fila == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                if (linea.isBlank()) {
+                    continue;
+                }
+
+                String[] campos = linea.split("[,;]");
+                Long cursoId = campos.length == 2 ? parsearId(campos[0]) : null;
+                Long alumnoId = campos.length == 2 ? parsearId(campos[1]) : null;
+                // Primera línea no numérica: cabecera
+                if (fila == 1 && cursoId == null && alumnoId == null) {
+                    continue;
+                }
+                resultado.setFilasLeidas(resultado.getFilasLeidas() + 1);
+                if (cursoId == null || alumnoId == null) {
+                    anotarError(resultado, new ErrorFila(fila, cursoId, alumnoId,
+                            "Formato no válido: se esperaba cursoId,alumnoId"));
+                    continue;
+                }
+
+                lote.add(new Par(fila, cursoId, alumnoId));
+                if (lote.size() == tamanoLote) {
+                    procesarLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+        }
+        procesarLote(lote, resultado);
+        return terminar(resultado, inicio);
+    }
+
+    @Override
+    public MatriculaMasivaResultadoDTO matricularJson(InputStream json) throws IOException {
+        long inicio = System.currentTimeMillis();
+        MatriculaMasivaResultadoDTO resultado = new MatriculaMasivaResultadoDTO();
+        List<Par> lote = new ArrayList<>(tamanoLote);
+
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (primerToken(parser) != JsonToken.START_ARRAY) {
+                throw new ValidationException("Se esperaba un array JSON de objetos {cursoId, alumnoId}");
+            }
+            // Posición del elemento que se está leyendo, también si el JSON se rompe a mitad de él
+            long fila = 1;
+            try {
+                for (JsonToken token; (token = parser.nextToken()) != JsonToken.END_ARRAY && token != null; fila++) {
+                    resultado.setFilasLeidas(fila);
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        anotarError(resultado, new ErrorFila(fila, null, null, "Se esperaba un objeto {cursoId, alumnoId}"));
+                        continue;
+                    }
+                    JsonNode nodo = parser.readValueAsTree();
+                    Long cursoId = idJson(nodo.get("cursoId"));
+                    Long alumnoId = idJson(nodo.get("alumnoId"));
+                    if (cursoId == null || alumnoId == null) {
+                        anotarError(resultado, new ErrorFila(fila, cursoId, alumnoId, "cursoId y alumnoId deben ser números enteros"));
+                        continue;
+                    }
+
+                    lote.add(new Par(fila, cursoId, alumnoId));
+                    if (lote.size() == tamanoLote) {
+                        procesarLote(lote, resultado);
+                        lote.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Con el JSON roto no se puede seguir leyendo: se guarda lo leído hasta aquí y se informa
+                anotarError(resultado, new ErrorFila(fila, null, null,
+                        "JSON no válido, importación detenida: " + e.getOriginalMessage()));
+            }
+        }
+        procesarLote(lote, resultado);
+        return terminar(resultado, inicio);
+    }
+
+    private void procesarLote(List<Par> lote, MatriculaMasivaResultadoDTO resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        try {
+            ResultadoLote parcial = transactionTemplate.execute(status -> matricularLote(lote));
+            resultado.setMatriculasCreadas(resultado.getMatriculasCreadas() + parcial.creadas().size());
+            resultado.setYaMatriculadas(resultado.getYaMatriculadas() + parcial.yaMatriculadas());
+            parcial.errores().forEach(error -> anotarError(resultado, error));
+        } catch (RuntimeException e) {
+            log.warn("Lote de matrícula masiva descartado (filas {}-{}): {}",
+                    lote.get(0).fila(), lote.get(lote.size() - 1).fila(), e.getMessage());
+            for (Par par : lote) {
+                anotarError(resultado, new ErrorFila(par.fila(), par.cursoId(), par.alumnoId(),
+                        "No se pudo guardar el lote: " + e.getMessage()));
+            }
+        }
+    }
+
+    // Dentro de la transacción del lote
+    private ResultadoLote matricularLote(List<Par> lote) {
+        Set<Long> cursoIds = lote.stream().map(Par::cursoId).collect(Collectors.toSet());
+        Set<Long> alumnoIds = lote.stream().map(Par::alumnoId).collect(Collectors.toSet());
+
+        // Las filas de los cursos del lote quedan bloqueadas hasta el commit: ninguna matrícula individual
+        // concurrente puede ocupar las plazas que se reparten aquí. Los cursos que no devuelve no existen.
+        // Va antes de cualquier escritura en curso_alumnos, el mismo orden que la matrícula individual:
+        // con el orden contrario, un lote y una matrícula del mismo curso podían interbloquearse.
+        Map<Long, Integer> plazasLibres = plazasCursoRepository.bloquearPlazasLibres(cursoIds);
+        Set<Long> alumnosExistentes = new HashSet<>(alumnoRepository.findIdsExistentes(alumnoIds));
+        Set<Matricula> matriculadas = cursoRepository.findMatriculas(cursoIds, alumnoIds).stream()
+                .map(fila -> new Matricula((Long) fila[0], (Long) fila[1]))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<Par> nuevas = new ArrayList<>();
+        List<ErrorFila> errores = new ArrayList<>();
+        long yaMatriculadas = 0;
+        for (Par par : lote) {
+            if (!plazasLibres.containsKey(par.cursoId())) {
+                errores.add(new ErrorFila(par.fila(), par.cursoId(), par.alumnoId(), "Curso no encontrado con ID: " + par.cursoId()));
+            } else if (!alumnosExistentes.contains(par.alumnoId())) {
+                errores.add(new ErrorFila(par.fila(), par.cursoId(), par.alumnoId(), "Alumno no encontrado con ID: " + par.alumnoId()));
+            } else if (!matriculadas.add(par.matricula())) {
+                // Ya matriculado, o repetido dentro del mismo fichero
+                yaMatriculadas++;
+            } else if (plazasLibres.get(par.cursoId()) == 0) {
+                // Plazas repartidas por orden de fila
+                errores.add(new ErrorFila(par.fila(), par.cursoId(), par.alumnoId(), "Curso completo"));
+            } else {
+                plazasLibres.merge(par.cursoId(), -1, Integer::sum);
+                nuevas.add(par);
+            }
+        }
+
+        if (!nuevas.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERTAR_MATRICULA, nuevas, nuevas.size(), (ps, par) -> {
+                ps.setLong(1, par.cursoId());
+                ps.setLong(2, par.alumnoId());
+            });
+            Map<Long, Long> altasPorCurso = nuevas.stream()
+                    .collect(Collectors.groupingBy(Par::cursoId, Collectors.counting()));
+            Set<Long> alumnosConAltas = nuevas.stream().map(Par::alumnoId).collect(Collectors.toSet());
+            tareaVisibilidadRepository.insertarPorMatriculas(altasPorCurso.keySet(), alumnosConAltas);
+            entregaService.generarEntregasVencidasPorMatricula(altasPorCurso.keySet(), alumnosConAltas);
+            altasPorCurso.forEach((cursoId, altas) -> {
+                // Con la fila bloqueada y las plazas ya contadas no puede fallar; si falla, se descarta el lote
+                if (!plazasCursoRepository.reservar(cursoId, altas.intValue())) {
+                    throw new IllegalStateException("Plazas del curso " + cursoId + " modificadas durante el lote");
+                }
+                cursosCache.desalojarAlumnosCurso(cursoId);
+                cursosCache.desalojarCurso(cursoId);
+            });
+        }
+        return new ResultadoLote(nuevas, yaMatriculadas, errores);
+    }
+
+    // Se cuentan todos los errores, pero solo se devuelven los primeros para acotar la respuesta
+    private void anotarError(MatriculaMasivaResultadoDTO resultado, ErrorFila error) {
+        resultado.setFilasConError(resultado.getFilasConError() + 1);
+        if (resultado.getErrores().size() < maximoErrores) {
+            resultado.getErrores().add(error);
+        }
+    }
+
+    private MatriculaMasivaResultadoDTO terminar(MatriculaMasivaResultadoDTO resultado, long inicio) {
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("Matrícula masiva: {} filas, {} matrículas nuevas, {} ya existentes, {} con error en {} ms",
+                resultado.getFilasLeidas(), resultado.getMatriculasCreadas(), resultado.getYaMatriculadas(),
+                resultado.getFilasConError(), resultado.getDuracionMs());
+        return resultado;
+    }
+
+    private static JsonToken primerToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Long parsearId(String campo) {
+        String valor = campo.strip();
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1).strip();
+        }
+        try {
+            long id = Long.parseLong(valor);
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long idJson(JsonNode nodo) {
+        if (nodo == null) {
+            return null;
+        }
+        if (nodo.canConvertToExactIntegral() && nodo.canConvertToLong()) {
+            long id = nodo.asLong();
+            return id > 0 ? id : null;
+        }
+        return nodo.isTextual() ? parsearId(nodo.asText()) : null;
+    }
+}
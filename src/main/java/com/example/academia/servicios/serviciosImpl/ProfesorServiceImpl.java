@@ -2,6 +2,7 @@ package com.example.academia.servicios.serviciosImpl;
 
 import com.example.academia.DTOs.Created.ProfesorCreateDTO;
 import com.example.academia.DTOs.Created.UsuarioCreateDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
 import com.example.academia.DTOs.Response.ProfesorResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.CursoSimpleDTO;
 import com.example.academia.Exceptions.ValidationException;
@@ -15,6 +16,8 @@ import com.example.academia.repositorios.UsuarioRepository;
 import com.example.academia.servicios.ProfesorService;
 import com.example.academia.validators.UsuarioValidator;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +34,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProfesorServiceImpl implements ProfesorService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProfesorServiceImpl.class);
+
     private final ProfesorRepository profesorRepository;
     private final UsuarioRepository usuarioRepository;
     private final UsuarioValidator usuarioValidator;
@@ -38,6 +43,7 @@ public class ProfesorServiceImpl implements ProfesorService {
     private final ProfesorMapper profesorMapper;
     private final CursoMapper cursoMapper;
     private final PasswordEncoder passwordEncoder;
+    private final ListadoCache listadoCache;
 
     private Pageable createPageable(int page, int size, String sort, String direction) {
         Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
@@ -59,10 +65,10 @@ public class ProfesorServiceImpl implements ProfesorService {
     }
 
     @Override
-    public List<ProfesorResponseDTO> findAllLista() {
-        return profesorRepository.findAll().stream()
+    public ListadoVersionadoDTO<ProfesorResponseDTO> findAllLista() {
+        return listadoCache.obtener(ListadoCache.PROFESORES, () -> profesorRepository.findAll().stream()
                 .map(profesorMapper::toProfesorResponseDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -103,6 +109,8 @@ public class ProfesorServiceImpl implements ProfesorService {
         ProfesorEntity profesorToUpdate = profesorMapper.toProfesorEntity(profesor);
         profesorToUpdate.setId(id);
         ProfesorEntity profesorActualizado = profesorRepository.save(profesorToUpdate);
+        // Las tareas del listado llevan el nombre del profesor
+        listadoCache.invalidar(ListadoCache.PROFESORES, ListadoCache.TAREAS);
 
         // Si se solicita sincronización, actualizar el usuario
         if (syncUsuario) {
@@ -125,6 +133,7 @@ public class ProfesorServiceImpl implements ProfesorService {
             // PASO 1: Crear y guardar el profesor (sin relaciones)
             ProfesorEntity profesorE = profesorMapper.toProfesorEntity(profesorDTO);
             ProfesorEntity profesorGuardado = profesorRepository.save(profesorE);
+            listadoCache.invalidar(ListadoCache.PROFESORES);
 
             // PASO 2: Crear usuario asociado si se proporciona
             if (profesorDTO.getUsuario() != null) {
@@ -164,17 +173,16 @@ public class ProfesorServiceImpl implements ProfesorService {
                 // Guardar usuario
                 UsuarioEntity usuarioGuardado = usuarioRepository.save(usuario);
 
-                System.out.println("✅ Usuario creado exitosamente: " + usuarioGuardado.getUsername());
+                log.info("✅ Usuario creado exitosamente: {}", usuarioGuardado.getUsername());
             }
 
             return profesorMapper.toProfesorResponseDTO(profesorGuardado);
 
         } catch (ValidationException e) {
-            System.err.println("❌ Error de validación: " + e.getMessage());
+            log.warn("❌ Error de validación: {}", e.getMessage());
             throw e;
         } catch (Exception e) {
-            System.err.println("❌ Error inesperado al crear profesor con usuario: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error inesperado al crear profesor con usuario: {}", e.getMessage(), e);
             throw new ValidationException("Error al crear profesor: " + e.getMessage());
         }
     }
@@ -207,6 +215,7 @@ public class ProfesorServiceImpl implements ProfesorService {
 
         // Eliminar profesor
         profesorRepository.deleteById(id);
+        listadoCache.invalidar(ListadoCache.PROFESORES, ListadoCache.TAREAS);
     }
 
     @Override
@@ -1,45 +1,74 @@
 package com.example.academia.servicios.serviciosImpl;
 
+import com.example.academia.DTOs.DocumentoAlmacenado;
 import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.DTOs.Response.ListadoVersionadoDTO;
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
 import com.example.academia.DTOs.Response.TareaResponseDTO;
 import com.example.academia.DTOs.SimpleDTO.TareaSimpleDTO;
 import com.example.academia.DTOs.TareaDTO;
 import com.example.academia.Exceptions.ValidationException;
 import com.example.academia.entidades.AlumnoEntity;
 import com.example.academia.entidades.CursoEntity;
+import com.example.academia.entidades.EntregaEntity;
 import com.example.academia.entidades.ProfesorEntity;
 import com.example.academia.entidades.TareaEntity;
+import com.example.academia.jobs.VencimientoScheduler;
 import com.example.academia.mappers.DocumentoMapper;
 import com.example.academia.mappers.TareaMapper;
 import com.example.academia.repositorios.AlumnoRepository;
 import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.DocumentoHeredadoRepository;
+import com.example.academia.repositorios.EntregaRepository;
 import com.example.academia.repositorios.ProfesorRepository;
 import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
+import com.example.academia.servicios.DocumentoIngestaService;
 import com.example.academia.servicios.TareaService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TareaServiceImpl implements TareaService {
 
+    private static final Logger log = LoggerFactory.getLogger(TareaServiceImpl.class);
+
     private final TareaRepository tareaRepository;
     private final ProfesorRepository profesorRepository;
     private final AlumnoRepository alumnoRepository;
     private final CursoRepository cursoRepository;
+    private final EntregaRepository entregaRepository;
     private final TareaMapper tareaMapper;
     private final DocumentoMapper documentoMapper;
+    private final DocumentoIngestaService documentoIngestaService;
+    private final DocumentoHeredadoRepository documentoHeredadoRepository;
+    private final VencimientoScheduler vencimientoScheduler;
+    private final ListadoCache listadoCache;
+    private final TareaVisibilidadRepository tareaVisibilidadRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Órdenes del listado del alumno que se resuelven solo con tarea_visibility (PK e índice alumno/fecha)
+    private static final Map<String, String> ORDEN_VISIBILIDAD = Map.of("id", "tareaId", "fechaLimite", "fechaLimite");
 
     private Pageable createPageable(int page, int size, String sort, String direction) {
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
@@ -49,73 +78,111 @@ public class TareaServiceImpl implements TareaService {
 
     @Override
     public Page<TareaResponseDTO> findAll(int page, int size, String sort, String direction) {
-        // Para listas grandes, usar método optimizado
-        if (size > 50) {
-            List<TareaEntity> tareas = tareaRepository.findAllWithAlumnos();
-            List<TareaResponseDTO> tareasDTO = tareas.stream()
-                    .map(tareaMapper::toTareaResponseDTO)
-                    .collect(Collectors.toList());
-
-            // Crear Page manualmente
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, tareasDTO.size());
-            List<TareaResponseDTO> pageContent = tareasDTO.subList(startIndex, endIndex);
-
-            return new PageImpl<>(pageContent, PageRequest.of(page, size), tareasDTO.size());
+        Pageable pageable = createPageable(page, size, sort, direction);
+        return paginarConRelaciones(tareaRepository.findPaginaIds(pageable));
+    }
+
+    // Paginación en dos fases: la página de IDs ya viene ordenada y limitada por la base de datos;
+    // las relaciones se cargan solo para esos IDs y se respeta el orden de la página
+    private Page<TareaResponseDTO> paginarConRelaciones(Page<Long> paginaIds) {
+        List<TareaResponseDTO> contenido = cargarConRelaciones(paginaIds.getContent()).stream()
+                .map(tareaMapper::toTareaResponseDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(conEstadisticas(contenido), paginaIds.getPageable(), paginaIds.getTotalElements());
+    }
+
+    // Tareas con sus relaciones, en el mismo orden que los IDs recibidos
+    private List<TareaEntity> cargarConRelaciones(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
+        Map<Long, TareaEntity> porId = tareaRepository.findAllWithRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TareaEntity::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 
-        // Para listas pequeñas, usar paginación normal
-        Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findAll(pageable).map(tareaMapper::toTareaResponseDTO);
+    // Estadísticas de entregas de toda la página en una sola consulta agrupada por tarea y estado,
+    // sin inicializar la colección de entregas de cada tarea
+    private List<TareaResponseDTO> conEstadisticas(List<TareaResponseDTO> tareas) {
+        if (tareas.isEmpty()) {
+            return tareas;
+        }
+        Map<Long, List<TareaResponseDTO>> porId = tareas.stream()
+                .collect(Collectors.groupingBy(TareaResponseDTO::getId));
+
+        for (Object[] fila : entregaRepository.contarEntregasPorTareaYEstado(porId.keySet())) {
+            int cantidad = ((Long) fila[2]).intValue();
+            boolean pendiente = fila[1] == EntregaEntity.EstadoEntrega.ENTREGADA;
+            for (TareaResponseDTO tarea : porId.get((Long) fila[0])) {
+                tarea.setTotalEntregas(tarea.getTotalEntregas() + cantidad);
+                if (pendiente) {
+                    tarea.setEntregasPendientes(tarea.getEntregasPendientes() + cantidad);
+                }
+            }
+        }
+        return tareas;
+    }
+
+    private Page<TareaResponseDTO> conEstadisticas(Page<TareaResponseDTO> tareas) {
+        conEstadisticas(tareas.getContent());
+        return tareas;
+    }
+
+    private TareaResponseDTO conEstadisticas(TareaResponseDTO tarea) {
+        conEstadisticas(List.of(tarea));
+        return tarea;
     }
 
     @Override
     public Optional<TareaResponseDTO> findById(Long id) {
-        return tareaRepository.findById(id).map(tareaMapper::toTareaResponseDTO);
+        return tareaRepository.findById(id).map(tareaMapper::toTareaResponseDTO).map(this::conEstadisticas);
     }
 
     @Override
-    public List<TareaSimpleDTO> findAllLista() {
-        return tareaRepository.findAll().stream()
+    public ListadoVersionadoDTO<TareaSimpleDTO> findAllLista() {
+        return listadoCache.obtener(ListadoCache.TAREAS, () -> tareaRepository.findAll().stream()
                 .map(tareaMapper::toTareaSimpleDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     public Page<TareaResponseDTO> findByNombre(String nombre, int page, int size, String sort, String direction) {
         Pageable pageable = createPageable(page, size, sort, direction);
         if (nombre != null && !nombre.trim().isEmpty()) {
-            return tareaRepository.findByNombreContainingIgnoreCase(nombre, pageable)
-                    .map(tareaMapper::toTareaResponseDTO);
+            return conEstadisticas(tareaRepository.findByNombreContainingIgnoreCase(nombre, pageable)
+                    .map(tareaMapper::toTareaResponseDTO));
         } else {
-            return tareaRepository.findAll(pageable).map(tareaMapper::toTareaResponseDTO);
+            return conEstadisticas(tareaRepository.findAll(pageable).map(tareaMapper::toTareaResponseDTO));
         }
     }
 
     @Override
     public Page<TareaResponseDTO> findByFechaLimiteAntes(LocalDate fecha, int page, int size, String sort, String direction) {
         Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findByFechaLimiteBefore(fecha, pageable)
-                .map(tareaMapper::toTareaResponseDTO);
+        return conEstadisticas(tareaRepository.findByFechaLimiteBefore(fecha, pageable)
+                .map(tareaMapper::toTareaResponseDTO));
     }
 
     @Override
     public Page<TareaResponseDTO> findByFechaLimiteDespues(LocalDate fecha, int page, int size, String sort, String direction) {
         Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findByFechaLimiteAfter(fecha, pageable)
-                .map(tareaMapper::toTareaResponseDTO);
+        return conEstadisticas(tareaRepository.findByFechaLimiteAfter(fecha, pageable)
+                .map(tareaMapper::toTareaResponseDTO));
     }
 
     @Override
     @Transactional
     public TareaResponseDTO saveTarea(TareaDTO tarea) {
-        System.out.println("🔧 [SAVE TAREA] Guardando tarea ID: " + tarea.getId());
+        log.debug("🔧 [SAVE TAREA] Guardando tarea ID: {}", tarea.getId());
 
         TareaEntity tareaEntity;
 
         if (tarea.getId() != null) {
             // ✅ ACTUALIZACIÓN: Cargar la tarea existente
-            System.out.println("🔄 [SAVE TAREA] Modo actualización - ID: " + tarea.getId());
+            log.debug("🔄 [SAVE TAREA] Modo actualización - ID: {}", tarea.getId());
 
             tareaEntity = tareaRepository.findById(tarea.getId())
                     .orElseThrow(() -> new ValidationException("Tarea no encontrada con ID: " + tarea.getId()));
@@ -126,33 +193,29 @@ public class TareaServiceImpl implements TareaService {
             tareaEntity.setFechaPublicacion(tarea.getFechaPublicacion());
             tareaEntity.setFechaLimite(tarea.getFechaLimite());
             tareaEntity.setParaTodosLosAlumnos(tarea.getParaTodosLosAlumnos());
+            // Fecha límite o alumnos pueden cambiar: el vencimiento se vuelve a evaluar
+            tareaEntity.setVencimientoProcesado(false);
 
             // ✅ ACTUALIZAR CURSO si ha cambiado
             if (tarea.getCursoId() != null && !tarea.getCursoId().equals(tareaEntity.getCurso().getId())) {
                 CursoEntity nuevoCurso = cursoRepository.findById(tarea.getCursoId())
                         .orElseThrow(() -> new ValidationException("Curso no encontrado con ID: " + tarea.getCursoId()));
                 tareaEntity.setCurso(nuevoCurso);
-                System.out.println("📚 [SAVE TAREA] Curso actualizado a: " + nuevoCurso.getNombre());
+                log.debug("📚 [SAVE TAREA] Curso actualizado a: {}", nuevoCurso.getNombre());
             }
 
             // ✅ ACTUALIZAR ALUMNOS ASIGNADOS
             if (Boolean.FALSE.equals(tarea.getParaTodosLosAlumnos()) &&
                     tarea.getAlumnosIds() != null && !tarea.getAlumnosIds().isEmpty()) {
 
-                System.out.println("👥 [SAVE TAREA] Actualizando alumnos específicos: " + tarea.getAlumnosIds().size());
+                log.debug("👥 [SAVE TAREA] Actualizando alumnos específicos: {}", tarea.getAlumnosIds().size());
 
-                Set<AlumnoEntity> nuevosAlumnos = new HashSet<>();
-                for (Long alumnoId : tarea.getAlumnosIds()) {
-                    AlumnoEntity alumno = alumnoRepository.findById(alumnoId)
-                            .orElseThrow(() -> new ValidationException("Alumno no encontrado con ID: " + alumnoId));
-                    nuevosAlumnos.add(alumno);
-                }
-                tareaEntity.setAlumnosAsignados(nuevosAlumnos);
+                tareaEntity.setAlumnosAsignados(cargarAlumnos(tarea.getAlumnosIds()));
 
             } else if (Boolean.TRUE.equals(tarea.getParaTodosLosAlumnos())) {
                 // Si es para todos, limpiar asignaciones específicas
                 tareaEntity.setAlumnosAsignados(new HashSet<>());
-                System.out.println("🌐 [SAVE TAREA] Limpiando asignaciones específicas - ahora es para todos");
+                log.debug("🌐 [SAVE TAREA] Limpiando asignaciones específicas - ahora es para todos");
             }
 
             // Mantener documento existente (se actualiza por separado)
@@ -160,7 +223,7 @@ public class TareaServiceImpl implements TareaService {
 
         } else {
             // ✅ CREACIÓN: Nueva tarea
-            System.out.println("🆕 [SAVE TAREA] Modo creación");
+            log.debug("🆕 [SAVE TAREA] Modo creación");
             tareaEntity = tareaMapper.toTareaEntityWithoutRelations(tarea);
 
             // Establecer curso
@@ -183,23 +246,31 @@ public class TareaServiceImpl implements TareaService {
 
         // Guardar
         TareaEntity savedTarea = tareaRepository.save(tareaEntity);
-        System.out.println("✅ [SAVE TAREA] Tarea guardada correctamente - ID: " + savedTarea.getId());
+        vencimientoScheduler.programar(savedTarea.getId(), savedTarea.getFechaLimite());
+        recalcularVisibilidad(savedTarea.getId());
+        listadoCache.invalidar(ListadoCache.TAREAS);
+        log.debug("✅ [SAVE TAREA] Tarea guardada correctamente - ID: {}", savedTarea.getId());
 
-        return tareaMapper.toTareaResponseDTO(savedTarea);
+        return conEstadisticas(tareaMapper.toTareaResponseDTO(savedTarea));
     }
 
     @Override
-    @Transactional
     public TareaResponseDTO uploadDocumento(Long tareaId, MultipartFile file) throws IOException {
-        TareaEntity tarea = tareaRepository.findById(tareaId)
-                .orElseThrow(() -> new ValidationException("Tarea no encontrada con ID: " + tareaId));
+        if (!tareaRepository.existsById(tareaId)) {
+            throw new ValidationException("Tarea no encontrada con ID: " + tareaId);
+        }
 
-        tarea.setDocumento(file.getBytes());
-        tarea.setNombreDocumento(file.getOriginalFilename());
-        tarea.setTipoDocumento(file.getContentType());
+        // El fichero se escribe fuera de la transacción; dentro solo se actualiza la fila
+        DocumentoAlmacenado almacenado = documentoIngestaService.ingerir(file);
+        return transactionTemplate.execute(status -> {
+            TareaEntity tarea = tareaRepository.findById(tareaId)
+                    .orElseThrow(() -> new ValidationException("Tarea no encontrada con ID: " + tareaId));
 
-        TareaEntity savedTarea = tareaRepository.save(tarea);
-        return tareaMapper.toTareaResponseDTO(savedTarea);
+            aplicarDocumento(tarea, almacenado, file.getOriginalFilename());
+
+            TareaEntity savedTarea = tareaRepository.save(tarea);
+            return conEstadisticas(tareaMapper.toTareaResponseDTO(savedTarea));
+        });
     }
 
     @Override
@@ -207,89 +278,134 @@ public class TareaServiceImpl implements TareaService {
         TareaEntity tarea = tareaRepository.findById(tareaId)
                 .orElseThrow(() -> new ValidationException("Tarea no encontrada con ID: " + tareaId));
 
-        if (tarea.getDocumento() == null || tarea.getDocumento().length == 0) {
+        boolean tieneDocumento = tarea.getDocumentoSize() != null && tarea.getDocumentoSize() > 0;
+        if (!tieneDocumento) {
             throw new ValidationException("La tarea no tiene documento");
         }
 
+        // En el DocumentStore: solo metadatos, el controlador lo sirve en streaming
+        if (tarea.getDocumentoClave() != null) {
+            return documentoMapper.toDocumentoDTO(
+                    tarea.getNombreDocumento(),
+                    tarea.getTipoDocumento(),
+                    tarea.getDocumentoClave(),
+                    tarea.getDocumentoSize()
+            );
+        }
+
+        // Documento heredado aún sin migrar: único camino que lee la columna LONGBLOB
         return documentoMapper.toDocumentoDTO(
                 tarea.getNombreDocumento(),
                 tarea.getTipoDocumento(),
-                tarea.getDocumento()
+                documentoHeredadoRepository.leerDocumentoTarea(tareaId)
         );
     }
 
+    // Los bytes ya están en el DocumentStore; la tarea solo guarda la clave, el tamaño y el tipo MIME
+    private void aplicarDocumento(TareaEntity tarea, DocumentoAlmacenado almacenado, String nombreArchivo) {
+        if (tarea.getId() != null && tarea.getDocumentoClave() == null && tarea.getDocumentoSize() != null) {
+            documentoHeredadoRepository.descartarDocumentoTarea(tarea.getId());
+        }
+        tarea.setDocumentoClave(almacenado.getClave());
+        tarea.setDocumentoSize(almacenado.getTamanho());
+        tarea.setNombreDocumento(nombreArchivo);
+        tarea.setTipoDocumento(almacenado.getTipoMime());
+    }
+
     @Override
+    @Transactional
     public void deleteTarea(Long id) {
+        tareaVisibilidadRepository.eliminarPorTarea(id);
         tareaRepository.deleteById(id);
+        vencimientoScheduler.cancelar(id);
+        listadoCache.invalidar(ListadoCache.TAREAS);
     }
 
     @Override
     public Page<TareaResponseDTO> findTareasProfesor(Long profesorId, int page, int size, String sort, String direction) {
-        // Para listas grandes, usar método optimizado sin paginación
-        if (size > 50) {
-            List<TareaEntity> tareas = tareaRepository.findByProfesorIdWithAlumnos(profesorId);
-            List<TareaResponseDTO> tareasDTO = tareas.stream()
-                    .map(tareaMapper::toTareaResponseDTO)
-                    .collect(Collectors.toList());
-
-            // Crear Page manualmente
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, tareasDTO.size());
-            List<TareaResponseDTO> pageContent = tareasDTO.subList(startIndex, endIndex);
-
-            return new PageImpl<>(pageContent, PageRequest.of(page, size), tareasDTO.size());
+        Pageable pageable = createPageable(page, size, sort, direction);
+        return paginarConRelaciones(tareaRepository.findPaginaIdsByProfesorId(profesorId, pageable));
+    }
+
+    @Override
+    public PaginaCursorDTO<TareaResponseDTO> findTareasProfesorCursor(Long profesorId, String cursor, int size) {
+        Pageable limite = PageRequest.of(0, CursorPaginacion.tamanoValido(size));
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+
+        // Seek sobre (fechaLimite, id): el coste de cada página no depende de lo lejos que esté
+        Slice<Long> ids;
+        if (posicion == null) {
+            ids = tareaRepository.findIdsByProfesorIdCursorInicio(profesorId, limite);
+        } else if (posicion.valor() == null) {
+            ids = tareaRepository.findIdsByProfesorIdCursorSinFechaDespuesDe(profesorId, posicion.id(), limite);
+            if (!ids.hasNext()) {
+                ids = completarConFecha(profesorId, ids, limite);
+            }
+        } else {
+            ids = tareaRepository.findIdsByProfesorIdCursorDespuesDe(
+                    profesorId, posicion.valorComo(LocalDate::parse), posicion.id(), limite);
         }
 
-        // Para listas pequeñas, usar paginación normal
-        Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findByProfesorId(profesorId, pageable)
-                .map(tareaMapper::toTareaResponseDTO);
+        List<TareaEntity> tareas = cargarConRelaciones(ids.getContent());
+        String siguienteCursor = null;
+        if (ids.hasNext() && !tareas.isEmpty()) {
+            TareaEntity ultima = tareas.get(tareas.size() - 1);
+            siguienteCursor = CursorPaginacion.codificar(ultima.getFechaLimite(), ultima.getId());
+        }
+
+        List<TareaResponseDTO> contenido = tareas.stream()
+                .map(tareaMapper::toTareaResponseDTO)
+                .collect(Collectors.toList());
+        return new PaginaCursorDTO<>(conEstadisticas(contenido), siguienteCursor, siguienteCursor != null);
+    }
+
+    // Las tareas sin fecha van al principio del orden: al acabarse, la página sigue con las fechadas
+    private Slice<Long> completarConFecha(Long profesorId, Slice<Long> sinFecha, Pageable limite) {
+        int restantes = limite.getPageSize() - sinFecha.getNumberOfElements();
+        Slice<Long> fechadas = tareaRepository.findIdsByProfesorIdCursorConFecha(
+                profesorId, PageRequest.of(0, Math.max(restantes, 1)));
+
+        List<Long> ids = new ArrayList<>(sinFecha.getContent());
+        ids.addAll(fechadas.getContent().subList(0, Math.min(restantes, fechadas.getNumberOfElements())));
+        boolean hayMas = restantes == 0 ? fechadas.hasContent() : fechadas.hasNext();
+        return new SliceImpl<>(ids, limite, hayMas);
     }
 
     @Override
     public Page<TareaResponseDTO> findTareasCurso(Long cursoId, int page, int size, String sort, String direction) {
         Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findByCursoId(cursoId, pageable)
-                .map(tareaMapper::toTareaResponseDTO);
+        return conEstadisticas(tareaRepository.findByCursoId(cursoId, pageable)
+                .map(tareaMapper::toTareaResponseDTO));
     }
 
     @Override
     public Page<TareaResponseDTO> findTareasAlumno(Long alumnoId, int page, int size, String sort, String direction) {
-        // Para listas grandes, usar método optimizado
-        if (size > 50) {
-            List<TareaEntity> tareas = tareaRepository.findTareasForAlumnoWithAlumnos(alumnoId);
-            List<TareaResponseDTO> tareasDTO = tareas.stream()
-                    .map(tareaMapper::toTareaResponseDTO)
-                    .collect(Collectors.toList());
-
-            // Crear Page manualmente
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, tareasDTO.size());
-            List<TareaResponseDTO> pageContent = tareasDTO.subList(startIndex, endIndex);
-
-            return new PageImpl<>(pageContent, PageRequest.of(page, size), tareasDTO.size());
-        }
-
-        // Para listas pequeñas, usar paginación normal
         Pageable pageable = createPageable(page, size, sort, direction);
-        return tareaRepository.findTareasForAlumno(alumnoId, pageable)
-                .map(tareaMapper::toTareaResponseDTO);
+        String columna = ORDEN_VISIBILIDAD.get(sort);
+        if (columna == null) {
+            return paginarConRelaciones(tareaRepository.findPaginaIdsForAlumno(alumnoId, pageable));
+        }
+        // Recorrido por rango de (alumno_id, ...) sin tocar la tabla de tareas hasta tener la página
+        Sort.Direction sentido = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort orden = Sort.by(sentido, columna).and(Sort.by(sentido, "tareaId"));
+        return paginarConRelaciones(tareaVisibilidadRepository.findPaginaTareaIds(alumnoId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), orden)));
     }
 
     @Override
     public List<TareaResponseDTO> findTareasByCursoForAlumno(Long cursoId, Long alumnoId) {
-        return tareaRepository.findTareasByCursoForAlumno(cursoId, alumnoId).stream()
+        return conEstadisticas(tareaRepository.findTareasByCursoForAlumno(cursoId, alumnoId).stream()
                 .map(tareaMapper::toTareaResponseDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     @Transactional
     public TareaResponseDTO createTarea(TareaDTO tareaDTO, Long profesorId) {
-        System.out.println("🔍 === INICIO createTarea OPTIMIZADO ===");
-        System.out.println("Profesor ID: " + profesorId);
-        System.out.println("Para todos: " + tareaDTO.getParaTodosLosAlumnos());
-        System.out.println("Alumnos IDs: " + tareaDTO.getAlumnosIds());
+        log.debug("🔍 === INICIO createTarea OPTIMIZADO ===");
+        log.debug("Profesor ID: {}", profesorId);
+        log.debug("Para todos: {}", tareaDTO.getParaTodosLosAlumnos());
+        log.debug("Alumnos IDs: {}", tareaDTO.getAlumnosIds());
 
         ProfesorEntity profesor = profesorRepository.findById(profesorId)
                 .orElseThrow(() -> new ValidationException("Profesor no encontrado con ID: " + profesorId));
@@ -310,48 +426,60 @@ public class TareaServiceImpl implements TareaService {
 
         validarFechas(tarea);
 
-        System.out.println("🔍 Tarea configurada - paraTodos: " + tarea.getParaTodosLosAlumnos());
+        log.debug("🔍 Tarea configurada - paraTodos: {}", tarea.getParaTodosLosAlumnos());
 
         // Si la tarea no es para todos, asignar alumnos específicos
         if (Boolean.FALSE.equals(tareaDTO.getParaTodosLosAlumnos()) &&
                 tareaDTO.getAlumnosIds() != null && !tareaDTO.getAlumnosIds().isEmpty()) {
 
-            System.out.println("🎯 ASIGNACIÓN ESPECÍFICA - Procesando " + tareaDTO.getAlumnosIds().size() + " alumnos");
-
-            Set<AlumnoEntity> alumnosAsignados = new HashSet<>();
-            for (Long alumnoId : tareaDTO.getAlumnosIds()) {
-                System.out.println("  📌 Procesando alumno ID: " + alumnoId);
-
-                AlumnoEntity alumno = alumnoRepository.findById(alumnoId)
-                        .orElseThrow(() -> new ValidationException("Alumno no encontrado con ID: " + alumnoId));
-
-                alumnosAsignados.add(alumno);
-                System.out.println("  ✅ Alumno agregado: " + alumno.getNombre() + " " + alumno.getApellido() + " (ID: " + alumno.getId() + ")");
-            }
+            log.debug("🎯 ASIGNACIÓN ESPECÍFICA - Procesando {} alumnos", tareaDTO.getAlumnosIds().size());
 
+            Set<AlumnoEntity> alumnosAsignados = cargarAlumnos(tareaDTO.getAlumnosIds());
             tarea.setAlumnosAsignados(alumnosAsignados);
-            System.out.println("✅ Total alumnos asignados específicamente: " + alumnosAsignados.size());
+            log.debug("✅ Total alumnos asignados específicamente: {}", alumnosAsignados.size());
         } else {
-            System.out.println("🌐 ASIGNACIÓN GLOBAL - Para todos los alumnos del curso");
+            log.debug("🌐 ASIGNACIÓN GLOBAL - Para todos los alumnos del curso");
         }
 
         TareaEntity savedTarea = tareaRepository.save(tarea);
-        System.out.println("💾 Tarea guardada con ID: " + savedTarea.getId());
+        log.debug("💾 Tarea guardada con ID: {}", savedTarea.getId());
+        vencimientoScheduler.programar(savedTarea.getId(), savedTarea.getFechaLimite());
+        recalcularVisibilidad(savedTarea.getId());
+        listadoCache.invalidar(ListadoCache.TAREAS);
 
         // ✅ VERIFICACIÓN POST-GUARDADO
-        System.out.println("🔍 === VERIFICACIÓN POST-GUARDADO ===");
-        System.out.println("ID: " + savedTarea.getId());
-        System.out.println("ParaTodos: " + savedTarea.getParaTodosLosAlumnos());
-        System.out.println("AlumnosAsignados count: " + (savedTarea.getAlumnosAsignados() != null ? savedTarea.getAlumnosAsignados().size() : 0));
+        log.debug("🔍 === VERIFICACIÓN POST-GUARDADO ===");
+        log.debug("ID: {}", savedTarea.getId());
+        log.debug("ParaTodos: {}", savedTarea.getParaTodosLosAlumnos());
+        log.debug("AlumnosAsignados count: {}", savedTarea.getAlumnosAsignados() != null ? savedTarea.getAlumnosAsignados().size() : 0);
 
-        if (savedTarea.getAlumnosAsignados() != null) {
+        if (log.isDebugEnabled() && savedTarea.getAlumnosAsignados() != null) {
             for (AlumnoEntity alumno : savedTarea.getAlumnosAsignados()) {
-                System.out.println("  - " + alumno.getNombre() + " " + alumno.getApellido() + " (ID: " + alumno.getId() + ")");
+                log.debug("  - {} {} (ID: {})", alumno.getNombre(), alumno.getApellido(), alumno.getId());
             }
         }
-        System.out.println("=====================================");
+        log.debug("=====================================");
 
-        return tareaMapper.toTareaResponseDTO(savedTarea);
+        return conEstadisticas(tareaMapper.toTareaResponseDTO(savedTarea));
+    }
+
+    // ✅ ASIGNACIÓN EN BLOQUE: todos los alumnos en un solo SELECT ... IN, y los que no existan se informan juntos.
+    // Las filas de tarea_alumnos se insertan en lotes JDBC (hibernate.jdbc.batch_size) al hacer flush.
+    private Set<AlumnoEntity> cargarAlumnos(Collection<Long> alumnosIds) {
+        Set<Long> ids = alumnosIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        List<AlumnoEntity> alumnos = alumnoRepository.findAllById(ids);
+        if (alumnos.size() != ids.size()) {
+            Set<Long> encontrados = alumnos.stream().map(AlumnoEntity::getId).collect(Collectors.toSet());
+            List<Long> noEncontrados = ids.stream().filter(id -> !encontrados.contains(id)).sorted().toList();
+            throw new ValidationException("Alumnos no encontrados con ID: " + noEncontrados);
+        }
+        return new HashSet<>(alumnos);
+    }
+
+    // Rehace las filas de tarea_visibility de la tarea (curso, alumnos asignados, paraTodos o fecha límite cambiados)
+    private void recalcularVisibilidad(Long tareaId) {
+        tareaVisibilidadRepository.eliminarPorTarea(tareaId);
+        tareaVisibilidadRepository.insertarPorTarea(tareaId);
     }
 
     private void validarFechas(TareaEntity tarea) {
@@ -373,8 +501,9 @@ public class TareaServiceImpl implements TareaService {
         TareaEntity tarea = tareaRepository.findById(tareaId)
                 .orElseThrow(() -> new ValidationException("Tarea no encontrada con ID: " + tareaId));
 
-        AlumnoEntity alumno = alumnoRepository.findById(alumnoId)
-                .orElseThrow(() -> new ValidationException("Alumno no encontrado con ID: " + alumnoId));
+        if (!alumnoRepository.existsById(alumnoId)) {
+            throw new ValidationException("Alumno no encontrado con ID: " + alumnoId);
+        }
 
         // ===== MODO DESARROLLO: VALIDACIONES COMENTADAS =====
         /*
@@ -387,17 +516,17 @@ public class TareaServiceImpl implements TareaService {
             throw new ValidationException("Esta tarea ya está asignada a todos los alumnos del curso");
         }
 
-        boolean yaAsignado = tarea.getAlumnosAsignados().stream()
-                .anyMatch(a -> a.getId().equals(alumnoId));
-
-        if (yaAsignado) {
+        // Una fila en tarea_alumnos, sin cargar los alumnos ya asignados
+        if (tareaRepository.insertarAlumnoAsignado(tareaId, alumnoId) == 0) {
             throw new ValidationException("El alumno ya tiene asignada esta tarea");
         }
+        tareaVisibilidadRepository.insertarPorAsignacion(tareaId, alumnoId);
 
-        tarea.getAlumnosAsignados().add(alumno);
+        tarea.setVencimientoProcesado(false);
         TareaEntity savedTarea = tareaRepository.save(tarea);
+        vencimientoScheduler.programar(savedTarea.getId(), savedTarea.getFechaLimite());
 
-        return tareaMapper.toTareaResponseDTO(savedTarea);
+        return conEstadisticas(tareaMapper.toTareaResponseDTO(savedTarea));
     }
 
     @Override
@@ -410,20 +539,12 @@ public class TareaServiceImpl implements TareaService {
             throw new ValidationException("No se puede desasignar a un alumno de una tarea asignada a todos");
         }
 
-        boolean estaAsignado = tarea.getAlumnosAsignados().stream()
-                .anyMatch(alumno -> alumno.getId().equals(alumnoId));
-
-        if (!estaAsignado) {
+        if (tareaRepository.eliminarAlumnoAsignado(tareaId, alumnoId) == 0) {
             throw new ValidationException("El alumno no tiene asignada esta tarea");
         }
+        tareaVisibilidadRepository.eliminarPorAsignacion(tareaId, alumnoId);
 
-        tarea.setAlumnosAsignados(tarea.getAlumnosAsignados().stream()
-                .filter(alumno -> !alumno.getId().equals(alumnoId))
-                .collect(Collectors.toSet()));
-
-        TareaEntity savedTarea = tareaRepository.save(tarea);
-
-        return tareaMapper.toTareaResponseDTO(savedTarea);
+        return conEstadisticas(tareaMapper.toTareaResponseDTO(tarea));
     }
 
     @Override
@@ -444,46 +565,54 @@ public class TareaServiceImpl implements TareaService {
     }
 
     public void debugTareaAsignacion(Long tareaId) {
+        // Solo tiene efecto con DEBUG activo: evita cargar las colecciones para nada
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         TareaEntity tarea = tareaRepository.findById(tareaId)
                 .orElseThrow(() -> new ValidationException("Tarea no encontrada"));
 
-        System.out.println("=== DEBUG TAREA ASIGNACIÓN ===");
-        System.out.println("Tarea ID: " + tarea.getId());
-        System.out.println("Nombre: " + tarea.getNombre());
-        System.out.println("Para todos: " + tarea.getParaTodosLosAlumnos());
-        System.out.println("Alumnos asignados: " + tarea.getAlumnosAsignados().size());
+        log.debug("=== DEBUG TAREA ASIGNACIÓN ===");
+        log.debug("Tarea ID: {}", tarea.getId());
+        log.debug("Nombre: {}", tarea.getNombre());
+        log.debug("Para todos: {}", tarea.getParaTodosLosAlumnos());
+        log.debug("Alumnos asignados: {}", tarea.getAlumnosAsignados().size());
 
         if (!tarea.getParaTodosLosAlumnos()) {
             tarea.getAlumnosAsignados().forEach(alumno ->
-                    System.out.println("- " + alumno.getNombre() + " " + alumno.getApellido() + " (ID: " + alumno.getId() + ")"));
+                    log.debug("- {} {} (ID: {})", alumno.getNombre(), alumno.getApellido(), alumno.getId()));
         }
 
-        System.out.println("Alumnos del curso: " + tarea.getCurso().getAlumnos().size());
+        log.debug("Alumnos del curso: {}", tarea.getCurso().getAlumnos().size());
         tarea.getCurso().getAlumnos().forEach(alumno ->
-                System.out.println("- " + alumno.getNombre() + " " + alumno.getApellido() + " (ID: " + alumno.getId() + ")"));
+                log.debug("- {} {} (ID: {})", alumno.getNombre(), alumno.getApellido(), alumno.getId()));
 
-        System.out.println("===============================");
+        log.debug("===============================");
     }
 
     @Override
-    @Transactional
     public TareaResponseDTO createTareaConDocumento(TareaDTO tareaDTO, Long profesorId, MultipartFile documento) throws IOException {
-        // Crear la tarea usando el método existente
-        TareaResponseDTO tareaCreada = this.createTarea(tareaDTO, profesorId);
+        // El documento se escribe antes de abrir la transacción que crea la tarea
+        DocumentoAlmacenado almacenado = documento != null && !documento.isEmpty()
+                ? documentoIngestaService.ingerir(documento)
+                : null;
 
-        // Si hay documento, agregarlo a la tarea recién creada
-        if (documento != null && !documento.isEmpty()) {
-            TareaEntity tarea = tareaRepository.findById(tareaCreada.getId())
-                    .orElseThrow(() -> new ValidationException("Tarea no encontrada después de crear"));
+        return transactionTemplate.execute(status -> {
+            // Crear la tarea usando el método existente
+            TareaResponseDTO tareaCreada = this.createTarea(tareaDTO, profesorId);
 
-            tarea.setDocumento(documento.getBytes());
-            tarea.setNombreDocumento(documento.getOriginalFilename());
-            tarea.setTipoDocumento(documento.getContentType());
+            // Si hay documento, agregarlo a la tarea recién creada
+            if (almacenado != null) {
+                TareaEntity tarea = tareaRepository.findById(tareaCreada.getId())
+                        .orElseThrow(() -> new ValidationException("Tarea no encontrada después de crear"));
 
-            TareaEntity tareaConDocumento = tareaRepository.save(tarea);
-            return tareaMapper.toTareaResponseDTO(tareaConDocumento);
-        }
+                aplicarDocumento(tarea, almacenado, documento.getOriginalFilename());
+
+                TareaEntity tareaConDocumento = tareaRepository.save(tarea);
+                return conEstadisticas(tareaMapper.toTareaResponseDTO(tareaConDocumento));
+            }
 
-        return tareaCreada;
+            return tareaCreada;
+        });
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import com.example.academia.mappers.UsuarioMapper;
 import com.example.academia.repositorios.AlumnoRepository;
 import com.example.academia.repositorios.ProfesorRepository;
 import com.example.academia.repositorios.UsuarioRepository;
+import com.example.academia.security.TokenRevocacionCache;
 import com.example.academia.servicios.UsuarioService;
 import com.example.academia.validators.UsuarioValidator;
 import jakarta.transaction.Transactional;
@@ -33,6 +34,8 @@ public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioValidator usuarioValidator;
     private final UsuarioMapper usuarioMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocacionCache tokenRevocacionCache;
+    private final ListadoCache listadoCache;
 
     @Override
     public Optional<UsuarioResponseDTO> findByUsername(String username) {
@@ -99,6 +102,8 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         usuarioValidator.validateRolRelations(usuarioEntity);
         UsuarioEntity savedUsuario = usuarioRepository.save(usuarioEntity);
+        // El listado de profesores indica el usuario de cada profesor
+        listadoCache.invalidar(ListadoCache.PROFESORES);
         return usuarioMapper.toUsuarioResponseDTO(savedUsuario);
     }
 
@@ -150,6 +155,8 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         // Guardar el usuario
         UsuarioEntity savedUsuario = usuarioRepository.save(usuarioEntity);
+        // El listado de profesores indica el usuario de cada profesor
+        listadoCache.invalidar(ListadoCache.PROFESORES);
         return usuarioMapper.toUsuarioResponseDTO(savedUsuario);
     }
 
@@ -233,7 +240,12 @@ public class UsuarioServiceImpl implements UsuarioService {
         // Validar relaciones según el rol
         usuarioValidator.validateRolRelations(usuarioEntity);
 
+        // Rol, relaciones, nombre o contraseña pueden haber cambiado: los tokens emitidos dejan de ser válidos
+        usuarioEntity.setTokenVersion(usuarioEntity.getTokenVersion() + 1);
+
         UsuarioEntity savedUsuario = usuarioRepository.save(usuarioEntity);
+        tokenRevocacionCache.invalidar(id);
+        listadoCache.invalidar(ListadoCache.PROFESORES);
         return usuarioMapper.toUsuarioResponseDTO(savedUsuario);
     }
 
@@ -241,6 +253,8 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Transactional
     public void deleteUsuario(Long id) {
         usuarioRepository.deleteById(id);
+        tokenRevocacionCache.invalidar(id);
+        listadoCache.invalidar(ListadoCache.PROFESORES);
     }
 
     @Override
@@ -289,6 +303,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         UsuarioEntity savedUsuario = usuarioRepository.save(usuarioEntity);
+        // El listado de profesores indica el usuario de cada profesor
+        listadoCache.invalidar(ListadoCache.PROFESORES);
         return usuarioMapper.toUsuarioResponseDTO(savedUsuario);
     }
 }
\ No newline at end of file
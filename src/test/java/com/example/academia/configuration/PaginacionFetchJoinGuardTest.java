@@ -0,0 +1,70 @@
+package com.example.academia.configuration;
+
+import jakarta.persistence.Entity;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.hql.HqlTranslator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El guard analiza el JPQL con el traductor HQL de Hibernate: la SessionFactory se construye con las
+ * entidades reales y sin conexión (no hace falta MySQL para traducir consultas).
+ */
+class PaginacionFetchJoinGuardTest {
+
+    private static SessionFactory sessionFactory;
+    private static HqlTranslator traductor;
+
+    @BeforeAll
+    static void construir() throws ClassNotFoundException {
+        Configuration configuracion = new Configuration()
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .setProperty("hibernate.cache.use_second_level_cache", "false");
+        ClassPathScanningCandidateComponentProvider escaner = new ClassPathScanningCandidateComponentProvider(false);
+        escaner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entidad : escaner.findCandidateComponents("com.example.academia.entidades")) {
+            configuracion.addAnnotatedClass(Class.forName(entidad.getBeanClassName()));
+        }
+        sessionFactory = configuracion.buildSessionFactory();
+        traductor = sessionFactory.unwrap(SessionFactoryImplementor.class).getQueryEngine().getHqlTranslator();
+    }
+
+    @AfterAll
+    static void cerrar() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void detectaElFetchDeUnaColeccionConOSinAlias() {
+        assertThat(coleccion("SELECT DISTINCT t FROM TareaEntity t LEFT JOIN FETCH t.alumnosAsignados LEFT JOIN FETCH t.curso"))
+                .isEqualTo("TareaEntity.alumnosAsignados");
+        assertThat(coleccion("select t from TareaEntity as t left join fetch t.alumnosAsignados as a"))
+                .isEqualTo("TareaEntity.alumnosAsignados");
+    }
+
+    @Test
+    void detectaElFetchDeUnaColeccionAnidada() {
+        assertThat(coleccion("SELECT e FROM EntregaEntity e JOIN FETCH e.tarea t LEFT JOIN FETCH t.alumnosAsignados"))
+                .isEqualTo("TareaEntity.alumnosAsignados");
+    }
+
+    @Test
+    void fetchDeAsociacionesSimplesYJoinSinFetchSonValidos() {
+        assertThat(coleccion("SELECT e FROM EntregaEntity e JOIN FETCH e.tarea JOIN FETCH e.alumno")).isNull();
+        assertThat(coleccion("SELECT t FROM TareaEntity t JOIN t.alumnosAsignados a WHERE a.id = :alumnoId")).isNull();
+        assertThat(coleccion("SELECT e.id FROM EntregaEntity e WHERE e.tarea.profesor.id = :profesorId")).isNull();
+    }
+
+    private static String coleccion(String jpql) {
+        return PaginacionFetchJoinGuard.coleccionConFetch(traductor.translate(jpql, null));
+    }
+}
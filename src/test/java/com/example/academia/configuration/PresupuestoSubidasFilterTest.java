@@ -0,0 +1,112 @@
+package com.example.academia.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El presupuesto se decide con el Content-Length, antes de que nadie lea el cuerpo: 411 sin longitud,
+ * 413 por encima del máximo, 503 con Retry-After si no queda presupuesto, y la reserva se libera al terminar.
+ */
+class PresupuestoSubidasFilterTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private PresupuestoSubidasFilter filtro;
+    private AtomicInteger llamadasCadena;
+
+    @BeforeEach
+    void setUp() {
+        filtro = new PresupuestoSubidasFilter(new ObjectMapper(), 1, DataSize.ofMegabytes(10), 7);
+        llamadasCadena = new AtomicInteger();
+    }
+
+    @Test
+    void subidaDentroDelPresupuestoPasaYLoLibera() throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(subida(MB / 2), respuesta, contando());
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+        filtro.doFilter(subida(MB), segunda, contando());
+
+        assertThat(llamadasCadena).hasValue(2);
+        assertThat(respuesta.getStatus()).isEqualTo(200);
+        assertThat(segunda.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void presupuestoAgotadoResponde503SinLlegarAlControlador() throws Exception {
+        AtomicReference<MockHttpServletResponse> rechazada = new AtomicReference<>();
+        // La primera subida ocupa el presupuesto mientras la segunda llega
+        FilterChain ocupando = (req, res) -> {
+            llamadasCadena.incrementAndGet();
+            MockHttpServletResponse respuesta = new MockHttpServletResponse();
+            filtro.doFilter(subida(MB / 2 + 1), respuesta, contando());
+            rechazada.set(respuesta);
+        };
+        filtro.doFilter(subida(MB / 2 + 1), new MockHttpServletResponse(), ocupando);
+
+        assertThat(llamadasCadena).hasValue(1);
+        assertThat(rechazada.get().getStatus()).isEqualTo(503);
+        assertThat(rechazada.get().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+        assertThat(rechazada.get().getHeader(HttpHeaders.CONNECTION)).isEqualTo("close");
+        assertThat(rechazada.get().getContentAsString()).contains("\"error\"");
+    }
+
+    @Test
+    void sinContentLengthResponde411() throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(subida(-1), respuesta, contando());
+
+        assertThat(respuesta.getStatus()).isEqualTo(411);
+        assertThat(llamadasCadena).hasValue(0);
+    }
+
+    @Test
+    void porEncimaDelMaximoResponde413() throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(subida(11 * MB), respuesta, contando());
+
+        assertThat(respuesta.getStatus()).isEqualTo(413);
+        assertThat(llamadasCadena).hasValue(0);
+    }
+
+    @Test
+    void peticionesQueNoSonMultipartNoSeFiltran() throws Exception {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", "/api/login");
+        peticion.setContentType("application/json");
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion, respuesta, contando());
+
+        assertThat(respuesta.getStatus()).isEqualTo(200);
+        assertThat(llamadasCadena).hasValue(1);
+    }
+
+    // Solo se declara la longitud (negativa = chunked): el filtro no debe leer el cuerpo
+    private MockHttpServletRequest subida(long longitud) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", "/api/entregas/1/documento") {
+            @Override
+            public long getContentLengthLong() {
+                return longitud;
+            }
+        };
+        peticion.setContentType("multipart/form-data; boundary=x");
+        return peticion;
+    }
+
+    private FilterChain contando() {
+        return (req, res) -> llamadasCadena.incrementAndGet();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.academia.controller;
+
+import com.example.academia.DTOs.DocumentoDTO;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.servicios.DocumentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Respuestas de descarga: documento completo, Range de un solo tramo, rango no satisfacible (416),
+ * If-Range que no coincide, If-None-Match (304) y documento inexistente (ValidationException antes de construir
+ * la respuesta). El DocumentStore se simula con un fichero temporal.
+ */
+class DocumentoDescargaResponderTest {
+
+    private static final String CLAVE = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String ETAG = "\"" + CLAVE + "\"";
+    private static final byte[] CONTENIDO = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directorio;
+
+    private DocumentStore documentStore;
+    private DocumentoDescargaResponder responder;
+    private DocumentoDTO documento;
+    private final List<FileChannel> abiertos = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() throws IOException {
+        Path fichero = Files.write(directorio.resolve(CLAVE), CONTENIDO);
+        documentStore = mock(DocumentStore.class);
+        when(documentStore.abrirCanal(CLAVE)).thenAnswer(inv -> {
+            FileChannel canal = FileChannel.open(fichero);
+            abiertos.add(canal);
+            return canal;
+        });
+        responder = new DocumentoDescargaResponder(documentStore);
+        documento = new DocumentoDTO("apuntes.pdf", "application/pdf", null, CLAVE, (long) CONTENIDO.length);
+    }
+
+    @Test
+    void sinRangeDevuelveElDocumentoCompleto() throws IOException {
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, new HttpHeaders());
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(respuesta.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(respuesta.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(respuesta.getHeaders().getContentLength()).isEqualTo(CONTENIDO.length);
+        assertThat(leer(respuesta)).isEqualTo(CONTENIDO);
+        // El cuerpo cierra el canal abierto al construir la respuesta
+        assertThat(abiertos).singleElement().matches(canal -> !canal.isOpen());
+    }
+
+    @Test
+    void rangoUnicoDevuelveSoloEseTramo() throws IOException {
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.set(HttpHeaders.RANGE, "bytes=5-9");
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 5-9/20");
+        assertThat(respuesta.getHeaders().getContentLength()).isEqualTo(5);
+        assertThat(new String(leer(respuesta), StandardCharsets.US_ASCII)).isEqualTo("56789");
+    }
+
+    @Test
+    void rangoFinalYRangoQueSePasaDelFinal() throws IOException {
+        HttpHeaders sufijo = new HttpHeaders();
+        sufijo.set(HttpHeaders.RANGE, "bytes=-4");
+        ResponseEntity<StreamingResponseBody> ultimos = responder.responder(documento, sufijo);
+        assertThat(ultimos.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 16-19/20");
+        assertThat(new String(leer(ultimos), StandardCharsets.US_ASCII)).isEqualTo("ghij");
+
+        HttpHeaders abierto = new HttpHeaders();
+        abierto.set(HttpHeaders.RANGE, "bytes=18-100");
+        ResponseEntity<StreamingResponseBody> recortado = responder.responder(documento, abierto);
+        assertThat(recortado.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 18-19/20");
+        assertThat(new String(leer(recortado), StandardCharsets.US_ASCII)).isEqualTo("ij");
+    }
+
+    @Test
+    void rangoFueraDelDocumentoDevuelve416() throws IOException {
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.set(HttpHeaders.RANGE, "bytes=20-30");
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(respuesta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */20");
+        assertThat(respuesta.getBody()).isNull();
+        assertThat(abiertos).singleElement().matches(canal -> !canal.isOpen());
+    }
+
+    @Test
+    void ifRangeQueCoincideAtiendeElRange() throws IOException {
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.set(HttpHeaders.RANGE, "bytes=0-3");
+        peticion.set(HttpHeaders.IF_RANGE, ETAG);
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(new String(leer(respuesta), StandardCharsets.US_ASCII)).isEqualTo("0123");
+    }
+
+    @Test
+    void ifRangeQueNoCoincideDevuelveElDocumentoCompleto() throws IOException {
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.set(HttpHeaders.RANGE, "bytes=0-3");
+        peticion.set(HttpHeaders.IF_RANGE, "\"otra-version\"");
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(respuesta.getHeaders().containsKey(HttpHeaders.CONTENT_RANGE)).isFalse();
+        assertThat(leer(respuesta)).isEqualTo(CONTENIDO);
+    }
+
+    @Test
+    void ifNoneMatchConLaClaveActualDevuelve304SinAbrirElFichero() throws IOException {
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.setIfNoneMatch(ETAG);
+        peticion.set(HttpHeaders.RANGE, "bytes=0-3");
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(documento, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(respuesta.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(respuesta.getBody()).isNull();
+        verify(documentStore, never()).abrirCanal(CLAVE);
+    }
+
+    @Test
+    void documentoHeredadoEnMemoriaTambienAdmiteRange() throws IOException {
+        DocumentoDTO heredado = new DocumentoDTO("antiguo.txt", "text/plain", CONTENIDO);
+        HttpHeaders peticion = new HttpHeaders();
+        peticion.set(HttpHeaders.RANGE, "bytes=10-12");
+
+        ResponseEntity<StreamingResponseBody> respuesta = responder.responder(heredado, peticion);
+
+        assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(respuesta.getHeaders().getETag()).isNull();
+        assertThat(new String(leer(respuesta), StandardCharsets.US_ASCII)).isEqualTo("abc");
+    }
+
+    @Test
+    void ficheroQueFaltaEnElAlmacenFallaAntesDeConstruirLaRespuesta() throws IOException {
+        DocumentoDTO perdido = new DocumentoDTO("perdido.pdf", "application/pdf", null, "0".repeat(64), 10L);
+        when(documentStore.abrirCanal("0".repeat(64))).thenThrow(new ValidationException("Documento no encontrado"));
+
+        assertThatThrownBy(() -> responder.responder(perdido, new HttpHeaders()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void documentoHeredadoSinContenidoNiClaveEsValidationException() {
+        DocumentoDTO vacio = new DocumentoDTO("antiguo.txt", "text/plain", null);
+
+        assertThatThrownBy(() -> responder.responder(vacio, new HttpHeaders()))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static byte[] leer(ResponseEntity<StreamingResponseBody> respuesta) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        respuesta.getBody().writeTo(salida);
+        return salida.toByteArray();
+    }
+}
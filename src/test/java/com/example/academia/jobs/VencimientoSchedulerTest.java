@@ -0,0 +1,134 @@
+package com.example.academia.jobs;
+
+import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.servicios.EntregaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Ventana acotada de vencimientos en memoria y cambios aplicados solo al confirmar (sin base de datos)
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VencimientoSchedulerTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Mock private TareaRepository tareaRepository;
+    @Mock private EntregaService entregaService;
+
+    @InjectMocks
+    private VencimientoScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "ventanaDias", 2);
+        ReflectionTestUtils.setField(scheduler, "maximoCarga", 3);
+        when(tareaRepository.findVencimientosPendientesHasta(any(), any(Pageable.class))).thenReturn(List.of());
+        when(tareaRepository.findVencimientosPendientesEntre(any(), any(), any(Pageable.class))).thenReturn(List.of());
+        when(entregaService.generarEntregasVencidas(anyCollection())).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void laCargaInicialSoloLeeLaVentana() {
+        scheduler.cargar();
+
+        verify(tareaRepository).findVencimientosPendientesHasta(eq(HOY.plusDays(2)), eq(Pageable.ofSize(3)));
+        assertThat(ReflectionTestUtils.getField(scheduler, "horizonte")).isEqualTo(HOY.plusDays(2));
+    }
+
+    @Test
+    void cargaTruncadaDejaElHorizonteEnLaUltimaFechaCompletaYAmpliaDespues() {
+        when(tareaRepository.findVencimientosPendientesHasta(any(), any(Pageable.class)))
+                .thenReturn(filas(fila(1L, HOY.minusDays(2)), fila(2L, HOY.minusDays(1)), fila(3L, HOY.minusDays(1))));
+
+        scheduler.cargar();
+
+        // La tarea 3 comparte fecha con la última leída: puede haber más ese día y se relee al ampliar
+        assertThat(ReflectionTestUtils.getField(scheduler, "horizonte")).isEqualTo(HOY.minusDays(2));
+        scheduler.procesarVencidas();
+        verify(tareaRepository).findVencimientosPendientesEntre(eq(HOY.minusDays(2)), eq(HOY.plusDays(2)), any(Pageable.class));
+        verify(entregaService).generarEntregasVencidas(List.of(1L));
+    }
+
+    @Test
+    void programarMasAllaDelHorizonteNoOcupaMemoria() {
+        scheduler.cargar();
+
+        scheduler.programar(1L, HOY.plusDays(30));
+
+        scheduler.procesarVencidas();
+        verify(entregaService, never()).generarEntregasVencidas(anyCollection());
+        assertThat(vigentes()).doesNotContainKey(1L);
+    }
+
+    @Test
+    void dentroDeUnaTransaccionSeAplicaAlConfirmar() {
+        scheduler.cargar();
+        TransactionSynchronizationManager.initSynchronization();
+
+        scheduler.programar(1L, HOY.minusDays(1));
+        assertThat(vigentes()).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(vigentes()).containsKey(1L);
+    }
+
+    @Test
+    void unRollbackNoDejaEntradasNiCancela() {
+        scheduler.cargar();
+        scheduler.programar(1L, HOY.minusDays(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        scheduler.programar(2L, HOY.minusDays(1));
+        scheduler.cancelar(1L);
+        // Rollback: no se llama a afterCommit
+        TransactionSynchronizationManager.clearSynchronization();
+
+        scheduler.procesarVencidas();
+        verify(entregaService).generarEntregasVencidas(List.of(1L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, LocalDate> vigentes() {
+        return (Map<Long, LocalDate>) ReflectionTestUtils.getField(scheduler, "vigentes");
+    }
+
+    private static Object[] fila(Long tareaId, LocalDate fechaLimite) {
+        return new Object[]{tareaId, fechaLimite};
+    }
+
+    private static List<Object[]> filas(Object[]... filas) {
+        return new ArrayList<>(List.of(filas));
+    }
+}
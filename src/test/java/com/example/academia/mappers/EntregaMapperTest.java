@@ -0,0 +1,45 @@
+package com.example.academia.mappers;
+
+import com.example.academia.entidades.EntregaEntity;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// tieneDocumento sale del tamaño persistido: un documento de 0 bytes cuenta como que no hay documento
+@ExtendWith(MockitoExtension.class)
+class EntregaMapperTest {
+
+    @Mock private TareaMapper tareaMapper;
+    @Mock private AlumnoMapper alumnoMapper;
+
+    @InjectMocks
+    private EntregaMapperImpl entregaMapper;
+
+    @ParameterizedTest
+    @CsvSource(nullValues = "null", value = {
+            // clave, tamaño, tiene documento
+            "abc, 120, true",
+            "null, 120, true",   // heredado sin migrar: solo el tamaño
+            "abc, 0, false",     // fichero vacío
+            "null, 0, false",
+            "null, null, false"
+    })
+    void tieneDocumentoSegunElTamano(String clave, Long tamano, boolean esperado) {
+        EntregaEntity entrega = new EntregaEntity();
+        entrega.setEstado(EntregaEntity.EstadoEntrega.ENTREGADA);
+        entrega.setDocumentoClave(clave);
+        entrega.setDocumentoSize(tamano);
+        entrega.setDocumentoProfesorClave(clave);
+        entrega.setDocumentoProfesorSize(tamano);
+
+        var dto = entregaMapper.toEntregaResponseDTO(entrega);
+
+        assertThat(dto.isTieneDocumento()).isEqualTo(esperado);
+        assertThat(dto.isTieneDocumentoProfesor()).isEqualTo(esperado);
+    }
+}
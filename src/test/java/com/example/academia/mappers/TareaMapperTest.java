@@ -0,0 +1,38 @@
+package com.example.academia.mappers;
+
+import com.example.academia.entidades.TareaEntity;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// tieneDocumento sale del tamaño persistido: un documento de 0 bytes cuenta como que no hay documento
+@ExtendWith(MockitoExtension.class)
+class TareaMapperTest {
+
+    @Mock private CursoMapper cursoMapper;
+    @Mock private ProfesorMapper profesorMapper;
+    @Mock private AlumnoMapper alumnoMapper;
+
+    @InjectMocks
+    private TareaMapperImpl tareaMapper;
+
+    @ParameterizedTest
+    @CsvSource(nullValues = "null", value = {
+            "abc, 120, true",
+            "null, 120, true",
+            "abc, 0, false",
+            "null, null, false"
+    })
+    void tieneDocumentoSegunElTamano(String clave, Long tamano, boolean esperado) {
+        TareaEntity tarea = new TareaEntity();
+        tarea.setDocumentoClave(clave);
+        tarea.setDocumentoSize(tamano);
+
+        assertThat(tareaMapper.toTareaResponseDTO(tarea).isTieneDocumento()).isEqualTo(esperado);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.academia.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Caché de tokens verificados por segmento de firma (sin contexto de Spring)
+class JwtUtilTest {
+
+    private static final String SECRETO = "claveDePruebaParaFirmarTokensJwtConHs256DeAlMenos32Bytes";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRETO, 100);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 60_000L);
+    }
+
+    @Test
+    void elMismoTokenSaleDeLaCache() {
+        String token = jwtUtil.generateToken("profesor1", "Profesor", 3L, null);
+
+        TokenVerificado primero = jwtUtil.verificar(token);
+
+        assertThat(jwtUtil.verificar(token)).isSameAs(primero);
+        assertThat(primero.getUsername()).isEqualTo("profesor1");
+        assertThat(primero.getProfesorId()).isEqualTo(3L);
+    }
+
+    @Test
+    void firmaCacheadaConOtroPayloadNoSeReutiliza() {
+        String token = jwtUtil.generateToken("alumno1", "Alumno", null, 5L);
+        jwtUtil.verificar(token);
+
+        // Mismo segmento de firma, payload cambiado: tiene que volver a verificarse y fallar
+        String[] partes = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(partes[1]), StandardCharsets.UTF_8)
+                .replace("\"Alumno\"", "\"Admin\"");
+        String manipulado = partes[0] + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + partes[2];
+
+        assertThatThrownBy(() -> jwtUtil.verificar(manipulado)).isInstanceOf(RuntimeException.class);
+        assertThat(jwtUtil.validateToken(manipulado)).isFalse();
+        assertThat(jwtUtil.extractRole(token)).isEqualTo("Alumno");
+    }
+}
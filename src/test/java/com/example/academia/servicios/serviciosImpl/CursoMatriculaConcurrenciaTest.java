@@ -0,0 +1,214 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.Created.CursoCreateDTO;
+import com.example.academia.Exceptions.CursoCompletoException;
+import com.example.academia.entidades.AlumnoEntity;
+import com.example.academia.entidades.CursoEntity;
+import com.example.academia.repositorios.AlumnoRepository;
+import com.example.academia.servicios.CursoService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matrículas y bajas simultáneas sobre la base de datos real (MySQL, como contextLoads):
+ * ni sobreventa de plazas ni nadie que adelante a la lista de espera. Solo con mvn test -Pmysql.
+ */
+@Tag("mysql")
+@SpringBootTest
+class CursoMatriculaConcurrenciaTest {
+
+    private static final int HILOS = 8;
+
+    @Autowired
+    private CursoService cursoService;
+
+    @Autowired
+    private AlumnoRepository alumnoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> cursosCreados = new ArrayList<>();
+    private final List<Long> alumnosCreados = new ArrayList<>();
+
+    @AfterEach
+    void limpiar() {
+        for (Long cursoId : cursosCreados) {
+            jdbcTemplate.update("DELETE FROM lista_espera WHERE curso_id = ?", cursoId);
+            jdbcTemplate.update("DELETE FROM curso_alumnos WHERE curso_id = ?", cursoId);
+            jdbcTemplate.update("DELETE FROM cursos WHERE id = ?", cursoId);
+        }
+        for (Long alumnoId : alumnosCreados) {
+            jdbcTemplate.update("DELETE FROM tarea_visibility WHERE alumno_id = ?", alumnoId);
+            jdbcTemplate.update("DELETE FROM alumnos WHERE id = ?", alumnoId);
+        }
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void matriculasYBajasSimultaneasNoSobrevendenNiAdelantanALaLista() throws Exception {
+        Long cursoId = crearCurso(5);
+        List<Long> primeros = crearAlumnos(30);
+
+        Resultado llegada = enParalelo(primeros, alumnoId -> cursoService.enrollAlumnoInCurso(cursoId, alumnoId));
+        assertThat(llegada.inesperados).isEmpty();
+        assertThat(llegada.matriculados).hasSize(5);
+        assertThat(llegada.enEspera).hasSize(25);
+        comprobarContadores(cursoId, 5);
+        List<Long> ordenDeEspera = listaDeEspera(cursoId);
+
+        // Se van los 5 matriculados mientras llegan 10 alumnos nuevos
+        List<Long> nuevos = crearAlumnos(10);
+        List<Runnable> operaciones = new ArrayList<>();
+        Resultado segundaRonda = new Resultado();
+        for (Long alumnoId : llegada.matriculados) {
+            operaciones.add(() -> segundaRonda.ejecutar(alumnoId, id -> cursoService.unenrollAlumnoFromCurso(cursoId, id)));
+        }
+        for (Long alumnoId : nuevos) {
+            operaciones.add(() -> segundaRonda.ejecutar(alumnoId, id -> cursoService.enrollAlumnoInCurso(cursoId, id)));
+        }
+        ejecutarALaVez(operaciones);
+
+        assertThat(segundaRonda.inesperados).isEmpty();
+        // Las 5 plazas liberadas son de los 5 primeros que esperaban, en orden de llegada
+        assertThat(matriculados(cursoId)).containsExactlyInAnyOrderElementsOf(ordenDeEspera.subList(0, 5));
+        assertThat(segundaRonda.enEspera).containsExactlyInAnyOrderElementsOf(nuevos);
+        comprobarContadores(cursoId, 5);
+        assertThat(listaDeEspera(cursoId)).hasSize(20 + nuevos.size());
+    }
+
+    @Test
+    void plazaLiberadaNoSeLaLlevaUnRecienLlegado() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            Long cursoId = crearCurso(1);
+            List<Long> alumnos = crearAlumnos(3);
+            Long matriculado = alumnos.get(0);
+            Long esperando = alumnos.get(1);
+            Long recienLlegado = alumnos.get(2);
+            cursoService.enrollAlumnoInCurso(cursoId, matriculado);
+            try {
+                cursoService.enrollAlumnoInCurso(cursoId, esperando);
+            } catch (CursoCompletoException e) {
+                assertThat(e.getPosicion()).isEqualTo(1);
+            }
+
+            Resultado resultado = new Resultado();
+            ejecutarALaVez(List.of(
+                    () -> resultado.ejecutar(matriculado, id -> cursoService.unenrollAlumnoFromCurso(cursoId, id)),
+                    () -> resultado.ejecutar(recienLlegado, id -> cursoService.enrollAlumnoInCurso(cursoId, id))));
+
+            assertThat(resultado.inesperados).isEmpty();
+            assertThat(matriculados(cursoId)).containsExactly(esperando);
+            assertThat(listaDeEspera(cursoId)).containsExactly(recienLlegado);
+            comprobarContadores(cursoId, 1);
+        }
+    }
+
+    private void comprobarContadores(Long cursoId, int capacidad) {
+        int filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM curso_alumnos WHERE curso_id = ?", Integer.class, cursoId);
+        int inscritos = jdbcTemplate.queryForObject("SELECT inscritos FROM cursos WHERE id = ?", Integer.class, cursoId);
+        assertThat(inscritos).isEqualTo(filas);
+        assertThat(filas).isLessThanOrEqualTo(capacidad);
+        // Con gente esperando no puede quedar ninguna plaza libre
+        if (!listaDeEspera(cursoId).isEmpty()) {
+            assertThat(filas).isEqualTo(capacidad);
+        }
+    }
+
+    private List<Long> listaDeEspera(Long cursoId) {
+        return jdbcTemplate.queryForList("SELECT alumno_id FROM lista_espera WHERE curso_id = ? ORDER BY id", Long.class, cursoId);
+    }
+
+    private List<Long> matriculados(Long cursoId) {
+        return jdbcTemplate.queryForList("SELECT alumno_id FROM curso_alumnos WHERE curso_id = ?", Long.class, cursoId);
+    }
+
+    private Long crearCurso(int capacidad) {
+        Long id = cursoService.saveCurso(new CursoCreateDTO("Concurrencia " + UUID.randomUUID(), "Prueba",
+                CursoEntity.NivelCurso.Básico, 0.0, capacidad)).getId();
+        cursosCreados.add(id);
+        return id;
+    }
+
+    private List<Long> crearAlumnos(int cantidad) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            AlumnoEntity alumno = new AlumnoEntity();
+            alumno.setNombre("Alumno " + i);
+            alumno.setApellido("Concurrencia");
+            ids.add(alumnoRepository.save(alumno).getId());
+        }
+        alumnosCreados.addAll(ids);
+        return ids;
+    }
+
+    private Resultado enParalelo(List<Long> alumnos, Consumer<Long> operacion) throws InterruptedException {
+        Resultado resultado = new Resultado();
+        List<Runnable> operaciones = new ArrayList<>();
+        for (Long alumnoId : alumnos) {
+            operaciones.add(() -> resultado.ejecutar(alumnoId, operacion));
+        }
+        ejecutarALaVez(operaciones);
+        return resultado;
+    }
+
+    // Todas las operaciones salen a la vez de la misma barrera
+    private static void ejecutarALaVez(List<Runnable> operaciones) throws InterruptedException {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            for (Runnable operacion : operaciones) {
+                ejecutor.submit(() -> {
+                    salida.await();
+                    operacion.run();
+                    return null;
+                });
+            }
+            salida.countDown();
+        } finally {
+            ejecutor.shutdown();
+            assertThat(ejecutor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private static final class Resultado {
+        final Set<Long> matriculados = Collections.synchronizedSet(new HashSet<>());
+        final Set<Long> enEspera = Collections.synchronizedSet(new HashSet<>());
+        // Cualquier otra excepción (interbloqueo, plazas incoherentes) hace fallar la prueba
+        final ConcurrentLinkedQueue<Throwable> inesperados = new ConcurrentLinkedQueue<>();
+
+        void ejecutar(Long alumnoId, Consumer<Long> operacion) {
+            try {
+                operacion.accept(alumnoId);
+                matriculados.add(alumnoId);
+            } catch (CursoCompletoException e) {
+                enEspera.add(alumnoId);
+            } catch (Throwable e) {
+                inesperados.add(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.Exceptions.CursoCompletoException;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.entidades.CursoEntity;
+import com.example.academia.entidades.ListaEsperaEntity;
+import com.example.academia.mappers.AlumnoMapper;
+import com.example.academia.mappers.CursoMapper;
+import com.example.academia.mappers.ProfesorMapper;
+import com.example.academia.mappers.TareaMapper;
+import com.example.academia.repositorios.AlumnoRepository;
+import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.ListaEsperaRepository;
+import com.example.academia.repositorios.PlazasCursoRepository;
+import com.example.academia.repositorios.ProfesorRepository;
+import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
+import com.example.academia.servicios.EntregaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Lista de espera y orden de bloqueo de matrículas y bajas (sin base de datos)
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CursoServiceImplListaEsperaTest {
+
+    private static final Long CURSO_ID = 1L;
+
+    @Mock private CursoRepository cursoRepository;
+    @Mock private ProfesorRepository profesorRepository;
+    @Mock private AlumnoRepository alumnoRepository;
+    @Mock private CursoMapper cursoMapper;
+    @Mock private ProfesorMapper profesorMapper;
+    @Mock private AlumnoMapper alumnoMapper;
+    @Mock private ListadoCache listadoCache;
+    @Mock private TareaVisibilidadRepository tareaVisibilidadRepository;
+    @Mock private CursosCache cursosCache;
+    @Mock private PlazasCursoRepository plazasCursoRepository;
+    @Mock private ListaEsperaRepository listaEsperaRepository;
+    @Mock private ListaEsperaIndice listaEsperaIndice;
+    @Mock private TareaRepository tareaRepository;
+    @Mock private TareaMapper tareaMapper;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private EntregaService entregaService;
+
+    @InjectMocks
+    private CursoServiceImpl cursoService;
+
+    @BeforeEach
+    void setUp() {
+        CursoEntity curso = new CursoEntity();
+        curso.setId(CURSO_ID);
+        when(cursoRepository.findById(CURSO_ID)).thenReturn(Optional.of(curso));
+        when(alumnoRepository.existsById(anyLong())).thenReturn(true);
+        when(plazasCursoRepository.reservar(eq(CURSO_ID), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void matriculaSinListaDeEsperaReservaConElUpdateSinForUpdate() {
+        when(cursoRepository.insertarAlumno(CURSO_ID, 10L)).thenReturn(1);
+
+        cursoService.enrollAlumnoInCurso(CURSO_ID, 10L);
+
+        // El UPDATE condicional bloquea la fila del curso antes de escribir en curso_alumnos
+        InOrder orden = inOrder(plazasCursoRepository, cursoRepository, tareaVisibilidadRepository);
+        orden.verify(plazasCursoRepository).reservar(CURSO_ID, 1);
+        orden.verify(cursoRepository).insertarAlumno(CURSO_ID, 10L);
+        orden.verify(tareaVisibilidadRepository).insertarPorMatricula(CURSO_ID, 10L);
+        verify(plazasCursoRepository, never()).bloquear(anyLong());
+        // Entregas FUERA_PLAZO de las tareas del curso que vencieron antes de la matrícula
+        verify(entregaService).generarEntregasVencidasPorMatricula(List.of(CURSO_ID), List.of(10L));
+        verify(listaEsperaRepository, never()).apuntar(anyLong(), anyLong());
+    }
+
+    @Test
+    void yaMatriculadoEnElCaminoRapidoFallaYDeshaceLaReserva() {
+        when(cursoRepository.insertarAlumno(CURSO_ID, 10L)).thenReturn(0);
+
+        // La ValidationException hace rollback de la transacción, reserva incluida
+        assertThatThrownBy(() -> cursoService.enrollAlumnoInCurso(CURSO_ID, 10L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("ya está matriculado");
+        verify(tareaVisibilidadRepository, never()).insertarPorMatricula(anyLong(), anyLong());
+    }
+
+    @Test
+    void conListaDeEsperaBloqueaAntesDeReservar() {
+        when(listaEsperaRepository.existsByCursoId(CURSO_ID)).thenReturn(true);
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(2));
+        // Quien esperaba acaba de abandonar la lista: no hay nadie a quien promover
+        when(listaEsperaRepository.findPrimeroParaPromover(CURSO_ID)).thenReturn(Optional.empty());
+        when(cursoRepository.insertarAlumno(CURSO_ID, 10L)).thenReturn(1);
+
+        cursoService.enrollAlumnoInCurso(CURSO_ID, 10L);
+
+        InOrder orden = inOrder(plazasCursoRepository, listaEsperaRepository, cursoRepository);
+        orden.verify(plazasCursoRepository).bloquear(CURSO_ID);
+        orden.verify(listaEsperaRepository).findPrimeroParaPromover(CURSO_ID);
+        orden.verify(plazasCursoRepository).reservar(CURSO_ID, 1);
+        orden.verify(cursoRepository).insertarAlumno(CURSO_ID, 10L);
+        verify(plazasCursoRepository, times(1)).reservar(CURSO_ID, 1);
+    }
+
+    @Test
+    void bajaBloqueaElCursoAntesDeBorrarDeCursoAlumnos() {
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(0));
+        when(cursoRepository.eliminarAlumno(CURSO_ID, 10L)).thenReturn(1);
+
+        cursoService.unenrollAlumnoFromCurso(CURSO_ID, 10L);
+
+        InOrder orden = inOrder(plazasCursoRepository, cursoRepository);
+        orden.verify(plazasCursoRepository).bloquear(CURSO_ID);
+        orden.verify(cursoRepository).eliminarAlumno(CURSO_ID, 10L);
+        orden.verify(plazasCursoRepository).liberar(CURSO_ID, 1);
+    }
+
+    @Test
+    void cursoCompletoApuntaEnListaDeEsperaSinMatricular() {
+        when(plazasCursoRepository.reservar(CURSO_ID, 1)).thenReturn(false);
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(0));
+        when(cursoRepository.isAlumnoEnrolledInCurso(CURSO_ID, 10L)).thenReturn(false);
+        when(listaEsperaRepository.findPosicion(CURSO_ID, 10L)).thenReturn(0L, 3L);
+
+        assertThatThrownBy(() -> cursoService.enrollAlumnoInCurso(CURSO_ID, 10L))
+                .isInstanceOfSatisfying(CursoCompletoException.class, e -> assertThat(e.getPosicion()).isEqualTo(3));
+
+        verify(listaEsperaRepository).apuntar(CURSO_ID, 10L);
+        verify(listaEsperaIndice).invalidar(CURSO_ID);
+        verify(cursoRepository, never()).insertarAlumno(anyLong(), anyLong());
+        // Solo el intento del camino rápido, que no encontró plaza
+        verify(plazasCursoRepository, times(1)).reservar(anyLong(), anyInt());
+        InOrder orden = inOrder(plazasCursoRepository, listaEsperaRepository);
+        orden.verify(plazasCursoRepository).reservar(CURSO_ID, 1);
+        orden.verify(plazasCursoRepository).bloquear(CURSO_ID);
+        orden.verify(listaEsperaRepository).apuntar(CURSO_ID, 10L);
+    }
+
+    @Test
+    void quienYaEsperaRecibeSuPosicionSinEscribir() {
+        when(listaEsperaRepository.findPosicion(CURSO_ID, 10L)).thenReturn(2L);
+
+        assertThatThrownBy(() -> cursoService.enrollAlumnoInCurso(CURSO_ID, 10L))
+                .isInstanceOfSatisfying(CursoCompletoException.class, e -> assertThat(e.getPosicion()).isEqualTo(2));
+
+        verify(plazasCursoRepository, never()).bloquear(anyLong());
+        verify(plazasCursoRepository, never()).reservar(anyLong(), anyInt());
+        verify(listaEsperaRepository, never()).apuntar(anyLong(), anyLong());
+    }
+
+    @Test
+    void cursoCompletoYYaMatriculadoNoApuntaEnLaLista() {
+        when(plazasCursoRepository.reservar(CURSO_ID, 1)).thenReturn(false);
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(0));
+        when(cursoRepository.isAlumnoEnrolledInCurso(CURSO_ID, 10L)).thenReturn(true);
+
+        assertThatThrownBy(() -> cursoService.enrollAlumnoInCurso(CURSO_ID, 10L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("ya está matriculado");
+        verify(listaEsperaRepository, never()).apuntar(anyLong(), anyLong());
+    }
+
+    @Test
+    void bajaPromueveAlPrimeroDeLaLista() {
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(0));
+        when(cursoRepository.eliminarAlumno(CURSO_ID, 10L)).thenReturn(1);
+        when(listaEsperaRepository.findPrimeroParaPromover(CURSO_ID))
+                .thenReturn(Optional.of(enEspera(100L, 20L)))
+                .thenReturn(Optional.of(enEspera(101L, 21L)));
+        // Solo queda la plaza liberada: el segundo de la lista sigue esperando
+        when(plazasCursoRepository.reservar(CURSO_ID, 1)).thenReturn(true, false);
+        when(cursoRepository.insertarAlumno(CURSO_ID, 20L)).thenReturn(1);
+
+        cursoService.unenrollAlumnoFromCurso(CURSO_ID, 10L);
+
+        InOrder orden = inOrder(plazasCursoRepository, listaEsperaRepository, cursoRepository, tareaVisibilidadRepository);
+        orden.verify(plazasCursoRepository).liberar(CURSO_ID, 1);
+        orden.verify(listaEsperaRepository).findPrimeroParaPromover(CURSO_ID);
+        orden.verify(plazasCursoRepository).reservar(CURSO_ID, 1);
+        orden.verify(listaEsperaRepository).eliminarPorId(100L);
+        orden.verify(cursoRepository).insertarAlumno(CURSO_ID, 20L);
+        orden.verify(tareaVisibilidadRepository).insertarPorMatricula(CURSO_ID, 20L);
+        verify(entregaService).generarEntregasVencidasPorMatricula(List.of(CURSO_ID), List.of(20L));
+        verify(listaEsperaRepository, never()).eliminarPorId(101L);
+        verify(cursoRepository, never()).insertarAlumno(CURSO_ID, 21L);
+        verify(listaEsperaIndice).invalidar(CURSO_ID);
+    }
+
+    @Test
+    void promocionSaltaAQuienYaEstabaMatriculadoYSigueConElSiguiente() {
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(0));
+        when(cursoRepository.eliminarAlumno(CURSO_ID, 10L)).thenReturn(1);
+        when(listaEsperaRepository.findPrimeroParaPromover(CURSO_ID))
+                .thenReturn(Optional.of(enEspera(100L, 20L)))
+                .thenReturn(Optional.of(enEspera(101L, 21L)))
+                .thenReturn(Optional.empty());
+        when(cursoRepository.insertarAlumno(CURSO_ID, 20L)).thenReturn(0);
+        when(cursoRepository.insertarAlumno(CURSO_ID, 21L)).thenReturn(1);
+
+        cursoService.unenrollAlumnoFromCurso(CURSO_ID, 10L);
+
+        verify(listaEsperaRepository).eliminarPorId(100L);
+        verify(listaEsperaRepository).eliminarPorId(101L);
+        // La plaza reservada para el 20 se devuelve y la ocupa el 21
+        verify(plazasCursoRepository, times(2)).liberar(CURSO_ID, 1);
+        verify(tareaVisibilidadRepository, never()).insertarPorMatricula(CURSO_ID, 20L);
+        verify(tareaVisibilidadRepository).insertarPorMatricula(CURSO_ID, 21L);
+    }
+
+    @Test
+    void plazaLibreConGenteEsperandoEsParaLaLista() {
+        // Una plaza libre (p. ej. tras una matrícula masiva) y alguien esperando: el recién llegado no adelanta
+        when(plazasCursoRepository.bloquear(CURSO_ID)).thenReturn(Optional.of(1));
+        when(listaEsperaRepository.existsByCursoId(CURSO_ID)).thenReturn(true);
+        // La plaza se la lleva el 20; para el 10 ya no queda
+        when(plazasCursoRepository.reservar(CURSO_ID, 1)).thenReturn(true, false);
+        when(listaEsperaRepository.findPrimeroParaPromover(CURSO_ID))
+                .thenReturn(Optional.of(enEspera(100L, 20L)))
+                .thenReturn(Optional.empty());
+        when(cursoRepository.insertarAlumno(CURSO_ID, 20L)).thenReturn(1);
+        when(cursoRepository.isAlumnoEnrolledInCurso(CURSO_ID, 10L)).thenReturn(false);
+
+        assertThatThrownBy(() -> cursoService.enrollAlumnoInCurso(CURSO_ID, 10L))
+                .isInstanceOf(CursoCompletoException.class);
+
+        verify(cursoRepository).insertarAlumno(CURSO_ID, 20L);
+        verify(cursoRepository, never()).insertarAlumno(CURSO_ID, 10L);
+        verify(listaEsperaRepository).apuntar(CURSO_ID, 10L);
+    }
+
+    private static ListaEsperaEntity enEspera(Long id, Long alumnoId) {
+        return new ListaEsperaEntity(id, CURSO_ID, alumnoId, LocalDateTime.now());
+    }
+}
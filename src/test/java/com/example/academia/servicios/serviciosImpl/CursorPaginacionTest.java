@@ -0,0 +1,97 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.Exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPaginacionTest {
+
+    @Test
+    void idaYVueltaConFechaYHora() {
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 15, 10, 30, 5, 123_000_000);
+
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(CursorPaginacion.codificar(fecha, 42L));
+
+        assertThat(posicion.id()).isEqualTo(42L);
+        LocalDateTime leida = posicion.valorComo(LocalDateTime::parse);
+        assertThat(leida).isEqualTo(fecha);
+    }
+
+    @Test
+    void idaYVueltaConFechaYConTextoQueContieneElSeparador() {
+        CursorPaginacion.Posicion fecha = CursorPaginacion.decodificar(CursorPaginacion.codificar(LocalDate.of(2024, 1, 31), 7L));
+        LocalDate leida = fecha.valorComo(LocalDate::parse);
+        assertThat(leida).isEqualTo(LocalDate.of(2024, 1, 31));
+
+        CursorPaginacion.Posicion texto = CursorPaginacion.decodificar(CursorPaginacion.codificar("Álgebra ~ I", 8L));
+        assertThat(texto.valor()).isEqualTo("Álgebra ~ I");
+        assertThat(texto.id()).isEqualTo(8L);
+    }
+
+    @Test
+    void elTokenEsSeguroEnUnaUrl() {
+        String cursor = CursorPaginacion.codificar("??>>~~", Long.MAX_VALUE);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void valorDeOrdenNuloSeConservaNulo() {
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(CursorPaginacion.codificar(null, 5L));
+
+        assertThat(posicion.valor()).isNull();
+        assertThat(posicion.id()).isEqualTo(5L);
+        LocalDateTime leida = posicion.valorComo(LocalDateTime::parse);
+        assertThat(leida).isNull();
+    }
+
+    @Test
+    void sinCursorEsLaPrimeraPagina() {
+        assertThat(CursorPaginacion.decodificar(null)).isNull();
+        assertThat(CursorPaginacion.decodificar("  ")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"no es base64!", "%%%", "a"})
+    void cursorQueNoEsBase64SeRechaza(String cursor) {
+        assertThatThrownBy(() -> CursorPaginacion.decodificar(cursor))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sin separador", "2024-01-01~", "2024-01-01~abc", "~", "2024-01-01~null"})
+    void cursorConContenidoMalFormadoSeRechaza(String contenido) {
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CursorPaginacion.decodificar(cursor))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+
+    @Test
+    void valorQueNoSeConvierteSeRechaza() {
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(CursorPaginacion.codificar("no-es-una-fecha", 1L));
+
+        assertThatThrownBy(() -> posicion.valorComo(LocalDateTime::parse))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+
+    @Test
+    void tamanoDePaginaAcotado() {
+        assertThat(CursorPaginacion.tamanoValido(0)).isEqualTo(1);
+        assertThat(CursorPaginacion.tamanoValido(-5)).isEqualTo(1);
+        assertThat(CursorPaginacion.tamanoValido(20)).isEqualTo(20);
+        assertThat(CursorPaginacion.tamanoValido(1000)).isEqualTo(CursorPaginacion.TAMANO_MAXIMO);
+    }
+}
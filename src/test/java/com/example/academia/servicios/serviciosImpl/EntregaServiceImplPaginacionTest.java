@@ -0,0 +1,73 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.mappers.EntregaMapper;
+import com.example.academia.repositorios.EntregaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Listados paginados por IDs: el Sort pedido llega a la consulta y solo se admiten los órdenes de la lista
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EntregaServiceImplPaginacionTest {
+
+    @Mock private EntregaRepository entregaRepository;
+    @Mock private EntregaMapper entregaMapper;
+
+    @InjectMocks
+    private EntregaServiceImpl entregaService;
+
+    @BeforeEach
+    void setUp() {
+        when(entregaRepository.findPaginaIds(any(Pageable.class))).thenAnswer(inv -> Page.empty(inv.getArgument(0)));
+        when(entregaRepository.findPaginaIdsByProfesorId(anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> Page.empty(inv.getArgument(1)));
+    }
+
+    @Test
+    void elOrdenPedidoLlegaALaConsultaConDesempatePorId() {
+        entregaService.findEntregasByProfesor(1L, 2, 20, "fechaEntrega", "desc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(entregaRepository).findPaginaIdsByProfesorId(any(), pageable.capture());
+        assertThat(pageable.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageable.getValue().getSort())
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "fechaEntrega").and(Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Test
+    void porDefectoOrdenaPorId() {
+        entregaService.findAll(0, 10, "", "asc");
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(entregaRepository).findPaginaIds(pageable.capture());
+        assertThat(pageable.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    @Test
+    void ordenNoAdmitidoEsValidationExceptionSinConsultar() {
+        assertThatThrownBy(() -> entregaService.findAll(0, 10, "tarea.profesor.password", "asc"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("tarea.profesor.password");
+
+        verify(entregaRepository, never()).findPaginaIds(any());
+    }
+}
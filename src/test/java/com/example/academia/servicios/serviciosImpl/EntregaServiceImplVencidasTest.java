@@ -0,0 +1,105 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.Exceptions.BloqueoPerdidoException;
+import com.example.academia.repositorios.EntregaRepository;
+import com.example.academia.repositorios.TareaRepository;
+import com.example.academia.servicios.JobLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Generación de entregas vencidas bajo el bloqueo JOB_VENCIDAS: fencing por lote (sin base de datos)
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EntregaServiceImplVencidasTest {
+
+    private static final JobLock BLOQUEO = new JobLock("entregas-vencidas", "nodo-a", 7, Duration.ofMinutes(5));
+
+    @Mock private EntregaRepository entregaRepository;
+    @Mock private TareaRepository tareaRepository;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private JobLockService jobLockService;
+
+    @InjectMocks
+    private EntregaServiceImpl entregaService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(entregaService, "tamanoLoteVencidas", 2);
+        ReflectionTestUtils.setField(entregaService, "arrendamientoVencidasMs", 300_000L);
+        when(jobLockService.adquirir(eq("entregas-vencidas"), any())).thenReturn(Optional.of(BLOQUEO));
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Dos lotes llenos y un tercero vacío
+        when(tareaRepository.findIdsVencidasSinProcesar(any(LocalDate.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L, 4L))
+                .thenReturn(List.of());
+        when(entregaRepository.insertarVencidasParaTodoElCurso(anyCollection(), any(), anyString())).thenReturn(5);
+    }
+
+    @Test
+    void conElBloqueoVigenteProcesaTodosLosLotesYLoLibera() {
+        when(jobLockService.renovar(BLOQUEO)).thenReturn(true);
+
+        var resultado = entregaService.generarEntregasAutomaticasPorVencimiento();
+
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getTareasProcesadas()).isEqualTo(4);
+        verify(tareaRepository).marcarVencimientoProcesado(List.of(1L, 2L));
+        verify(tareaRepository).marcarVencimientoProcesado(List.of(3L, 4L));
+        verify(jobLockService).liberar(BLOQUEO);
+    }
+
+    @Test
+    void bloqueoPerdidoAbortaElResto() {
+        // Otro nodo adquiere el bloqueo entre el primer lote y el segundo
+        when(jobLockService.renovar(BLOQUEO)).thenReturn(true).thenReturn(false);
+
+        assertThatThrownBy(() -> entregaService.generarEntregasAutomaticasPorVencimiento())
+                .isInstanceOf(BloqueoPerdidoException.class);
+
+        // El segundo lote no inserta ni se marca como procesado, y no se pide un tercero
+        verify(entregaRepository, times(1)).insertarVencidasParaTodoElCurso(anyCollection(), any(), anyString());
+        verify(tareaRepository).marcarVencimientoProcesado(List.of(1L, 2L));
+        verify(tareaRepository, never()).marcarVencimientoProcesado(List.of(3L, 4L));
+        verify(tareaRepository, times(2)).findIdsVencidasSinProcesar(any(LocalDate.class), anyLong(), any(Pageable.class));
+        verify(jobLockService).liberar(BLOQUEO);
+    }
+
+    @Test
+    void sinBloqueoNoGeneraNada() {
+        when(jobLockService.adquirir(eq("entregas-vencidas"), any())).thenReturn(Optional.empty());
+
+        assertThat(entregaService.generarEntregasAutomaticasPorVencimiento()).isEmpty();
+
+        verify(tareaRepository, never()).findIdsVencidasSinProcesar(any(LocalDate.class), anyLong(), any(Pageable.class));
+        verify(jobLockService, never()).liberar(any());
+    }
+}
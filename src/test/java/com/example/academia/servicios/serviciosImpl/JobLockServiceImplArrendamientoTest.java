@@ -0,0 +1,150 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.repositorios.JobLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Arrendamiento y fencing de JobLockServiceImpl sin base de datos: el repositorio simula las sentencias
+ * de job_locks (mismas condiciones WHERE) sobre una fila en memoria y un reloj que avanza a mano.
+ * JobLockServiceImplTest comprueba lo mismo contra MySQL (-Pmysql).
+ */
+class JobLockServiceImplArrendamientoTest {
+
+    private static final String NOMBRE = "prueba";
+    private static final Duration LARGO = Duration.ofMinutes(5);
+    private static final Duration CORTO = Duration.ofSeconds(1);
+
+    // Fila de job_locks
+    private static final class Fila {
+        String propietario;
+        long bloqueadoHasta;
+        long token;
+    }
+
+    private final Map<String, Fila> tabla = new HashMap<>();
+    private long ahora = 1_000;
+
+    private JobLockServiceImpl nodoA;
+    private JobLockServiceImpl nodoB;
+
+    @BeforeEach
+    void setUp() {
+        JobLockRepository repositorio = mock(JobLockRepository.class);
+        when(repositorio.crearSiNoExiste(anyString())).thenAnswer(inv -> {
+            Fila fila = new Fila();
+            fila.bloqueadoHasta = ahora;
+            return tabla.putIfAbsent(inv.getArgument(0), fila) == null ? 1 : 0;
+        });
+        when(repositorio.adquirir(anyString(), anyString(), anyLong())).thenAnswer(inv -> {
+            Fila fila = tabla.get(inv.<String>getArgument(0));
+            if (fila == null || fila.bloqueadoHasta > ahora) {
+                return 0;
+            }
+            fila.propietario = inv.getArgument(1);
+            fila.token++;
+            fila.bloqueadoHasta = ahora + inv.<Long>getArgument(2);
+            return 1;
+        });
+        when(repositorio.findToken(anyString(), anyString())).thenAnswer(inv -> {
+            Fila fila = tabla.get(inv.<String>getArgument(0));
+            return fila != null && Objects.equals(fila.propietario, inv.getArgument(1))
+                    ? Optional.of(fila.token) : Optional.empty();
+        });
+        when(repositorio.renovar(anyString(), anyString(), anyLong(), anyLong())).thenAnswer(inv -> {
+            Fila fila = vigente(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            if (fila == null) {
+                return 0;
+            }
+            fila.bloqueadoHasta = ahora + inv.<Long>getArgument(3);
+            return 1;
+        });
+        when(repositorio.liberar(anyString(), anyString(), anyLong())).thenAnswer(inv -> {
+            Fila fila = vigente(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            if (fila == null) {
+                return 0;
+            }
+            fila.bloqueadoHasta = ahora;
+            return 1;
+        });
+
+        nodoA = new JobLockServiceImpl(repositorio);
+        nodoB = new JobLockServiceImpl(repositorio);
+    }
+
+    // WHERE nombre = ? AND propietario = ? AND token = ?
+    private Fila vigente(String nombre, String propietario, long token) {
+        Fila fila = tabla.get(nombre);
+        return fila != null && Objects.equals(fila.propietario, propietario) && fila.token == token ? fila : null;
+    }
+
+    @Test
+    void otroNodoNoAdquiereMientrasDureElArrendamiento() {
+        JobLock deA = nodoA.adquirir(NOMBRE, LARGO).orElseThrow();
+
+        assertThat(nodoB.adquirir(NOMBRE, LARGO)).isEmpty();
+        // Tampoco el propio nodo vuelve a adquirirlo: no es reentrante
+        assertThat(nodoA.adquirir(NOMBRE, LARGO)).isEmpty();
+        assertThat(nodoA.renovar(deA)).isTrue();
+    }
+
+    @Test
+    void renovarAlargaElArrendamiento() {
+        JobLock deA = nodoA.adquirir(NOMBRE, CORTO).orElseThrow();
+        ahora += CORTO.toMillis() - 1;
+        assertThat(nodoA.renovar(deA)).isTrue();
+
+        // Sin la renovación ya habría caducado
+        ahora += CORTO.toMillis() - 1;
+        assertThat(nodoB.adquirir(NOMBRE, LARGO)).isEmpty();
+    }
+
+    @Test
+    void trasLiberarLoAdquiereOtroNodoConUnTokenMayor() {
+        JobLock deA = nodoA.adquirir(NOMBRE, LARGO).orElseThrow();
+        nodoA.liberar(deA);
+
+        JobLock deB = nodoB.adquirir(NOMBRE, LARGO).orElseThrow();
+
+        assertThat(deB.getPropietario()).isNotEqualTo(deA.getPropietario());
+        assertThat(deB.getToken()).isGreaterThan(deA.getToken());
+    }
+
+    @Test
+    void arrendamientoCaducadoDejaAlNodoAnteriorSinRenovarNiLiberar() {
+        JobLock deA = nodoA.adquirir(NOMBRE, CORTO).orElseThrow();
+        ahora += CORTO.toMillis();
+
+        JobLock deB = nodoB.adquirir(NOMBRE, LARGO).orElseThrow();
+        assertThat(deB.getToken()).isGreaterThan(deA.getToken());
+        assertThat(nodoA.renovar(deA)).isFalse();
+        // El liberar con el token viejo no suelta el bloqueo del otro nodo
+        nodoA.liberar(deA);
+        assertThat(nodoA.adquirir(NOMBRE, LARGO)).isEmpty();
+        assertThat(nodoB.renovar(deB)).isTrue();
+    }
+
+    @Test
+    void renovarFallaTambienSiElMismoNodoLoHaVueltoAAdquirir() {
+        JobLock primera = nodoA.adquirir(NOMBRE, CORTO).orElseThrow();
+        ahora += CORTO.toMillis();
+        JobLock segunda = nodoA.adquirir(NOMBRE, LARGO).orElseThrow();
+
+        // Mismo propietario, otra adquisición: el token viejo ya no vale
+        assertThat(nodoA.renovar(primera)).isFalse();
+        assertThat(nodoA.renovar(segunda)).isTrue();
+    }
+}
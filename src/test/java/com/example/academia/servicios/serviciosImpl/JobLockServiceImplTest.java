@@ -0,0 +1,101 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.JobLock;
+import com.example.academia.servicios.JobLockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bloqueo entre réplicas sobre la tabla job_locks de la base de datos real (MySQL, como contextLoads).
+ * Cada réplica es un JobLockServiceImpl propio con su propietario; el segundo se crea como bean para
+ * que tenga también sus transacciones. Solo con mvn test -Pmysql; sin base de datos, JobLockServiceImplArrendamientoTest.
+ */
+@Tag("mysql")
+@SpringBootTest
+class JobLockServiceImplTest {
+
+    private static final Duration LARGO = Duration.ofMinutes(5);
+    private static final Duration CORTO = Duration.ofMillis(200);
+
+    @Autowired
+    private JobLockService nodoA;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JobLockService nodoB;
+    private String nombre;
+
+    @BeforeEach
+    void preparar() {
+        nodoB = beanFactory.createBean(JobLockServiceImpl.class);
+        nombre = "prueba-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void limpiar() {
+        jdbcTemplate.update("DELETE FROM job_locks WHERE nombre = ?", nombre);
+    }
+
+    @Test
+    void otroNodoNoAdquiereMientrasDureElArrendamiento() {
+        Optional<JobLock> deA = nodoA.adquirir(nombre, LARGO);
+        assertThat(deA).isPresent();
+
+        assertThat(nodoB.adquirir(nombre, LARGO)).isEmpty();
+        // Tampoco el propio nodo vuelve a adquirirlo: no es reentrante
+        assertThat(nodoA.adquirir(nombre, LARGO)).isEmpty();
+        assertThat(nodoA.renovar(deA.get())).isTrue();
+    }
+
+    @Test
+    void trasLiberarLoAdquiereOtroNodoConUnTokenMayor() {
+        JobLock deA = nodoA.adquirir(nombre, LARGO).orElseThrow();
+        nodoA.liberar(deA);
+
+        JobLock deB = nodoB.adquirir(nombre, LARGO).orElseThrow();
+
+        assertThat(deB.getPropietario()).isNotEqualTo(deA.getPropietario());
+        assertThat(deB.getToken()).isGreaterThan(deA.getToken());
+    }
+
+    @Test
+    void renovarFallaCuandoElTokenHaAvanzado() throws InterruptedException {
+        JobLock deA = nodoA.adquirir(nombre, CORTO).orElseThrow();
+        Thread.sleep(CORTO.toMillis() * 2);
+
+        // Arrendamiento caducado: el otro nodo lo adquiere y A ya no puede renovar ni liberar
+        JobLock deB = nodoB.adquirir(nombre, LARGO).orElseThrow();
+        assertThat(deB.getToken()).isGreaterThan(deA.getToken());
+        assertThat(nodoA.renovar(deA)).isFalse();
+        nodoA.liberar(deA);
+        assertThat(nodoA.adquirir(nombre, LARGO)).isEmpty();
+        assertThat(nodoB.renovar(deB)).isTrue();
+    }
+
+    @Test
+    void renovarFallaTambienSiElMismoNodoLoHaVueltoAAdquirir() throws InterruptedException {
+        JobLock primera = nodoA.adquirir(nombre, CORTO).orElseThrow();
+        Thread.sleep(CORTO.toMillis() * 2);
+        JobLock segunda = nodoA.adquirir(nombre, LARGO).orElseThrow();
+
+        // Mismo propietario, otra adquisición: el token viejo ya no vale
+        assertThat(nodoA.renovar(primera)).isFalse();
+        assertThat(nodoA.renovar(segunda)).isTrue();
+    }
+}
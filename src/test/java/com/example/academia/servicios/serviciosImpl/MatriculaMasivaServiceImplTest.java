@@ -0,0 +1,274 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO;
+import com.example.academia.DTOs.MatriculaMasivaResultadoDTO.ErrorFila;
+import com.example.academia.Exceptions.ValidationException;
+import com.example.academia.repositorios.AlumnoRepository;
+import com.example.academia.repositorios.CursoRepository;
+import com.example.academia.repositorios.PlazasCursoRepository;
+import com.example.academia.repositorios.TareaVisibilidadRepository;
+import com.example.academia.servicios.EntregaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lectura de CSV y JSON de la matrícula masiva, errores por fila y tope de errores devueltos.
+ * La base de datos va simulada: cursos 1 (2 plazas libres) y 2 (lleno), alumnos 10 a 19, y el alumno 10 ya en el curso 1.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MatriculaMasivaServiceImplTest {
+
+    @Mock
+    private CursoRepository cursoRepository;
+    @Mock
+    private AlumnoRepository alumnoRepository;
+    @Mock
+    private TareaVisibilidadRepository tareaVisibilidadRepository;
+    @Mock
+    private PlazasCursoRepository plazasCursoRepository;
+    @Mock
+    private CursosCache cursosCache;
+    @Mock
+    private EntregaService entregaService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final List<List<Long>> insertadas = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(plazasCursoRepository.bloquearPlazasLibres(anyCollection())).thenAnswer(inv -> {
+            Map<Long, Integer> libres = new HashMap<>();
+            for (Long cursoId : inv.<Collection<Long>>getArgument(0)) {
+                if (cursoId == 1L) {
+                    libres.put(1L, 2);
+                } else if (cursoId == 2L) {
+                    libres.put(2L, 0);
+                }
+            }
+            return libres;
+        });
+        when(alumnoRepository.findIdsExistentes(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<Long>>getArgument(0).stream().filter(id -> id >= 10 && id <= 19).toList());
+        when(cursoRepository.findMatriculas(anyCollection(), anyCollection())).thenAnswer(inv -> {
+            List<Object[]> filas = new ArrayList<>();
+            if (inv.<Collection<Long>>getArgument(0).contains(1L) && inv.<Collection<Long>>getArgument(1).contains(10L)) {
+                filas.add(new Object[]{1L, 10L});
+            }
+            return filas;
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object>>any()))
+                .thenAnswer(inv -> {
+                    for (Object par : inv.<Collection<?>>getArgument(1)) {
+                        insertadas.add(List.of(campo(par, "cursoId"), campo(par, "alumnoId")));
+                    }
+                    return new int[0][];
+                });
+        when(plazasCursoRepository.reservar(anyLong(), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void csvConCabeceraBomYAmbosSeparadores() throws IOException {
+        MatriculaMasivaResultadoDTO resultado = servicio(1000, 1000).matricularCsv(entrada(
+                "﻿cursoId,alumnoId\n1,11\n\n1;\"12\"\n"));
+
+        assertThat(resultado.getFilasLeidas()).isEqualTo(2);
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(2);
+        assertThat(resultado.getFilasConError()).isZero();
+        assertThat(insertadas).containsExactly(List.of(1L, 11L), List.of(1L, 12L));
+        verify(plazasCursoRepository).reservar(1L, 2);
+        verify(tareaVisibilidadRepository).insertarPorMatriculas(any(), any());
+        verify(entregaService).generarEntregasVencidasPorMatricula(Set.of(1L), Set.of(11L, 12L));
+    }
+
+    @Test
+    void csvAnotaElErrorDeCadaFilaYSigue() throws IOException {
+        MatriculaMasivaResultadoDTO resultado = servicio(1000, 1000).matricularCsv(entrada(String.join("\n",
+                "1,11",        // 1: nueva
+                "abc,12",      // 2: formato
+                "1,2,3",       // 3: formato
+                "9,12",        // 4: curso inexistente
+                "1,99",        // 5: alumno inexistente
+                "1,10",        // 6: ya matriculado
+                "1,11",        // 7: repetido en el fichero
+                "2,12",        // 8: curso completo
+                "1,13",        // 9: nueva, última plaza del curso 1
+                "1,14")));     // 10: curso 1 ya sin plazas
+
+        assertThat(resultado.getFilasLeidas()).isEqualTo(10);
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(2);
+        assertThat(resultado.getYaMatriculadas()).isEqualTo(2);
+        assertThat(resultado.getFilasConError()).isEqualTo(6);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getFila).containsExactly(2L, 3L, 4L, 5L, 8L, 10L);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getError).containsExactly(
+                "Formato no válido: se esperaba cursoId,alumnoId",
+                "Formato no válido: se esperaba cursoId,alumnoId",
+                "Curso no encontrado con ID: 9",
+                "Alumno no encontrado con ID: 99",
+                "Curso completo",
+                "Curso completo");
+        assertThat(insertadas).containsExactly(List.of(1L, 11L), List.of(1L, 13L));
+    }
+
+    @Test
+    void elCursoSeBloqueaAntesDeInsertarEnCursoAlumnos() throws IOException {
+        servicio(1000, 1000).matricularCsv(entrada("1,11\n"));
+
+        InOrder orden = inOrder(plazasCursoRepository, jdbcTemplate);
+        orden.verify(plazasCursoRepository).bloquearPlazasLibres(anyCollection());
+        orden.verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object>>any());
+        orden.verify(plazasCursoRepository).reservar(1L, 1);
+    }
+
+    @Test
+    void csvSeProcesaPorLotes() throws IOException {
+        MatriculaMasivaResultadoDTO resultado = servicio(2, 1000).matricularCsv(entrada("1,11\n2,12\n1,13\n"));
+
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(2);
+        assertThat(resultado.getFilasConError()).isEqualTo(1);
+        ArgumentCaptor<Collection<Long>> cursos = cursosBloqueados(2);
+        assertThat(cursos.getAllValues().get(0)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cursos.getAllValues().get(1)).containsExactly(1L);
+    }
+
+    @Test
+    void loteFallidoMarcaSusFilasYNoDetieneLosSiguientes() throws IOException {
+        when(plazasCursoRepository.reservar(anyLong(), anyInt())).thenReturn(false, true);
+
+        MatriculaMasivaResultadoDTO resultado = servicio(2, 1000).matricularCsv(entrada("1,11\n1,12\n1,13\n"));
+
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(1);
+        assertThat(resultado.getFilasConError()).isEqualTo(2);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getFila).containsExactly(1L, 2L);
+        assertThat(resultado.getErrores().get(0).getError()).startsWith("No se pudo guardar el lote: ");
+    }
+
+    @Test
+    void jsonConIdsNumericosYTextoYErroresPorElemento() throws IOException {
+        MatriculaMasivaResultadoDTO resultado = servicio(1000, 1000).matricularJson(entrada("""
+                [
+                  {"cursoId": 1, "alumnoId": 11},
+                  {"cursoId": "1", "alumnoId": "12"},
+                  {"cursoId": 1.5, "alumnoId": 13},
+                  {"cursoId": 1},
+                  42,
+                  {"cursoId": 9, "alumnoId": 13}
+                ]"""));
+
+        assertThat(resultado.getFilasLeidas()).isEqualTo(6);
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(2);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getFila).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getError).containsExactly(
+                "cursoId y alumnoId deben ser números enteros",
+                "cursoId y alumnoId deben ser números enteros",
+                "Se esperaba un objeto {cursoId, alumnoId}",
+                "Curso no encontrado con ID: 9");
+        assertThat(insertadas).containsExactly(List.of(1L, 11L), List.of(1L, 12L));
+    }
+
+    @Test
+    void jsonRotoGuardaLoLeidoYSeDetiene() throws IOException {
+        MatriculaMasivaResultadoDTO resultado = servicio(1000, 1000).matricularJson(entrada(
+                "[{\"cursoId\": 1, \"alumnoId\": 11}, {\"cursoId\": 1, \"alumnoId\""));
+
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(1);
+        assertThat(resultado.getFilasConError()).isEqualTo(1);
+        assertThat(resultado.getErrores().get(0).getFila()).isEqualTo(2);
+        assertThat(resultado.getErrores().get(0).getError()).startsWith("JSON no válido, importación detenida");
+    }
+
+    @Test
+    void jsonQueNoEsUnArraySeRechaza() {
+        assertThatThrownBy(() -> servicio(1000, 1000).matricularJson(entrada("{\"cursoId\": 1, \"alumnoId\": 11}")))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> servicio(1000, 1000).matricularJson(entrada("no es json")))
+                .isInstanceOf(ValidationException.class);
+        verify(plazasCursoRepository, never()).bloquearPlazasLibres(anyCollection());
+    }
+
+    @Test
+    void seCuentanTodosLosErroresPeroSoloSeDevuelvenLosPrimeros() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            csv.append("1,x").append(i).append('\n');
+        }
+        csv.append("1,11\n");
+
+        MatriculaMasivaResultadoDTO resultado = servicio(1000, 3).matricularCsv(entrada(csv.toString()));
+
+        assertThat(resultado.getFilasLeidas()).isEqualTo(11);
+        assertThat(resultado.getFilasConError()).isEqualTo(10);
+        assertThat(resultado.getErrores()).extracting(ErrorFila::getFila).containsExactly(1L, 2L, 3L);
+        assertThat(resultado.getMatriculasCreadas()).isEqualTo(1);
+    }
+
+    private MatriculaMasivaServiceImpl servicio(int tamanoLote, int maximoErrores) {
+        return new MatriculaMasivaServiceImpl(cursoRepository, alumnoRepository, tareaVisibilidadRepository,
+                plazasCursoRepository, cursosCache, entregaService, jdbcTemplate, transactionTemplate, new ObjectMapper(),
+                tamanoLote, maximoErrores);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<Collection<Long>> cursosBloqueados(int veces) {
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(plazasCursoRepository, times(veces)).bloquearPlazasLibres(captor.capture());
+        return captor;
+    }
+
+    private static InputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Par es un record privado del servicio: se leen sus componentes por reflexión
+    private static Long campo(Object registro, String nombre) {
+        try {
+            var accesor = registro.getClass().getDeclaredMethod(nombre);
+            accesor.setAccessible(true);
+            return (Long) accesor.invoke(registro);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.academia.servicios.serviciosImpl;
+
+import com.example.academia.DTOs.Response.PaginaCursorDTO;
+import com.example.academia.DTOs.Response.TareaResponseDTO;
+import com.example.academia.entidades.TareaEntity;
+import com.example.academia.mappers.TareaMapper;
+import com.example.academia.repositorios.EntregaRepository;
+import com.example.academia.repositorios.TareaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Cursor de tareas del profesor: las sin fecha y las fechadas se piden con consultas de rango separadas
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TareaServiceImplCursorTest {
+
+    private static final Long PROFESOR = 1L;
+
+    @Mock private TareaRepository tareaRepository;
+    @Mock private EntregaRepository entregaRepository;
+    @Mock private TareaMapper tareaMapper;
+
+    @InjectMocks
+    private TareaServiceImpl tareaService;
+
+    @BeforeEach
+    void setUp() {
+        // Tareas 1-2 sin fecha; 3-4 con fecha (el id indica el día)
+        when(tareaRepository.findAllWithRelationsByIdIn(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<Long>>getArgument(0).stream().map(TareaServiceImplCursorTest::tarea).toList());
+        when(tareaMapper.toTareaResponseDTO(any(TareaEntity.class))).thenAnswer(inv -> {
+            TareaResponseDTO dto = new TareaResponseDTO();
+            dto.setId(inv.<TareaEntity>getArgument(0).getId());
+            return dto;
+        });
+        when(entregaRepository.contarEntregasPorTareaYEstado(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void alAcabarseLasSinFechaLaPaginaSigueConLasFechadas() {
+        when(tareaRepository.findIdsByProfesorIdCursorSinFechaDespuesDe(eq(PROFESOR), eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(2L), PageRequest.of(0, 2), false));
+        when(tareaRepository.findIdsByProfesorIdCursorConFecha(PROFESOR, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(3L), PageRequest.of(0, 1), true));
+
+        PaginaCursorDTO<TareaResponseDTO> pagina = tareaService.findTareasProfesorCursor(PROFESOR, cursor(null, 1L), 2);
+
+        assertThat(pagina.getContenido()).extracting(TareaResponseDTO::getId).containsExactly(2L, 3L);
+        assertThat(pagina.getSiguienteCursor()).isEqualTo(cursor(LocalDate.of(2024, 1, 3), 3L));
+    }
+
+    @Test
+    void paginaLlenaDeSinFechaDejaElCursorEnLaUltima() {
+        when(tareaRepository.findIdsByProfesorIdCursorSinFechaDespuesDe(eq(PROFESOR), eq(0L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), false));
+        when(tareaRepository.findIdsByProfesorIdCursorConFecha(PROFESOR, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(3L), PageRequest.of(0, 1), true));
+
+        PaginaCursorDTO<TareaResponseDTO> pagina = tareaService.findTareasProfesorCursor(PROFESOR, cursor(null, 0L), 2);
+
+        // La siguiente página empieza tras la última sin fecha y continúa con las fechadas
+        assertThat(pagina.getContenido()).extracting(TareaResponseDTO::getId).containsExactly(1L, 2L);
+        assertThat(pagina.getSiguienteCursor()).isEqualTo(cursor(null, 2L));
+    }
+
+    @Test
+    void conFechaNoVuelveAPedirLasSinFecha() {
+        when(tareaRepository.findIdsByProfesorIdCursorDespuesDe(eq(PROFESOR), eq(LocalDate.of(2024, 1, 3)), eq(3L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(4L), PageRequest.of(0, 2), false));
+
+        PaginaCursorDTO<TareaResponseDTO> pagina = tareaService.findTareasProfesorCursor(PROFESOR, cursor(LocalDate.of(2024, 1, 3), 3L), 2);
+
+        assertThat(pagina.getContenido()).extracting(TareaResponseDTO::getId).containsExactly(4L);
+        assertThat(pagina.getSiguienteCursor()).isNull();
+        verify(tareaRepository, never()).findIdsByProfesorIdCursorSinFechaDespuesDe(anyLong(), anyLong(), any());
+        verify(tareaRepository, never()).findIdsByProfesorIdCursorConFecha(anyLong(), any());
+    }
+
+    private static String cursor(LocalDate fecha, Long id) {
+        return CursorPaginacion.codificar(fecha, id);
+    }
+
+    private static TareaEntity tarea(Long id) {
+        TareaEntity tarea = new TareaEntity();
+        tarea.setId(id);
+        tarea.setFechaLimite(id > 2 ? LocalDate.of(2024, 1, id.intValue()) : null);
+        return tarea;
+    }
+}